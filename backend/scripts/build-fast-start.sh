@@ -0,0 +1,72 @@
+#!/usr/bin/env bash
+#
+# Builds the fast-start distribution of crud-backend:
+#   1. packages the application with Spring AOT processing (-Pfast-start)
+#   2. unpacks the fat jar into application.jar + lib/ so the JVM can load
+#      classes through the regular class path (required for CDS)
+#   3. performs a training run that refreshes the context and exits, dumping
+#      a class-data-sharing archive (application.jsa)
+#
+# Output: target/fast-start/{application.jar,lib/,application.jsa}
+# Run:    java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true \
+#              -Dspring.profiles.active=fast-start -jar application.jar
+#
+# AOT freezes @ConditionalOnProperty features (FastStartConfig.GATED_FEATURES) to
+# their build-time values; the image refuses to start when they are set differently
+# at runtime. Choose them for the build with, e.g.
+#   AOT_PROPERTIES="-Dproducts.<feature>.enabled=true"
+# and pass the same values when running the image.
+#
+# By default the training run does not need a database: schema validation and
+# JDBC metadata lookups are switched off for that run only. Set TRAINING_WITH_DB=1
+# to train against the configured datasource instead.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+OUT=target/fast-start
+MAIN_CLASS=com.hahnsoftware.crud.CrudApplication
+
+AOT_ARGS=()
+AOT_JVM_ARGS=()
+if [ -n "${AOT_PROPERTIES:-}" ]; then
+    AOT_ARGS+=("-Dspring-boot.aot.jvmArguments=$AOT_PROPERTIES")
+    read -r -a AOT_JVM_ARGS <<< "$AOT_PROPERTIES"
+fi
+
+mvn -B -Pfast-start clean package -DskipTests "${AOT_ARGS[@]}"
+
+rm -rf "$OUT"
+mkdir -p "$OUT/unpacked" "$OUT/lib"
+(cd "$OUT/unpacked" && jar xf ../../crud-backend-0.0.1-SNAPSHOT.jar)
+cp "$OUT"/unpacked/BOOT-INF/lib/*.jar "$OUT/lib/"
+
+# Manifest lines are limited in length, so fold the class path into continuation lines
+CLASS_PATH="Class-Path:"
+for lib in "$OUT"/lib/*.jar; do
+    CLASS_PATH="$CLASS_PATH lib/$(basename "$lib")"
+done
+{
+    echo "Main-Class: $MAIN_CLASS"
+    echo "$CLASS_PATH" | fold -w 70 | sed '2,$s/^/ /'
+} > "$OUT/MANIFEST.MF"
+jar cfm "$OUT/application.jar" "$OUT/MANIFEST.MF" -C "$OUT/unpacked/BOOT-INF/classes" .
+rm -rf "$OUT/unpacked" "$OUT/MANIFEST.MF"
+
+TRAINING_ARGS=()
+if [ "${TRAINING_WITH_DB:-0}" != "1" ]; then
+    TRAINING_ARGS+=(
+        "--spring.jpa.hibernate.ddl-auto=none"
+        "--spring.jpa.properties.hibernate.temp.use_jdbc_metadata_defaults=false"
+    )
+fi
+
+(cd "$OUT" && java \
+    -XX:ArchiveClassesAtExit=application.jsa -Xlog:cds=error \
+    -Dspring.aot.enabled=true \
+    -Dspring.context.exit=onRefresh \
+    -Dspring.profiles.active=fast-start \
+    "${AOT_JVM_ARGS[@]}" \
+    -jar application.jar "${TRAINING_ARGS[@]}")
+
+echo "Fast-start distribution written to $OUT"
@@ -0,0 +1,37 @@
+#!/usr/bin/env bash
+#
+# Replays a traffic capture (products.capture.enabled=true) against two running
+# instances, e.g. two builds on different ports, and compares throughput and
+# latency percentiles.
+#
+# Usage: scripts/replay-compare.sh <capture file> <baseline url> [candidate url] [extra options]
+#
+#   scripts/replay-compare.sh traffic-capture.tsv.gz http://localhost:8080 http://localhost:8081 \
+#       --concurrency 16 --duration-seconds 120
+#
+# Extra options: --concurrency n, --warm-up-seconds s, --duration-seconds s,
+# --pace speed (see TrafficReplayTool). Without --pace, requests are sent as fast as
+# responses come back, which measures peak throughput; with --pace 1, they are sent
+# at the captured offsets and latencies include queueing behind slow responses.
+# Both instances should serve the same data.
+set -euo pipefail
+
+if [ $# -lt 2 ]; then
+    sed -n '2,17p' "$0" >&2
+    exit 1
+fi
+
+# Relative to the caller's directory, resolved before changing into backend/
+FILE=$(cd "$(dirname "$1")" && pwd)/$(basename "$1")
+cd "$(dirname "$0")/.."
+
+BASELINE=$2
+shift 2
+ARGS=(--file "$FILE" --baseline "$BASELINE")
+if [ $# -gt 0 ] && [[ "$1" != --* ]]; then
+    ARGS+=(--candidate "$1")
+    shift
+fi
+
+mvn -B -q compile
+java -cp target/classes com.hahnsoftware.crud.replay.TrafficReplayTool "${ARGS[@]}" "$@"
@@ -0,0 +1,69 @@
+#!/usr/bin/env bash
+#
+# Measures crud-backend cold start: wall-clock time from JVM launch to the first
+# successful GET /api/products, and the resident set size at that moment.
+#
+# Usage: scripts/startup-benchmark.sh [default|fast-start] [runs]
+#
+#   default     runs target/crud-backend-0.0.1-SNAPSHOT.jar (mvn package)
+#   fast-start  runs target/fast-start/application.jar with AOT and CDS
+#               (scripts/build-fast-start.sh)
+#
+# Requires a reachable PostgreSQL (see application.properties / SPRING_DATASOURCE_*).
+# In fast-start mode the schema must already exist (schema.sql), since it is
+# only validated.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+MODE=${1:-default}
+RUNS=${2:-5}
+PORT=${PORT:-8080}
+URL="http://localhost:$PORT/api/products"
+
+case "$MODE" in
+    default)
+        WORK_DIR=target
+        CMD=(java -jar crud-backend-0.0.1-SNAPSHOT.jar "--server.port=$PORT")
+        ;;
+    fast-start)
+        WORK_DIR=target/fast-start
+        CMD=(java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true
+             -Dspring.profiles.active=fast-start -jar application.jar "--server.port=$PORT")
+        ;;
+    *)
+        echo "Unknown mode: $MODE (expected default or fast-start)" >&2
+        exit 1
+        ;;
+esac
+
+now_ms() {
+    echo $(( $(date +%s%N) / 1000000 ))
+}
+
+echo "mode=$MODE runs=$RUNS"
+TIMES=()
+for run in $(seq 1 "$RUNS"); do
+    START=$(now_ms)
+    (cd "$WORK_DIR" && exec "${CMD[@]}") > "target/startup-benchmark-$MODE.log" 2>&1 &
+    PID=$!
+
+    until curl -sf -o /dev/null "$URL"; do
+        if ! kill -0 "$PID" 2>/dev/null; then
+            echo "Application exited before serving $URL, see target/startup-benchmark-$MODE.log" >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    ELAPSED=$(( $(now_ms) - START ))
+    RSS_KB=$(awk '/VmRSS/ {print $2}' "/proc/$PID/status")
+
+    kill "$PID"
+    wait "$PID" 2>/dev/null || true
+
+    echo "run=$run first_request_ms=$ELAPSED rss_mb=$(( RSS_KB / 1024 ))"
+    TIMES+=("$ELAPSED")
+done
+
+MEDIAN=$(printf '%s\n' "${TIMES[@]}" | sort -n | awk '{a[NR]=$1} END {print a[int((NR+1)/2)]}')
+echo "median_first_request_ms=$MEDIAN"
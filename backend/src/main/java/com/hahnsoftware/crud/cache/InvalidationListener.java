@@ -0,0 +1,18 @@
+package com.hahnsoftware.crud.cache;
+
+/**
+ * Receives invalidations that other nodes publish on the {@link PostgresInvalidationBus}.
+ * Called on the listener thread, so implementations must hand work off rather than block.
+ */
+public interface InvalidationListener {
+
+    /**
+     * The product was changed or deleted on another node
+     */
+    void onInvalidated(long productId);
+
+    /**
+     * Any product may have changed: a bulk import, a missed message or a lost connection
+     */
+    void onFlush();
+}
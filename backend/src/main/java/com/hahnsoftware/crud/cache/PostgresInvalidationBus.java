@@ -0,0 +1,332 @@
+package com.hahnsoftware.crud.cache;
+
+import com.hahnsoftware.crud.event.ProductChangedEvent;
+import com.hahnsoftware.crud.event.ProductsImportedEvent;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the {@link ProductNearCache} of every node coherent through PostgreSQL LISTEN/NOTIFY.
+ *
+ * After each committed product write, the writing node sends a NOTIFY carrying the
+ * product id, a version from a database sequence, and its own origin id with a
+ * per-node sequence number. Every node applies invalidations from a dedicated
+ * listening connection on a background thread.
+ *
+ * Writers invalidate their own cache immediately and hand the message to a queue.
+ * A single publisher thread drains it over its own non-pooled connection, so
+ * sequence numbers go out in order without callers holding a lock or a pooled
+ * connection while the NOTIFY is sent.
+ *
+ * Receivers track the last sequence number per origin. A gap (a message lost, or a
+ * notify that failed after the sequence number was taken) flushes the whole cache,
+ * as does losing the listening connection. Origins also send heartbeats with their
+ * current sequence number, so a gap is detected even when no further writes follow.
+ *
+ * Payload format: {@code origin|sequence|P|productId|version} for invalidations,
+ * {@code origin|sequence|F} for flushes (after bulk imports) and
+ * {@code origin|sequence|H} for heartbeats.
+ *
+ * Other in-memory copies of products can follow remote writes through
+ * {@link #addListener}; they are told about the same invalidations and flushes
+ * as the near-cache.
+ */
+public class PostgresInvalidationBus {
+
+    public static final String CHANNEL = "product_invalidation";
+    private static final String VERSION_SEQUENCE = "product_invalidation_version";
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+    private static final int POLL_TIMEOUT_MILLIS = 500;
+    private static final int PUBLISH_QUEUE_CAPACITY = 10_000;
+    private static final String NOTIFY_INVALIDATION_SQL = "WITH n AS (SELECT nextval('" + VERSION_SEQUENCE + "') AS v) "
+            + "SELECT pg_notify(?, CAST(? AS text) || v) FROM n";
+    private static final String NOTIFY_SQL = "SELECT pg_notify(?, ?)";
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresInvalidationBus.class);
+
+    private final ProductNearCache cache;
+    private final JdbcTemplate jdbcTemplate;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final long heartbeatMillis;
+    private final String origin = UUID.randomUUID().toString().substring(0, 8);
+    private final Map<String, OriginState> origins = new ConcurrentHashMap<>();
+    private final List<InvalidationListener> listeners = new CopyOnWriteArrayList<>();
+    private final BlockingQueue<Outgoing> outgoing = new LinkedBlockingQueue<>(PUBLISH_QUEUE_CAPACITY);
+    private final AtomicLong sequence = new AtomicLong();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "near-cache-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile boolean running;
+    private volatile boolean listening;
+    private Thread listener;
+    private Thread publisher;
+    // Owned by the publisher thread
+    private Connection publishConnection;
+
+    public PostgresInvalidationBus(ProductNearCache cache, JdbcTemplate jdbcTemplate,
+                                   String url, String username, String password, long heartbeatMillis) {
+        this.cache = cache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.heartbeatMillis = heartbeatMillis;
+    }
+
+    public void start() {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + VERSION_SEQUENCE);
+        running = true;
+        listener = new Thread(this::listen, "near-cache-listener");
+        listener.setDaemon(true);
+        listener.start();
+        publisher = new Thread(this::drain, "near-cache-publisher");
+        publisher.setDaemon(true);
+        publisher.start();
+        scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(cache::expire, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void stop() throws InterruptedException {
+        running = false;
+        scheduler.shutdownNow();
+        if (listener != null) {
+            listener.join(POLL_TIMEOUT_MILLIS * 4L);
+        }
+        if (publisher != null) {
+            publisher.join(POLL_TIMEOUT_MILLIS * 4L);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        publish(event.getProductId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        publishFlush();
+    }
+
+    /**
+     * Invalidate the product locally and on every other node
+     */
+    public void publish(long productId) {
+        cache.invalidate(productId, 0);
+        enqueue(new Outgoing('P', productId));
+    }
+
+    /**
+     * Flush the cache locally and on every other node
+     */
+    public void publishFlush() {
+        cache.flush();
+        enqueue(new Outgoing('F', 0));
+    }
+
+    /**
+     * Also deliver invalidations from other nodes to the given listener
+     */
+    public void addListener(InvalidationListener invalidationListener) {
+        listeners.add(invalidationListener);
+    }
+
+    /**
+     * Whether the listening connection is currently established
+     */
+    public boolean isListening() {
+        return listening;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    void handle(String payload) {
+        String[] parts = payload.split("\\|");
+        if (parts.length < 3) {
+            log.warn("Ignoring malformed invalidation message: {}", payload);
+            return;
+        }
+        String sender = parts[0];
+        long senderSequence = Long.parseLong(parts[1]);
+        boolean heartbeat = "H".equals(parts[2]);
+
+        if (!sender.equals(origin)) {
+            OriginState state = origins.computeIfAbsent(sender, key -> new OriginState());
+            long expected = heartbeat ? state.lastSequence : state.lastSequence + 1;
+            if (state.lastSequence >= 0 && senderSequence != expected) {
+                log.warn("Missed invalidations from node {} (expected {}, got {}), flushing near-cache",
+                        sender, expected, senderSequence);
+                flushAll();
+            }
+            state.lastSequence = Math.max(state.lastSequence, senderSequence);
+            state.lastSeenNanos = System.nanoTime();
+            if ("F".equals(parts[2])) {
+                flushAll();
+            } else if (!heartbeat && parts.length == 5) {
+                long productId = Long.parseLong(parts[3]);
+                cache.invalidate(productId, Long.parseLong(parts[4]));
+                for (InvalidationListener invalidationListener : listeners) {
+                    invalidationListener.onInvalidated(productId);
+                }
+            }
+        }
+    }
+
+    private void flushAll() {
+        cache.flush();
+        for (InvalidationListener invalidationListener : listeners) {
+            invalidationListener.onFlush();
+        }
+    }
+
+    private void heartbeat() {
+        // Queued behind pending invalidations so that it cannot overtake them
+        outgoing.offer(new Outgoing('H', 0));
+        // Forget nodes that stopped sending heartbeats
+        long cutoff = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(heartbeatMillis * 5);
+        origins.values().removeIf(state -> state.lastSeenNanos < cutoff);
+    }
+
+    private void enqueue(Outgoing message) {
+        if (!outgoing.offer(message)) {
+            // Skipping a sequence number makes every other node flush
+            sequence.incrementAndGet();
+            log.warn("Near-cache publish queue is full, dropping {} message", message.kind);
+        }
+    }
+
+    private void drain() {
+        while (running || !outgoing.isEmpty()) {
+            Outgoing message;
+            try {
+                message = outgoing.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (message != null) {
+                send(message);
+            }
+        }
+        closePublishConnection();
+    }
+
+    private void send(Outgoing message) {
+        // Taken before sending, so a failed notify leaves a gap the other nodes detect
+        long current = message.kind == 'H' ? sequence.get() : sequence.incrementAndGet();
+        String payload = origin + "|" + current + "|" + message.kind;
+        try {
+            if (publishConnection == null) {
+                publishConnection = DriverManager.getConnection(url, username, password);
+            }
+            boolean invalidation = message.kind == 'P';
+            try (PreparedStatement statement = publishConnection.prepareStatement(invalidation ? NOTIFY_INVALIDATION_SQL : NOTIFY_SQL)) {
+                statement.setString(1, CHANNEL);
+                statement.setString(2, invalidation ? payload + "|" + message.productId + "|" : payload);
+                try (ResultSet ignored = statement.executeQuery()) {
+                    // Autocommit: the notification is delivered as soon as the statement completes
+                }
+            }
+        } catch (SQLException e) {
+            if (message.kind == 'H') {
+                log.debug("Failed to send near-cache heartbeat", e);
+            } else {
+                log.warn("Failed to publish near-cache message {}", payload, e);
+            }
+            closePublishConnection();
+        }
+    }
+
+    private void closePublishConnection() {
+        if (publishConnection == null) {
+            return;
+        }
+        try {
+            publishConnection.close();
+        } catch (SQLException e) {
+            log.debug("Failed to close near-cache publish connection", e);
+        }
+        publishConnection = null;
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // Anything may have changed while this node was not listening
+                origins.clear();
+                flushAll();
+                listening = true;
+                log.info("Near-cache listening for invalidations as node {}", origin);
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        handle(notification.getParameter());
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                log.warn("Near-cache invalidation listener failed, flushing and reconnecting", e);
+            } finally {
+                listening = false;
+                flushAll();
+            }
+            sleepBeforeReconnect();
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        if (!running) {
+            return;
+        }
+        try {
+            Thread.sleep(RECONNECT_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private record Outgoing(char kind, long productId) {
+    }
+
+    private static final class OriginState {
+
+        private volatile long lastSequence = -1;
+        private volatile long lastSeenNanos = System.nanoTime();
+    }
+}
@@ -0,0 +1,161 @@
+package com.hahnsoftware.crud.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-node cache of product read results, kept coherent by invalidation messages.
+ *
+ * Single-product results are keyed by product id. List results (search, category,
+ * ...) may depend on any product, so every invalidation drops all of them. A flush
+ * drops everything.
+ *
+ * To stop a read that started before an invalidation from caching what it read,
+ * callers take a {@link #beginLoad() ticket} before querying and pass it when
+ * storing: a product result is refused if that product was invalidated after the
+ * ticket was taken, a list result if anything was.
+ *
+ * Entries also expire after a TTL, which bounds staleness when an invalidation is
+ * lost in a way that cannot be detected (e.g. a node dying between commit and notify).
+ */
+public class ProductNearCache {
+
+    private final Map<Long, Entry> products = new ConcurrentHashMap<>();
+    private final Map<Object, Entry> lists = new ConcurrentHashMap<>();
+    private final Map<Long, Long> invalidatedAt = new ConcurrentHashMap<>();
+    private final AtomicLong epoch = new AtomicLong();
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier clock;
+
+    private volatile long flushedAt;
+    private volatile long lastVersion;
+
+    public ProductNearCache(long ttlNanos, int maxEntries, LongSupplier clock) {
+        this.ttlNanos = ttlNanos;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    /**
+     * Take a ticket before reading from the database
+     */
+    public long beginLoad() {
+        return epoch.get();
+    }
+
+    /**
+     * Cached result for one product, or null on a miss
+     */
+    public Object getProduct(Long productId) {
+        return valueOf(products, productId);
+    }
+
+    /**
+     * Cached list result, or null on a miss
+     */
+    public Object getList(Object key) {
+        return valueOf(lists, key);
+    }
+
+    /**
+     * Cache a product result read with the given ticket, unless it may be stale
+     */
+    public void putProduct(Long productId, Object value, long ticket) {
+        if (isProductStale(productId, ticket) || products.size() >= maxEntries) {
+            return;
+        }
+        Entry entry = new Entry(value, clock.getAsLong());
+        products.put(productId, entry);
+        // Re-check after publishing: an invalidation may have raced with the put
+        if (isProductStale(productId, ticket)) {
+            products.remove(productId, entry);
+        }
+    }
+
+    /**
+     * Cache a list result read with the given ticket, unless anything changed since
+     */
+    public void putList(Object key, Object value, long ticket) {
+        if (epoch.get() != ticket || lists.size() >= maxEntries) {
+            return;
+        }
+        Entry entry = new Entry(value, clock.getAsLong());
+        lists.put(key, entry);
+        if (epoch.get() != ticket) {
+            lists.remove(key, entry);
+        }
+    }
+
+    /**
+     * Apply an invalidation for one product
+     */
+    public void invalidate(long productId, long version) {
+        invalidatedAt.put(productId, epoch.incrementAndGet());
+        lastVersion = Math.max(lastVersion, version);
+        products.remove(productId);
+        lists.clear();
+    }
+
+    /**
+     * Drop everything, e.g. after missing invalidations
+     */
+    public void flush() {
+        flushedAt = epoch.incrementAndGet();
+        products.clear();
+        lists.clear();
+        invalidatedAt.clear();
+    }
+
+    /**
+     * Remove expired entries and reset the invalidation markers. Loads still in
+     * flight are refused instead, so the markers never need to outlive this call.
+     */
+    public void expire() {
+        long now = clock.getAsLong();
+        products.values().removeIf(entry -> now - entry.loadedAtNanos > ttlNanos);
+        lists.values().removeIf(entry -> now - entry.loadedAtNanos > ttlNanos);
+        flushedAt = epoch.incrementAndGet();
+        invalidatedAt.clear();
+    }
+
+    public int size() {
+        return products.size() + lists.size();
+    }
+
+    /**
+     * Highest invalidation version applied on this node
+     */
+    public long getLastVersion() {
+        return lastVersion;
+    }
+
+    private boolean isProductStale(Long productId, long ticket) {
+        return ticket < flushedAt || invalidatedAt.getOrDefault(productId, ticket) > ticket;
+    }
+
+    private <K> Object valueOf(Map<K, Entry> map, K key) {
+        Entry entry = map.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() - entry.loadedAtNanos > ttlNanos) {
+            map.remove(key, entry);
+            return null;
+        }
+        return entry.value;
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private final long loadedAtNanos;
+
+        Entry(Object value, long loadedAtNanos) {
+            this.value = value;
+            this.loadedAtNanos = loadedAtNanos;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.hahnsoftware.crud.catalog;
+
+/**
+ * List, filter and sort parameters for a {@link CatalogSnapshot}
+ */
+public class CatalogQuery {
+
+    public enum SortField {
+        CREATED_AT,
+        NAME,
+        PRICE,
+        QUANTITY;
+
+        /**
+         * Parse a request parameter such as "createdAt", "name", "price" or "quantity"
+         */
+        public static SortField fromParameter(String value) {
+            if (value == null || value.isBlank()) {
+                return CREATED_AT;
+            }
+            String normalized = value.replace("_", "").replace("-", "");
+            for (SortField field : values()) {
+                if (field.name().replace("_", "").equalsIgnoreCase(normalized)) {
+                    return field;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported sort field: " + value);
+        }
+    }
+
+    private final String category;
+    private final Integer maxQuantity;
+    private final SortField sortField;
+    private final boolean descending;
+    private final int offset;
+    private final int limit;
+
+    public CatalogQuery(String category, Integer maxQuantity, SortField sortField, boolean descending,
+                        int offset, int limit) {
+        this.category = category;
+        this.maxQuantity = maxQuantity;
+        this.sortField = sortField == null ? SortField.CREATED_AT : sortField;
+        this.descending = descending;
+        this.offset = Math.max(0, offset);
+        this.limit = limit;
+    }
+
+    /**
+     * All products, newest first (same order as ProductService.getAllProducts)
+     */
+    public static CatalogQuery all() {
+        return new CatalogQuery(null, null, SortField.CREATED_AT, true, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Products whose category contains the term, ignoring case
+     */
+    public static CatalogQuery byCategory(String category) {
+        return new CatalogQuery(category, null, SortField.CREATED_AT, true, 0, Integer.MAX_VALUE);
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public Integer getMaxQuantity() {
+        return maxQuantity;
+    }
+
+    public SortField getSortField() {
+        return sortField;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,302 @@
+package com.hahnsoftware.crud.catalog;
+
+import com.hahnsoftware.crud.cache.InvalidationListener;
+import com.hahnsoftware.crud.cache.PostgresInvalidationBus;
+import com.hahnsoftware.crud.dto.ProductDTO;
+import com.hahnsoftware.crud.event.ProductChangedEvent;
+import com.hahnsoftware.crud.event.ProductsImportedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import com.hahnsoftware.crud.util.LongIntMap;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory read model of the whole catalog, separate from JPA.
+ *
+ * The catalog is held as an immutable {@link CatalogSnapshot} behind a volatile
+ * reference: readers use whatever snapshot is current without locking, and writers
+ * publish a new one. Committed product changes are queued and applied as one patch
+ * per interval on a single thread; a full rebuild from the database runs periodically
+ * to correct any drift. Changes that arrive during a load are applied on top of it,
+ * which is safe because every change carries the full product state.
+ *
+ * Changes can arrive out of order, so an update only replaces a row with an equal or
+ * older updatedAt, and a delete is final (ids are never reused). With the near-cache
+ * enabled, writes on other nodes arrive through the {@link PostgresInvalidationBus}:
+ * the changed products are re-read from the database, and a flush triggers a rebuild.
+ *
+ * Until the first load completes, {@link #isServing()} is false and callers fall
+ * back to the database. The snapshot is loaded from the primary database and is not
+ * available when products are sharded.
+ */
+@Service
+@Lazy(false)
+public class CatalogReadModel implements InvalidationListener {
+
+    private static final String SELECT_COLUMNS = "SELECT id, name, description, price, quantity, category, created_at, updated_at FROM products ";
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogReadModel.class);
+
+    private final boolean enabled;
+    private final long patchMillis;
+    private final long rebuildMillis;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectProvider<PostgresInvalidationBus> invalidationBus;
+    private final Queue<ProductChangedEvent> pendingChanges = new ConcurrentLinkedQueue<>();
+    private final Queue<Long> pendingReloads = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean rebuildRequested = new AtomicBoolean();
+    private final ScheduledExecutorService applier = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-snapshot-applier");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile CatalogSnapshot snapshot = CatalogSnapshot.empty();
+    private volatile boolean serving;
+    // Products deleted since the last load began; owned by the applier thread
+    private LongIntMap deletedIds = new LongIntMap(16);
+
+    @Autowired
+    public CatalogReadModel(DataSource dataSource,
+                            TransactionTemplate transactionTemplate,
+                            MeterRegistry meterRegistry,
+                            ObjectProvider<PostgresInvalidationBus> invalidationBus,
+                            @Value("${products.catalog-snapshot.enabled:false}") boolean enabled,
+                            @Value("${products.catalog-snapshot.patch-ms:50}") long patchMillis,
+                            @Value("${products.catalog-snapshot.rebuild-ms:300000}") long rebuildMillis,
+                            @Value("${products.sharding.enabled:false}") boolean sharded) {
+        if (enabled && sharded) {
+            log.warn("Catalog snapshot disabled: not supported with sharded product storage");
+        }
+        this.enabled = enabled && !sharded;
+        this.patchMillis = patchMillis;
+        this.rebuildMillis = rebuildMillis;
+        this.invalidationBus = invalidationBus;
+        // Own template: full loads stream rows with a cursor
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(10_000);
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setReadOnly(true);
+        Gauge.builder("products.catalog_snapshot.size", this, model -> model.snapshot.size())
+                .description("Products in the in-memory catalog snapshot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether reads can be served from the snapshot
+     */
+    public boolean isServing() {
+        return serving;
+    }
+
+    /**
+     * Filter, sort and page the current snapshot
+     */
+    public List<ProductDTO> list(CatalogQuery query) {
+        return snapshot.list(query);
+    }
+
+    /**
+     * Load the snapshot in the background so startup is not delayed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        invalidationBus.ifAvailable(bus -> bus.addListener(this));
+        requestRebuild();
+        applier.scheduleWithFixedDelay(this::applyPendingChanges, patchMillis, patchMillis, TimeUnit.MILLISECONDS);
+        applier.scheduleWithFixedDelay(this::rebuild, rebuildMillis, rebuildMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        applier.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (enabled) {
+            pendingChanges.add(event);
+        }
+    }
+
+    /**
+     * Bulk imports do not publish per-product changes: rebuild instead
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        if (enabled) {
+            requestRebuild();
+        }
+    }
+
+    @Override
+    public void onInvalidated(long productId) {
+        if (enabled) {
+            pendingReloads.add(productId);
+        }
+    }
+
+    @Override
+    public void onFlush() {
+        if (enabled) {
+            requestRebuild();
+        }
+    }
+
+    private void requestRebuild() {
+        // Reconnect loops and bursts of flushes collapse into one pending rebuild
+        if (rebuildRequested.compareAndSet(false, true)) {
+            applier.execute(this::rebuild);
+        }
+    }
+
+    void applyPendingChanges() {
+        if (!serving || (pendingChanges.isEmpty() && pendingReloads.isEmpty())) {
+            return;
+        }
+        try {
+            // Null marks a delete
+            Map<Long, ProductDTO> changes = new HashMap<>();
+            ProductChangedEvent event;
+            while ((event = pendingChanges.poll()) != null) {
+                merge(changes, event.getProductId(), event.getProduct());
+            }
+            for (Map.Entry<Long, ProductDTO> reload : reloadRemoteChanges().entrySet()) {
+                merge(changes, reload.getKey(), reload.getValue());
+            }
+            for (Map.Entry<Long, ProductDTO> change : changes.entrySet()) {
+                if (change.getValue() == null) {
+                    deletedIds.put(change.getKey(), 0);
+                } else if (deletedIds.get(change.getKey()) >= 0) {
+                    // A late update of a product that is already gone
+                    change.setValue(null);
+                }
+            }
+            snapshot = snapshot.patch(changes);
+        } catch (RuntimeException e) {
+            // Stop serving possibly incomplete data until it is rebuilt
+            log.error("Failed to patch the catalog snapshot", e);
+            serving = false;
+            requestRebuild();
+        }
+    }
+
+    /**
+     * Current state of the products changed on other nodes, null for deleted ones
+     */
+    private Map<Long, ProductDTO> reloadRemoteChanges() {
+        Set<Long> ids = new HashSet<>();
+        Long id;
+        while ((id = pendingReloads.poll()) != null) {
+            ids.add(id);
+        }
+        Map<Long, ProductDTO> reloaded = new HashMap<>();
+        if (ids.isEmpty()) {
+            return reloaded;
+        }
+        for (Long reloadId : ids) {
+            reloaded.put(reloadId, null);
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_COLUMNS + "WHERE id = ANY(?)");
+            statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+            return statement;
+        }, rs -> {
+            ProductDTO product = readProduct(rs);
+            reloaded.put(product.getId(), product);
+        }));
+        return reloaded;
+    }
+
+    /**
+     * Keep the most recent of two states of one product; a delete is final
+     */
+    private static void merge(Map<Long, ProductDTO> changes, long productId, ProductDTO product) {
+        if (!changes.containsKey(productId)) {
+            changes.put(productId, product);
+            return;
+        }
+        ProductDTO current = changes.get(productId);
+        if (current == null) {
+            return;
+        }
+        if (product == null || product.getUpdatedAt() == null || current.getUpdatedAt() == null
+                || !product.getUpdatedAt().isBefore(current.getUpdatedAt())) {
+            changes.put(productId, product);
+        }
+    }
+
+    private static ProductDTO readProduct(ResultSet rs) throws SQLException {
+        return new ProductDTO(rs.getLong("id"),
+                rs.getString("name"),
+                rs.getString("description"),
+                rs.getBigDecimal("price"),
+                rs.getInt("quantity"),
+                rs.getString("category"),
+                rs.getObject("created_at", LocalDateTime.class),
+                rs.getObject("updated_at", LocalDateTime.class));
+    }
+
+    void rebuild() {
+        rebuildRequested.set(false);
+        long start = System.nanoTime();
+        try {
+            // Deletes committed before the load are not in the rows read
+            deletedIds = new LongIntMap(16);
+            CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder(Math.max(16, snapshot.size()));
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(
+                    SELECT_COLUMNS + "ORDER BY created_at DESC NULLS LAST, id DESC",
+                    rs -> {
+                        builder.add(rs.getLong("id"),
+                                rs.getString("name"),
+                                rs.getString("description"),
+                                rs.getBigDecimal("price"),
+                                rs.getInt("quantity"),
+                                rs.getString("category"),
+                                rs.getObject("created_at", LocalDateTime.class),
+                                rs.getObject("updated_at", LocalDateTime.class));
+                    }));
+            snapshot = builder.build();
+            serving = true;
+            log.info("Built catalog snapshot of {} products in {} ms",
+                    snapshot.size(), (System.nanoTime() - start) / 1_000_000);
+            // Changes committed while loading may or may not be in the rows read
+            applyPendingChanges();
+        } catch (RuntimeException e) {
+            log.error("Failed to build the catalog snapshot", e);
+        }
+    }
+}
@@ -0,0 +1,542 @@
+package com.hahnsoftware.crud.catalog;
+
+import com.hahnsoftware.crud.dto.ProductDTO;
+import com.hahnsoftware.crud.util.LongIntMap;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable, column-oriented copy of the product catalog.
+ *
+ * Each attribute is stored in its own array: ids, prices as cents in a long,
+ * quantities, and timestamps as epoch microseconds are primitive; categories are
+ * dictionary-encoded; repeated descriptions share one String instance. Rows are listed
+ * newest first, the order of ProductService.getAllProducts.
+ *
+ * Columns are split into chunks of {@link #CHUNK_SIZE} rows, stored oldest first so
+ * that new products are appended to the last chunk. A row is addressed by a handle
+ * (chunk index and offset), and a primitive id-to-handle map locates changed products.
+ *
+ * Snapshots are never modified. {@link #patch} produces a new snapshot that shares
+ * every untouched chunk with this one and copies only the chunks it changes, so readers
+ * can use whichever snapshot they obtained without locking.
+ */
+public final class CatalogSnapshot {
+
+    static final int CHUNK_SHIFT = 10;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int OFFSET_MASK = CHUNK_SIZE - 1;
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+    private static final int NO_CATEGORY = -1;
+    // Runs of this many rows are insertion sorted before merging
+    private static final int INSERTION_SORT_RUN = 16;
+
+    private final Chunk[] chunks;
+    private final int size;
+    private final String[] categoryDictionary;
+    private final Map<String, Integer> categoryCodesByName;
+
+    // Handed over to the snapshot produced by patch; rebuilt if an older snapshot is patched
+    private LongIntMap rowIndex;
+
+    private CatalogSnapshot(Chunk[] chunks, int size, String[] categoryDictionary,
+                            Map<String, Integer> categoryCodesByName, LongIntMap rowIndex) {
+        this.chunks = chunks;
+        this.size = size;
+        this.categoryDictionary = categoryDictionary;
+        this.categoryCodesByName = categoryCodesByName;
+        this.rowIndex = rowIndex;
+    }
+
+    public static CatalogSnapshot empty() {
+        return new Builder(0).build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Filter, sort and page the catalog
+     */
+    public List<ProductDTO> list(CatalogQuery query) {
+        boolean[] categoryMatches = matchingCategories(query.getCategory());
+        Integer maxQuantity = query.getMaxQuantity();
+
+        int[] rows = new int[size];
+        int count = 0;
+        for (int c = chunks.length - 1; c >= 0; c--) {
+            Chunk chunk = chunks[c];
+            for (int offset = chunk.size - 1; offset >= 0; offset--) {
+                if (categoryMatches != null) {
+                    int code = chunk.categoryCodes[offset];
+                    if (code == NO_CATEGORY || !categoryMatches[code]) {
+                        continue;
+                    }
+                }
+                if (maxQuantity != null && chunk.quantities[offset] > maxQuantity) {
+                    continue;
+                }
+                rows[count++] = c << CHUNK_SHIFT | offset;
+            }
+        }
+
+        if (!isNaturalOrder(query)) {
+            rows = sort(rows, count, query);
+        }
+
+        int from = Math.min(query.getOffset(), count);
+        int to = (int) Math.min((long) from + query.getLimit(), count);
+        if (from >= to) {
+            return Collections.emptyList();
+        }
+        List<ProductDTO> result = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            result.add(toDTO(rows[i]));
+        }
+        return result;
+    }
+
+    /**
+     * New snapshot with the given changes applied: a product maps to its new state,
+     * or to null if it was deleted. Products not yet in the snapshot are added as the
+     * newest rows.
+     */
+    public CatalogSnapshot patch(Map<Long, ProductDTO> changes) {
+        if (changes.isEmpty()) {
+            return this;
+        }
+
+        LongIntMap index = takeRowIndex();
+        Chunk[] patched = Arrays.copyOf(chunks, chunks.length);
+        boolean[] copied = new boolean[chunks.length];
+        CategoryCodes categories = new CategoryCodes(categoryDictionary, categoryCodesByName);
+        List<ProductDTO> added = new ArrayList<>();
+        int[] deleted = new int[changes.size()];
+        int deletedCount = 0;
+
+        // Updates are applied in place; deletes wait so that handles stay valid meanwhile
+        for (Map.Entry<Long, ProductDTO> change : changes.entrySet()) {
+            ProductDTO product = change.getValue();
+            int handle = index.get(change.getKey());
+            if (handle < 0) {
+                if (product != null) {
+                    added.add(product);
+                }
+            } else if (product == null) {
+                deleted[deletedCount++] = handle;
+            } else if (toMicros(product.getUpdatedAt()) >= patched[handle >>> CHUNK_SHIFT].updatedAt[handle & OFFSET_MASK]) {
+                // An older state delivered out of order must not replace a newer row
+                writable(patched, copied, handle >>> CHUNK_SHIFT).set(handle & OFFSET_MASK, product, categories);
+            }
+        }
+
+        int newSize = size - deletedCount;
+        if (deletedCount > 0) {
+            Arrays.sort(deleted, 0, deletedCount);
+            int from = 0;
+            while (from < deletedCount) {
+                int chunkIndex = deleted[from] >>> CHUNK_SHIFT;
+                int to = from;
+                while (to < deletedCount && deleted[to] >>> CHUNK_SHIFT == chunkIndex) {
+                    to++;
+                }
+                writable(patched, copied, chunkIndex).removeRows(chunkIndex, deleted, from, to, index);
+                from = to;
+            }
+        }
+
+        if (!added.isEmpty()) {
+            // Appended oldest first, so that listing backwards yields newest first
+            added.sort(Comparator.comparing(ProductDTO::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder()))
+                    .thenComparing(ProductDTO::getId));
+            int last = patched.length - 1;
+            int room = last < 0 ? 0 : CHUNK_SIZE - patched[last].size;
+            int extraChunks = (Math.max(0, added.size() - room) + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            patched = Arrays.copyOf(patched, patched.length + extraChunks);
+            copied = Arrays.copyOf(copied, patched.length);
+            for (int c = patched.length - extraChunks; c < patched.length; c++) {
+                patched[c] = new Chunk();
+                copied[c] = true;
+            }
+            int chunkIndex = Math.max(last, 0);
+            for (ProductDTO product : added) {
+                if (patched[chunkIndex].size == CHUNK_SIZE) {
+                    chunkIndex++;
+                }
+                Chunk chunk = writable(patched, copied, chunkIndex);
+                int offset = chunk.size++;
+                chunk.set(offset, product, categories);
+                index.put(product.getId(), chunkIndex << CHUNK_SHIFT | offset);
+            }
+            newSize += added.size();
+        }
+
+        return new CatalogSnapshot(patched, newSize, categories.dictionary,
+                categories.codesByName == categoryCodesByName
+                        ? categoryCodesByName : Collections.unmodifiableMap(categories.codesByName),
+                index);
+    }
+
+    private synchronized LongIntMap takeRowIndex() {
+        LongIntMap index = rowIndex;
+        rowIndex = null;
+        if (index != null) {
+            return index;
+        }
+        index = new LongIntMap(size);
+        for (int c = 0; c < chunks.length; c++) {
+            Chunk chunk = chunks[c];
+            for (int offset = 0; offset < chunk.size; offset++) {
+                index.put(chunk.ids[offset], c << CHUNK_SHIFT | offset);
+            }
+        }
+        return index;
+    }
+
+    private static Chunk writable(Chunk[] patched, boolean[] copied, int chunkIndex) {
+        if (!copied[chunkIndex]) {
+            patched[chunkIndex] = patched[chunkIndex].copy();
+            copied[chunkIndex] = true;
+        }
+        return patched[chunkIndex];
+    }
+
+    private boolean[] matchingCategories(String category) {
+        if (category == null) {
+            return null;
+        }
+        String term = category.toLowerCase(Locale.ROOT);
+        boolean[] matches = new boolean[categoryDictionary.length];
+        for (int code = 0; code < categoryDictionary.length; code++) {
+            matches[code] = categoryDictionary[code].toLowerCase(Locale.ROOT).contains(term);
+        }
+        return matches;
+    }
+
+    private static boolean isNaturalOrder(CatalogQuery query) {
+        return query.getSortField() == CatalogQuery.SortField.CREATED_AT && query.isDescending();
+    }
+
+    private int[] sort(int[] rows, int count, CatalogQuery query) {
+        // Sort keys are copied out once, so the sort itself only touches flat arrays
+        boolean byName = query.getSortField() == CatalogQuery.SortField.NAME;
+        String[] names = byName ? new String[count] : null;
+        long[] keys = byName ? null : new long[count];
+        for (int i = 0; i < count; i++) {
+            Chunk chunk = chunkOf(rows[i]);
+            int offset = rows[i] & OFFSET_MASK;
+            switch (query.getSortField()) {
+                case NAME -> names[i] = chunk.names[offset];
+                case PRICE -> keys[i] = chunk.priceCents[offset];
+                case QUANTITY -> keys[i] = chunk.quantities[offset];
+                case CREATED_AT -> keys[i] = chunk.createdAt[offset];
+            }
+        }
+        int sign = query.isDescending() ? -1 : 1;
+
+        // Bottom-up merge sort of positions: stable, so ties keep the newest-first order
+        int[] positions = new int[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = i;
+        }
+        for (int lo = 0; lo < count; lo += INSERTION_SORT_RUN) {
+            int hi = Math.min(lo + INSERTION_SORT_RUN, count);
+            for (int i = lo + 1; i < hi; i++) {
+                int position = positions[i];
+                int j = i - 1;
+                while (j >= lo && sign * compare(names, keys, positions[j], position) > 0) {
+                    positions[j + 1] = positions[j];
+                    j--;
+                }
+                positions[j + 1] = position;
+            }
+        }
+        int[] buffer = new int[count];
+        for (int width = INSERTION_SORT_RUN; width < count; width <<= 1) {
+            for (int lo = 0; lo < count; lo += width << 1) {
+                int mid = Math.min(lo + width, count);
+                int hi = Math.min(lo + (width << 1), count);
+                int left = lo;
+                int right = mid;
+                for (int k = lo; k < hi; k++) {
+                    if (right < hi && (left == mid || sign * compare(names, keys, positions[left], positions[right]) > 0)) {
+                        buffer[k] = positions[right++];
+                    } else {
+                        buffer[k] = positions[left++];
+                    }
+                }
+            }
+            int[] merged = buffer;
+            buffer = positions;
+            positions = merged;
+        }
+
+        int[] sorted = new int[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = rows[positions[i]];
+        }
+        return sorted;
+    }
+
+    private static int compare(String[] names, long[] keys, int a, int b) {
+        return names != null ? String.CASE_INSENSITIVE_ORDER.compare(names[a], names[b]) : Long.compare(keys[a], keys[b]);
+    }
+
+    private Chunk chunkOf(int row) {
+        return chunks[row >>> CHUNK_SHIFT];
+    }
+
+    private ProductDTO toDTO(int row) {
+        Chunk chunk = chunkOf(row);
+        int offset = row & OFFSET_MASK;
+        int code = chunk.categoryCodes[offset];
+        return new ProductDTO(
+                chunk.ids[offset],
+                chunk.names[offset],
+                chunk.descriptions[offset],
+                BigDecimal.valueOf(chunk.priceCents[offset], 2),
+                chunk.quantities[offset],
+                code == NO_CATEGORY ? null : categoryDictionary[code],
+                fromMicros(chunk.createdAt[offset]),
+                fromMicros(chunk.updatedAt[offset])
+        );
+    }
+
+    private static long toMicros(LocalDateTime timestamp) {
+        if (timestamp == null) {
+            return NO_TIMESTAMP;
+        }
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        if (micros == NO_TIMESTAMP) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    private static long toCents(BigDecimal price) {
+        return price.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * Up to {@link #CHUNK_SIZE} rows of every column. Only modified before the
+     * snapshot holding it is published.
+     */
+    private static final class Chunk {
+
+        private final long[] ids;
+        private final String[] names;
+        private final String[] descriptions;
+        private final long[] priceCents;
+        private final int[] quantities;
+        private final int[] categoryCodes;
+        private final long[] createdAt;
+        private final long[] updatedAt;
+        private int size;
+
+        Chunk() {
+            this(new long[CHUNK_SIZE], new String[CHUNK_SIZE], new String[CHUNK_SIZE], new long[CHUNK_SIZE],
+                    new int[CHUNK_SIZE], new int[CHUNK_SIZE], new long[CHUNK_SIZE], new long[CHUNK_SIZE], 0);
+        }
+
+        private Chunk(long[] ids, String[] names, String[] descriptions, long[] priceCents, int[] quantities,
+                      int[] categoryCodes, long[] createdAt, long[] updatedAt, int size) {
+            this.ids = ids;
+            this.names = names;
+            this.descriptions = descriptions;
+            this.priceCents = priceCents;
+            this.quantities = quantities;
+            this.categoryCodes = categoryCodes;
+            this.createdAt = createdAt;
+            this.updatedAt = updatedAt;
+            this.size = size;
+        }
+
+        Chunk copy() {
+            return new Chunk(ids.clone(), names.clone(), descriptions.clone(), priceCents.clone(), quantities.clone(),
+                    categoryCodes.clone(), createdAt.clone(), updatedAt.clone(), size);
+        }
+
+        void set(int offset, ProductDTO product, CategoryCodes categories) {
+            ids[offset] = product.getId();
+            names[offset] = product.getName();
+            descriptions[offset] = product.getDescription();
+            priceCents[offset] = toCents(product.getPrice());
+            quantities[offset] = product.getQuantity();
+            categoryCodes[offset] = categories.encode(product.getCategory());
+            createdAt[offset] = toMicros(product.getCreatedAt());
+            updatedAt[offset] = toMicros(product.getUpdatedAt());
+        }
+
+        /**
+         * Remove the rows whose handles are sorted in handles[from, to), moving the
+         * remaining rows down and keeping the row index in step
+         */
+        void removeRows(int chunkIndex, int[] handles, int from, int to, LongIntMap rowIndex) {
+            int next = from;
+            int write = 0;
+            for (int read = 0; read < size; read++) {
+                if (next < to && (handles[next] & OFFSET_MASK) == read) {
+                    rowIndex.remove(ids[read]);
+                    next++;
+                    continue;
+                }
+                if (write != read) {
+                    ids[write] = ids[read];
+                    names[write] = names[read];
+                    descriptions[write] = descriptions[read];
+                    priceCents[write] = priceCents[read];
+                    quantities[write] = quantities[read];
+                    categoryCodes[write] = categoryCodes[read];
+                    createdAt[write] = createdAt[read];
+                    updatedAt[write] = updatedAt[read];
+                    rowIndex.put(ids[write], chunkIndex << CHUNK_SHIFT | write);
+                }
+                write++;
+            }
+            // Drop references so removed rows can be collected
+            Arrays.fill(names, write, size, null);
+            Arrays.fill(descriptions, write, size, null);
+            size = write;
+        }
+    }
+
+    /**
+     * Category dictionary, copied on the first new category
+     */
+    private static final class CategoryCodes {
+
+        private String[] dictionary;
+        private Map<String, Integer> codesByName;
+        private boolean shared;
+
+        CategoryCodes(String[] dictionary, Map<String, Integer> codesByName) {
+            this.dictionary = dictionary;
+            this.codesByName = codesByName;
+            this.shared = true;
+        }
+
+        int encode(String category) {
+            if (category == null) {
+                return NO_CATEGORY;
+            }
+            Integer code = codesByName.get(category);
+            if (code != null) {
+                return code;
+            }
+            if (shared) {
+                codesByName = new HashMap<>(codesByName);
+                shared = false;
+            }
+            dictionary = Arrays.copyOf(dictionary, dictionary.length + 1);
+            dictionary[dictionary.length - 1] = category;
+            codesByName.put(category, dictionary.length - 1);
+            return dictionary.length - 1;
+        }
+    }
+
+    /**
+     * Appends rows in newest-first order; used for full loads
+     */
+    public static final class Builder {
+
+        private long[] ids;
+        private String[] names;
+        private String[] descriptions;
+        private long[] priceCents;
+        private int[] quantities;
+        private int[] categoryCodes;
+        private long[] createdAt;
+        private long[] updatedAt;
+        private int size;
+        private final CategoryCodes categories = new CategoryCodes(new String[0], Collections.emptyMap());
+        private final Map<String, String> descriptionPool = new HashMap<>();
+
+        public Builder(int expectedSize) {
+            int capacity = Math.max(16, expectedSize);
+            ids = new long[capacity];
+            names = new String[capacity];
+            descriptions = new String[capacity];
+            priceCents = new long[capacity];
+            quantities = new int[capacity];
+            categoryCodes = new int[capacity];
+            createdAt = new long[capacity];
+            updatedAt = new long[capacity];
+        }
+
+        public Builder add(long id, String name, String description, BigDecimal price, int quantity,
+                           String category, LocalDateTime created, LocalDateTime updated) {
+            int row = nextRow();
+            ids[row] = id;
+            names[row] = name;
+            descriptions[row] = description == null ? null : descriptionPool.computeIfAbsent(description, d -> d);
+            priceCents[row] = toCents(price);
+            quantities[row] = quantity;
+            categoryCodes[row] = categories.encode(category);
+            createdAt[row] = toMicros(created);
+            updatedAt[row] = toMicros(updated);
+            return this;
+        }
+
+        public Builder add(ProductDTO product) {
+            return add(product.getId(), product.getName(), product.getDescription(), product.getPrice(),
+                    product.getQuantity(), product.getCategory(), product.getCreatedAt(), product.getUpdatedAt());
+        }
+
+        public CatalogSnapshot build() {
+            Chunk[] chunks = new Chunk[(size + CHUNK_SIZE - 1) / CHUNK_SIZE];
+            LongIntMap rowIndex = new LongIntMap(size);
+            // Chunks hold rows oldest first: walk the newest-first rows backwards
+            for (int position = 0; position < size; position++) {
+                int row = size - 1 - position;
+                int chunkIndex = position >>> CHUNK_SHIFT;
+                if (chunks[chunkIndex] == null) {
+                    chunks[chunkIndex] = new Chunk();
+                }
+                Chunk chunk = chunks[chunkIndex];
+                int offset = chunk.size++;
+                chunk.ids[offset] = ids[row];
+                chunk.names[offset] = names[row];
+                chunk.descriptions[offset] = descriptions[row];
+                chunk.priceCents[offset] = priceCents[row];
+                chunk.quantities[offset] = quantities[row];
+                chunk.categoryCodes[offset] = categoryCodes[row];
+                chunk.createdAt[offset] = createdAt[row];
+                chunk.updatedAt[offset] = updatedAt[row];
+                rowIndex.put(ids[row], chunkIndex << CHUNK_SHIFT | offset);
+            }
+            return new CatalogSnapshot(chunks, size, categories.dictionary,
+                    Collections.unmodifiableMap(categories.codesByName), rowIndex);
+        }
+
+        private int nextRow() {
+            if (size == ids.length) {
+                int capacity = size + (size >> 1);
+                ids = Arrays.copyOf(ids, capacity);
+                names = Arrays.copyOf(names, capacity);
+                descriptions = Arrays.copyOf(descriptions, capacity);
+                priceCents = Arrays.copyOf(priceCents, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+                createdAt = Arrays.copyOf(createdAt, capacity);
+                updatedAt = Arrays.copyOf(updatedAt, capacity);
+            }
+            return size++;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.hahnsoftware.crud.config;
+
+import com.hahnsoftware.crud.limit.ConcurrencyLimitFilter;
+import com.hahnsoftware.crud.shard.ShardedProductService;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+@Configuration
+@Profile("fast-start")
+public class FastStartConfig {
+
+    /**
+     * Features switched on or off by @ConditionalOnProperty. With AOT the conditions are
+     * evaluated when the image is built, so the runtime property no longer has any effect.
+     * Every new @ConditionalOnProperty feature belongs in this list.
+     */
+    static final List<GatedFeature> GATED_FEATURES = List.of(
+            new GatedFeature("products.concurrency-limit.enabled", true, ConcurrencyLimitFilter.class),
+            new GatedFeature("products.near-cache.enabled", false, NearCacheConfig.class),
+            new GatedFeature("products.tracing.enabled", false, TracingConfig.class),
+            new GatedFeature("products.sharding.enabled", false, ShardedProductService.class),
+            new GatedFeature("products.capture.enabled", false, TrafficCaptureConfig.class),
+            new GatedFeature("products.warm-up.enabled", false, WarmUpConfig.class));
+
+    /**
+     * Keep the persistence layer eager when lazy initialization is enabled, so that
+     * schema validation fails the startup instead of the first request.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter persistenceLazyInitializationExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DataSource.class, EntityManagerFactory.class);
+    }
+
+    /**
+     * Fail the startup of an AOT build when a runtime property asks for a feature
+     * different from the one baked in at build time, instead of silently ignoring it.
+     */
+    @Bean
+    public static BeanFactoryPostProcessor aotFeatureCheck(Environment environment) {
+        return beanFactory -> {
+            if (!AotDetector.useGeneratedArtifacts()) {
+                return;
+            }
+            List<String> mismatches = mismatches(environment, GATED_FEATURES,
+                    type -> beanFactory.getBeanNamesForType(type, true, false).length > 0);
+            if (!mismatches.isEmpty()) {
+                throw new IllegalStateException("Properties differ from the AOT build (rebuild with "
+                        + "scripts/build-fast-start.sh and AOT_PROPERTIES): " + String.join(", ", mismatches));
+            }
+        };
+    }
+
+    static List<String> mismatches(Environment environment, List<GatedFeature> features,
+                                   Predicate<Class<?>> present) {
+        List<String> mismatches = new ArrayList<>();
+        for (GatedFeature feature : features) {
+            String value = environment.getProperty(feature.property());
+            boolean requested = value == null ? feature.enabledIfMissing() : value.equalsIgnoreCase("true");
+            boolean built = present.test(feature.type());
+            if (requested != built) {
+                mismatches.add(feature.property() + "=" + requested + " (built with " + built + ")");
+            }
+        }
+        return mismatches;
+    }
+
+    record GatedFeature(String property, boolean enabledIfMissing, Class<?> type) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.hahnsoftware.crud.config;
+
+import com.hahnsoftware.crud.cache.PostgresInvalidationBus;
+import com.hahnsoftware.crud.cache.ProductNearCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Near-cache for product reads, kept coherent across nodes through PostgreSQL LISTEN/NOTIFY.
+ * Enable with products.near-cache.enabled=true.
+ */
+@Configuration
+@ConditionalOnProperty(name = "products.near-cache.enabled", havingValue = "true")
+public class NearCacheConfig {
+
+    @Bean
+    public ProductNearCache productNearCache(MeterRegistry meterRegistry,
+                                             @Value("${products.near-cache.ttl-ms:30000}") long ttlMillis,
+                                             @Value("${products.near-cache.max-entries:10000}") int maxEntries) {
+        ProductNearCache cache = new ProductNearCache(TimeUnit.MILLISECONDS.toNanos(ttlMillis), maxEntries, System::nanoTime);
+        Gauge.builder("products.near_cache.size", cache, ProductNearCache::size)
+                .register(meterRegistry);
+        Gauge.builder("products.near_cache.version", cache, ProductNearCache::getLastVersion)
+                .description("Highest invalidation version applied on this node")
+                .register(meterRegistry);
+        return cache;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @Lazy(false)
+    public PostgresInvalidationBus postgresInvalidationBus(ProductNearCache productNearCache,
+                                                           JdbcTemplate jdbcTemplate,
+                                                           DataSourceProperties dataSourceProperties,
+                                                           @Value("${products.near-cache.heartbeat-ms:2000}") long heartbeatMillis) {
+        return new PostgresInvalidationBus(productNearCache, jdbcTemplate,
+                dataSourceProperties.determineUrl(), dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword(), heartbeatMillis);
+    }
+}
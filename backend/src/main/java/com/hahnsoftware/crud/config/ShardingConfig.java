@@ -0,0 +1,82 @@
+package com.hahnsoftware.crud.config;
+
+import com.hahnsoftware.crud.shard.ProductNameRegistry;
+import com.hahnsoftware.crud.shard.ProductShard;
+import com.hahnsoftware.crud.shard.ShardIdGenerator;
+import com.hahnsoftware.crud.shard.ShardedProductStore;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Product storage hash-sharded over the databases in products.sharding.urls.
+ * Enable with products.sharding.enabled=true.
+ *
+ * The primary datasource keeps the global name registry (and the near-cache
+ * invalidation channel); products live only on the shards. Every application
+ * instance needs its own products.sharding.node-id for id generation; it has no
+ * default, since two instances sharing one would generate colliding ids.
+ */
+@Configuration
+@ConditionalOnProperty(name = "products.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @Lazy(false)
+    public ShardedProductStore shardedProductStore(JdbcTemplate jdbcTemplate,
+                                                   DataSourceProperties dataSourceProperties,
+                                                   @Value("${products.sharding.urls}") List<String> urls,
+                                                   @Value("${products.sharding.username:}") String username,
+                                                   @Value("${products.sharding.password:}") String password,
+                                                   @Value("${products.sharding.pool-size:10}") int poolSize,
+                                                   @Value("${products.sharding.node-id:}") String nodeId,
+                                                   @Value("${products.sharding.query-threads:16}") int queryThreads,
+                                                   @Value("${products.sharding.query-timeout-ms:5000}") long queryTimeoutMillis) {
+        urls = urls.stream().map(String::trim).filter(url -> !url.isEmpty()).toList();
+        if (urls.isEmpty()) {
+            throw new IllegalStateException("products.sharding.urls must list at least one database");
+        }
+        int node = parseNodeId(nodeId);
+        String shardUsername = username.isEmpty() ? dataSourceProperties.determineUsername() : username;
+        String shardPassword = password.isEmpty() ? dataSourceProperties.determinePassword() : password;
+        int queryTimeoutSeconds = (int) Math.max(1, (queryTimeoutMillis + 999) / 1000);
+
+        List<ProductShard> shards = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("product-shard-" + i);
+            dataSource.setJdbcUrl(urls.get(i));
+            dataSource.setUsername(shardUsername);
+            dataSource.setPassword(shardPassword);
+            dataSource.setMaximumPoolSize(poolSize);
+            shards.add(new ProductShard(i, dataSource, queryTimeoutSeconds));
+        }
+        return new ShardedProductStore(shards, new ShardIdGenerator(node, System::currentTimeMillis),
+                new ProductNameRegistry(jdbcTemplate), queryThreads, queryTimeoutMillis);
+    }
+
+    static int parseNodeId(String value) {
+        if (value.isBlank()) {
+            throw new IllegalStateException("products.sharding.node-id must be set to a value unique to this instance");
+        }
+        int nodeId;
+        try {
+            nodeId = Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("products.sharding.node-id must be a number: " + value);
+        }
+        if (nodeId < 0 || nodeId > ShardIdGenerator.MAX_NODE_ID) {
+            throw new IllegalStateException("products.sharding.node-id must be between 0 and "
+                    + ShardIdGenerator.MAX_NODE_ID + ": " + nodeId);
+        }
+        return nodeId;
+    }
+}
@@ -0,0 +1,98 @@
+package com.hahnsoftware.crud.config;
+
+import com.hahnsoftware.crud.trace.RepositoryTimingInterceptor;
+import com.hahnsoftware.crud.trace.RequestTraceEndpoint;
+import com.hahnsoftware.crud.trace.RequestTracingFilter;
+import com.hahnsoftware.crud.trace.TimedValidator;
+import com.hahnsoftware.crud.trace.TraceRingBuffer;
+import com.hahnsoftware.crud.trace.TracingDataSource;
+import com.hahnsoftware.crud.trace.TracingJacksonConverter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.validation.SmartValidator;
+import org.springframework.validation.Validator;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Per-request latency breakdown for the product API. Enable with products.tracing.enabled=true.
+ *
+ * A fraction of requests (products.tracing.sample-rate) is traced: connection
+ * acquisition, SQL execution, hydration in the repositories, DTO conversion, request
+ * body validation and JSON serialization are timed. Sampled responses carry a
+ * Server-Timing header and the latest traces are served by /actuator/requesttraces.
+ */
+@Configuration
+@ConditionalOnProperty(name = "products.tracing.enabled", havingValue = "true")
+public class TracingConfig {
+
+    @Bean
+    public TraceRingBuffer traceRingBuffer(@Value("${products.tracing.buffer-size:1024}") int bufferSize) {
+        return new TraceRingBuffer(bufferSize);
+    }
+
+    @Bean
+    public FilterRegistrationBean<RequestTracingFilter> requestTracingFilter(
+            TraceRingBuffer traceRingBuffer, @Value("${products.tracing.sample-rate:0.01}") double sampleRate) {
+        FilterRegistrationBean<RequestTracingFilter> registration =
+                new FilterRegistrationBean<>(new RequestTracingFilter(traceRingBuffer, sampleRate));
+        // Before load shedding, so time spent there is part of the trace
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+
+    @Bean
+    public RequestTraceEndpoint requestTraceEndpoint(TraceRingBuffer traceRingBuffer) {
+        return new RequestTraceEndpoint(traceRingBuffer);
+    }
+
+    @Bean
+    public static BeanPostProcessor tracingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(new RepositoryTimingInterceptor())));
+                }
+                return bean;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && !(bean instanceof TracingDataSource)
+                        ? new TracingDataSource(dataSource)
+                        : bean;
+            }
+        };
+    }
+
+    @Bean
+    public WebMvcConfigurer tracingWebMvcConfigurer(@Qualifier("defaultValidator") SmartValidator defaultValidator) {
+        return new WebMvcConfigurer() {
+            @Override
+            public Validator getValidator() {
+                return new TimedValidator(defaultValidator);
+            }
+
+            @Override
+            public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+                converters.replaceAll(converter -> converter instanceof MappingJackson2HttpMessageConverter jackson
+                        && !(converter instanceof TracingJacksonConverter)
+                        ? new TracingJacksonConverter(jackson.getObjectMapper())
+                        : converter);
+            }
+        };
+    }
+}
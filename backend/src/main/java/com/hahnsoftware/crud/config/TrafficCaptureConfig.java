@@ -0,0 +1,41 @@
+package com.hahnsoftware.crud.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hahnsoftware.crud.replay.TrafficCaptureFilter;
+import com.hahnsoftware.crud.replay.TrafficCaptureWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.nio.file.Path;
+
+/**
+ * Capture of sampled product API reads to a local file, for warm-up and benchmark
+ * replay (see {@link com.hahnsoftware.crud.replay.TrafficReplayTool}). Enable with
+ * products.capture.enabled=true.
+ */
+@Configuration
+@ConditionalOnProperty(name = "products.capture.enabled", havingValue = "true")
+public class TrafficCaptureConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public TrafficCaptureWriter trafficCaptureWriter(@Value("${products.capture.file:traffic-capture.tsv.gz}") Path file,
+                                                     @Value("${products.capture.max-bytes:104857600}") long maxBytes,
+                                                     @Value("${products.capture.queue-capacity:10000}") int queueCapacity) {
+        return new TrafficCaptureWriter(file, maxBytes, queueCapacity);
+    }
+
+    @Bean
+    public FilterRegistrationBean<TrafficCaptureFilter> trafficCaptureFilter(
+            TrafficCaptureWriter trafficCaptureWriter, ObjectMapper objectMapper,
+            @Value("${products.capture.sample-rate:0.05}") double sampleRate) {
+        FilterRegistrationBean<TrafficCaptureFilter> registration =
+                new FilterRegistrationBean<>(new TrafficCaptureFilter(trafficCaptureWriter, objectMapper, sampleRate));
+        // Before load shedding, so the captured mix includes requests that were rejected
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 6);
+        return registration;
+    }
+}
@@ -0,0 +1,29 @@
+package com.hahnsoftware.crud.config;
+
+import com.hahnsoftware.crud.replay.WarmUpRunner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Warm-up replay of captured traffic before the instance reports ready.
+ * Enable with products.warm-up.enabled=true.
+ */
+@Configuration
+@ConditionalOnProperty(name = "products.warm-up.enabled", havingValue = "true")
+public class WarmUpConfig {
+
+    @Bean
+    public WarmUpRunner warmUpRunner(Environment environment,
+                                     @Value("${products.warm-up.file:traffic-capture.tsv.gz}") Path file,
+                                     @Value("${products.warm-up.concurrency:4}") int concurrency,
+                                     @Value("${products.warm-up.duration-ms:30000}") long durationMillis,
+                                     @Value("${products.warm-up.max-requests:0}") long maxRequests) {
+        return new WarmUpRunner(environment, file, concurrency, Duration.ofMillis(durationMillis), maxRequests);
+    }
+}
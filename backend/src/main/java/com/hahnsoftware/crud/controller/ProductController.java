@@ -1,9 +1,20 @@
 package com.hahnsoftware.crud.controller;
 
+import com.hahnsoftware.crud.catalog.CatalogQuery;
+import com.hahnsoftware.crud.catalog.CatalogReadModel;
+import com.hahnsoftware.crud.dashboard.ProductDashboardService;
 import com.hahnsoftware.crud.dto.ProductDTO;
+import com.hahnsoftware.crud.dto.ProductLookupDTO;
+import com.hahnsoftware.crud.dto.ProductLookupRequestDTO;
+import com.hahnsoftware.crud.dto.ProductSuggestionDTO;
+import com.hahnsoftware.crud.replay.TrafficReplayer;
+import com.hahnsoftware.crud.service.ProductReadCoalescer;
 import com.hahnsoftware.crud.service.ProductService;
+import com.hahnsoftware.crud.service.ProductWriteBatcher;
+import com.hahnsoftware.crud.suggest.ProductSuggestionService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -20,10 +31,25 @@ import java.util.Optional;
 public class ProductController {
     
     private final ProductService productService;
+    private final ProductReadCoalescer productReadCoalescer;
+    private final ProductWriteBatcher productWriteBatcher;
+    private final ProductSuggestionService productSuggestionService;
+    private final CatalogReadModel catalogReadModel;
+    private final ProductDashboardService productDashboardService;
+    private final int maxLookupIds;
     
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductReadCoalescer productReadCoalescer,
+                             ProductWriteBatcher productWriteBatcher, ProductSuggestionService productSuggestionService,
+                             CatalogReadModel catalogReadModel, ProductDashboardService productDashboardService,
+                             @Value("${products.lookup.max-ids:500}") int maxLookupIds) {
         this.productService = productService;
+        this.productReadCoalescer = productReadCoalescer;
+        this.productWriteBatcher = productWriteBatcher;
+        this.productSuggestionService = productSuggestionService;
+        this.catalogReadModel = catalogReadModel;
+        this.productDashboardService = productDashboardService;
+        this.maxLookupIds = maxLookupIds;
     }
     
     /**
@@ -33,7 +59,9 @@ public class ProductController {
     @GetMapping
     public ResponseEntity<Map<String, Object>> getAllProducts() {
         try {
-            List<ProductDTO> products = productService.getAllProducts();
+            List<ProductDTO> products = catalogReadModel.isServing()
+                    ? catalogReadModel.list(CatalogQuery.all())
+                    : productReadCoalescer.getAllProducts();
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("data", products);
@@ -49,10 +77,16 @@ public class ProductController {
      * GET /api/products/{id}
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> getProductById(@PathVariable Long id) {
+    public ResponseEntity<Map<String, Object>> getProductById(
+            @PathVariable Long id,
+            @RequestHeader(value = TrafficReplayer.REPLAY_HEADER, required = false) String replay) {
         try {
-            Optional<ProductDTO> product = productService.getProductById(id);
+            Optional<ProductDTO> product = productReadCoalescer.getProductById(id);
             if (product.isPresent()) {
+                // Replayed traffic must not make the replayed products more popular
+                if (replay == null) {
+                    productSuggestionService.recordSelection(id);
+                }
                 Map<String, Object> response = new HashMap<>();
                 response.put("success", true);
                 response.put("data", product.get());
@@ -66,6 +100,27 @@ public class ProductController {
         }
     }
     
+    /**
+     * Get many products by id in one request, in request order
+     * GET /api/products?ids={id},{id},...
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<Map<String, Object>> getProductsByIds(@RequestParam List<Long> ids) {
+        return lookupProducts(ids);
+    }
+    
+    /**
+     * Get many products by id in one request, for id lists too long for a URL
+     * POST /api/products/lookup
+     */
+    @PostMapping("/lookup")
+    public ResponseEntity<Map<String, Object>> lookupProducts(@Valid @RequestBody ProductLookupRequestDTO request, BindingResult bindingResult) {
+        if (bindingResult.hasErrors()) {
+            return createValidationErrorResponse(bindingResult);
+        }
+        return lookupProducts(request.getIds());
+    }
+    
     /**
      * Create a new product
      * POST /api/products
@@ -77,7 +132,7 @@ public class ProductController {
         }
         
         try {
-            ProductDTO createdProduct = productService.createProduct(productDTO);
+            ProductDTO createdProduct = productWriteBatcher.createProduct(productDTO);
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("data", createdProduct);
@@ -140,7 +195,7 @@ public class ProductController {
     @GetMapping("/search")
     public ResponseEntity<Map<String, Object>> searchProducts(@RequestParam(required = false) String q) {
         try {
-            List<ProductDTO> products = productService.searchProducts(q);
+            List<ProductDTO> products = productReadCoalescer.searchProducts(q);
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("data", products);
@@ -151,6 +206,21 @@ public class ProductController {
         }
     }
     
+    /**
+     * Typeahead suggestions on product names and categories, served from memory
+     * GET /api/products/suggest?prefix={prefix}&limit={limit}
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<Map<String, Object>> suggestProducts(@RequestParam(required = false) String prefix,
+                                                               @RequestParam(defaultValue = "10") Integer limit) {
+        List<ProductSuggestionDTO> suggestions = productSuggestionService.suggest(prefix, limit);
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", suggestions);
+        response.put("message", "Suggestions retrieved successfully");
+        return ResponseEntity.ok(response);
+    }
+    
     /**
      * Get products by category
      * GET /api/products/category/{category}
@@ -158,7 +228,9 @@ public class ProductController {
     @GetMapping("/category/{category}")
     public ResponseEntity<Map<String, Object>> getProductsByCategory(@PathVariable String category) {
         try {
-            List<ProductDTO> products = productService.getProductsByCategory(category);
+            List<ProductDTO> products = catalogReadModel.isServing()
+                    ? catalogReadModel.list(CatalogQuery.byCategory(category))
+                    : productReadCoalescer.getProductsByCategory(category);
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("data", products);
@@ -169,6 +241,36 @@ public class ProductController {
         }
     }
     
+    /**
+     * Browse the catalog from the in-memory snapshot
+     * GET /api/products/catalog?category={category}&maxQuantity={maxQuantity}&sort={field}&direction={asc|desc}&offset={offset}&limit={limit}
+     */
+    @GetMapping("/catalog")
+    public ResponseEntity<Map<String, Object>> browseCatalog(@RequestParam(required = false) String category,
+                                                             @RequestParam(required = false) Integer maxQuantity,
+                                                             @RequestParam(defaultValue = "createdAt") String sort,
+                                                             @RequestParam(defaultValue = "desc") String direction,
+                                                             @RequestParam(defaultValue = "0") Integer offset,
+                                                             @RequestParam(defaultValue = "50") Integer limit) {
+        if (!catalogReadModel.isServing()) {
+            return createErrorResponse("Catalog snapshot is not available", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        try {
+            CatalogQuery query = new CatalogQuery(category, maxQuantity, CatalogQuery.SortField.fromParameter(sort),
+                    !"asc".equalsIgnoreCase(direction), offset, Math.max(0, limit));
+            List<ProductDTO> products = catalogReadModel.list(query);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", products);
+            response.put("message", "Products retrieved successfully");
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return createErrorResponse(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to retrieve catalog: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
     /**
      * Get products with low stock
      * GET /api/products/low-stock?threshold={threshold}
@@ -176,7 +278,7 @@ public class ProductController {
     @GetMapping("/low-stock")
     public ResponseEntity<Map<String, Object>> getLowStockProducts(@RequestParam(defaultValue = "10") Integer threshold) {
         try {
-            List<ProductDTO> products = productService.getLowStockProducts(threshold);
+            List<ProductDTO> products = productReadCoalescer.getLowStockProducts(threshold);
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("data", products);
@@ -187,6 +289,64 @@ public class ProductController {
         }
     }
     
+    /**
+     * Get the admin dashboard in one call; parts that fail or time out are null and listed in errors
+     * GET /api/products/dashboard?lowStockThreshold={threshold}&recentLimit={limit}
+     */
+    @GetMapping("/dashboard")
+    public ResponseEntity<Map<String, Object>> getDashboard(@RequestParam(defaultValue = "10") Integer lowStockThreshold,
+                                                            @RequestParam(defaultValue = "10") Integer recentLimit) {
+        if (recentLimit < 1 || recentLimit > 100) {
+            return createErrorResponse("Recent limit must be between 1 and 100", HttpStatus.BAD_REQUEST);
+        }
+        
+        try {
+            ProductDashboardService.Dashboard dashboard = productDashboardService.getDashboard(lowStockThreshold, recentLimit);
+            if (dashboard.isEmpty()) {
+                Map<String, Object> response = createErrorResponse("Failed to retrieve dashboard", HttpStatus.SERVICE_UNAVAILABLE).getBody();
+                response.put("errors", dashboard.errors());
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+            }
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", dashboard.parts());
+            response.put("partial", dashboard.isPartial());
+            response.put("errors", dashboard.errors());
+            response.put("message", dashboard.isPartial()
+                    ? "Dashboard retrieved with missing parts: " + String.join(", ", dashboard.errors().keySet())
+                    : "Dashboard retrieved successfully");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to retrieve dashboard: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
+    /**
+     * Resolve ids with one cache pass and one query; each id gets an entry, found or not
+     */
+    private ResponseEntity<Map<String, Object>> lookupProducts(List<Long> ids) {
+        if (ids.isEmpty() || ids.contains(null)) {
+            return createErrorResponse("Ids must be a non-empty list of product ids", HttpStatus.BAD_REQUEST);
+        }
+        if (ids.size() > maxLookupIds) {
+            return createErrorResponse("At most " + maxLookupIds + " ids can be looked up at once", HttpStatus.BAD_REQUEST);
+        }
+        
+        try {
+            Map<Long, ProductDTO> products = productReadCoalescer.getProductsByIds(ids);
+            List<ProductLookupDTO> results = ids.stream()
+                    .map(id -> new ProductLookupDTO(id, products.get(id)))
+                    .toList();
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", results);
+            response.put("message", "Products retrieved successfully");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to retrieve products: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+    
     /**
      * Create error response
      */
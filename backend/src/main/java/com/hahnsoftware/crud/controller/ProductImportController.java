@@ -0,0 +1,157 @@
+package com.hahnsoftware.crud.controller;
+
+import com.hahnsoftware.crud.dto.ImportJobDTO;
+import com.hahnsoftware.crud.importer.ImportFormat;
+import com.hahnsoftware.crud.importer.ImportJob;
+import com.hahnsoftware.crud.importer.ProductImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/products/import")
+@CrossOrigin(origins = "*")
+public class ProductImportController {
+
+    private final ProductImportService productImportService;
+    private final long uploadTimeoutMillis;
+
+    @Autowired
+    public ProductImportController(ProductImportService productImportService,
+                                   @Value("${products.import.upload-timeout-ms:3600000}") long uploadTimeoutMillis) {
+        this.productImportService = productImportService;
+        this.uploadTimeoutMillis = uploadTimeoutMillis;
+    }
+
+    /**
+     * Import products from a CSV or NDJSON request body, streamed as it arrives.
+     * Responds 202 with the job as soon as the body has been read; the merge continues
+     * in the background. Multipart uploads are not supported, since the container would
+     * spool the whole file before the import could start.
+     * POST /api/products/import (text/csv or application/x-ndjson body, optional ?fileName=)
+     */
+    @PostMapping
+    public DeferredResult<ResponseEntity<Map<String, Object>>> importProducts(
+            HttpServletRequest request, @RequestParam(required = false) String fileName) {
+        DeferredResult<ResponseEntity<Map<String, Object>>> result = new DeferredResult<>(uploadTimeoutMillis);
+        result.onTimeout(() -> result.setResult(createErrorResponse(
+                "Upload was not received within " + uploadTimeoutMillis + " ms", HttpStatus.REQUEST_TIMEOUT)));
+        String contentType = request.getContentType();
+        if (contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("multipart/")) {
+            result.setResult(createErrorResponse("Multipart uploads are not supported, send the file as the request "
+                    + "body with Content-Type text/csv or application/x-ndjson", HttpStatus.UNSUPPORTED_MEDIA_TYPE));
+            return result;
+        }
+        try {
+            productImportService.importProducts(request.getInputStream(),
+                            ImportFormat.detect(contentType, fileName), fileName)
+                    .whenComplete((job, failure) -> result.setResult(
+                            failure == null ? createAcceptedResponse(job) : createErrorResponse(failure)));
+        } catch (Exception e) {
+            result.setResult(createErrorResponse(e));
+        }
+        return result;
+    }
+
+    /**
+     * Get recent import jobs
+     * GET /api/products/import
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getImportJobs() {
+        List<ImportJobDTO> jobs = productImportService.getJobs().stream()
+                .map(ImportJob::toDTO)
+                .toList();
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", jobs);
+        response.put("message", "Import jobs retrieved successfully");
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get the progress of an import job
+     * GET /api/products/import/{jobId}
+     */
+    @GetMapping("/{jobId}")
+    public ResponseEntity<Map<String, Object>> getImportJob(@PathVariable String jobId) {
+        Optional<ImportJob> job = productImportService.getJob(jobId);
+        if (job.isEmpty()) {
+            return createErrorResponse("Import job not found with id: " + jobId, HttpStatus.NOT_FOUND);
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", job.get().toDTO());
+        response.put("message", "Import job retrieved successfully");
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get the rows an import job rejected
+     * GET /api/products/import/{jobId}/rejected
+     */
+    @GetMapping("/{jobId}/rejected")
+    public ResponseEntity<Map<String, Object>> getRejectedRows(@PathVariable String jobId) {
+        Optional<ImportJob> job = productImportService.getJob(jobId);
+        if (job.isEmpty()) {
+            return createErrorResponse("Import job not found with id: " + jobId, HttpStatus.NOT_FOUND);
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", job.get().getRejectedRows());
+        response.put("message", "Rejected rows retrieved successfully");
+        return ResponseEntity.ok(response);
+    }
+
+    private ResponseEntity<Map<String, Object>> createAcceptedResponse(ImportJob job) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("data", job.toDTO());
+        response.put("message", "Import accepted, follow its progress at /api/products/import/" + job.getId());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header(HttpHeaders.LOCATION, "/api/products/import/" + job.getId())
+                .body(response);
+    }
+
+    /**
+     * Map a failure to start or receive an import to an error response
+     */
+    private ResponseEntity<Map<String, Object>> createErrorResponse(Throwable e) {
+        if (e instanceof IllegalArgumentException) {
+            return createErrorResponse(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+        if (e instanceof IllegalStateException) {
+            return createErrorResponse(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        if (e instanceof UnsupportedOperationException) {
+            return createErrorResponse(e.getMessage(), HttpStatus.NOT_IMPLEMENTED);
+        }
+        if (e instanceof IOException || e instanceof UncheckedIOException) {
+            return createErrorResponse("Failed to read the upload: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+        return createErrorResponse("Failed to import products: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    /**
+     * Create error response
+     */
+    private ResponseEntity<Map<String, Object>> createErrorResponse(String message, HttpStatus status) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", message);
+        return ResponseEntity.status(status).body(response);
+    }
+}
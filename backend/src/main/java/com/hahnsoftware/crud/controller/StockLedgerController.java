@@ -0,0 +1,102 @@
+package com.hahnsoftware.crud.controller;
+
+import com.hahnsoftware.crud.dto.StockMovementDTO;
+import com.hahnsoftware.crud.ledger.StockLedger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/products/{id}/stock")
+@CrossOrigin(origins = "*")
+public class StockLedgerController {
+
+    private static final int DEFAULT_HISTORY_DAYS = 30;
+
+    private final StockLedger stockLedger;
+    private final int maxHistoryRows;
+
+    @Autowired
+    public StockLedgerController(StockLedger stockLedger,
+                                 @Value("${products.stock-ledger.max-history-rows:1000}") int maxHistoryRows) {
+        this.stockLedger = stockLedger;
+        this.maxHistoryRows = maxHistoryRows;
+    }
+
+    /**
+     * Get the quantity of a product at a point in time (default: now)
+     * GET /api/products/{id}/stock?at={yyyy-MM-ddTHH:mm:ss}
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getStockAt(@PathVariable Long id,
+                                                          @RequestParam(required = false)
+                                                          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        if (!stockLedger.isEnabled()) {
+            return createErrorResponse("Stock ledger is not enabled", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", stockLedger.getStockAt(id, at != null ? at : LocalDateTime.now()));
+            response.put("message", "Stock level retrieved successfully");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to retrieve stock level: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Get the stock movements of a product in [from, to), oldest first (default: the last 30 days)
+     * GET /api/products/{id}/stock/history?from={yyyy-MM-ddTHH:mm:ss}&to={yyyy-MM-ddTHH:mm:ss}&limit={limit}
+     */
+    @GetMapping("/history")
+    public ResponseEntity<Map<String, Object>> getStockHistory(@PathVariable Long id,
+                                                               @RequestParam(required = false)
+                                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                               @RequestParam(required = false)
+                                                               @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                                               @RequestParam(required = false) Integer limit) {
+        if (!stockLedger.isEnabled()) {
+            return createErrorResponse("Stock ledger is not enabled", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(DEFAULT_HISTORY_DAYS);
+        if (!start.isBefore(end)) {
+            return createErrorResponse("From must be before to", HttpStatus.BAD_REQUEST);
+        }
+        int rows = limit != null ? limit : maxHistoryRows;
+        if (rows < 1 || rows > maxHistoryRows) {
+            return createErrorResponse("Limit must be between 1 and " + maxHistoryRows, HttpStatus.BAD_REQUEST);
+        }
+
+        try {
+            List<StockMovementDTO> movements = stockLedger.getHistory(id, start, end, rows);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", movements);
+            response.put("message", "Stock history retrieved successfully");
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            return createErrorResponse("Failed to retrieve stock history: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Create error response
+     */
+    private ResponseEntity<Map<String, Object>> createErrorResponse(String message, HttpStatus status) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", message);
+        return ResponseEntity.status(status).body(response);
+    }
+}
@@ -0,0 +1,182 @@
+package com.hahnsoftware.crud.dashboard;
+
+import com.hahnsoftware.crud.catalog.CatalogQuery;
+import com.hahnsoftware.crud.catalog.CatalogReadModel;
+import com.hahnsoftware.crud.service.ProductReadCoalescer;
+import com.hahnsoftware.crud.service.ProductService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Admin dashboard: all products, low stock, per-category counts and recent changes
+ * in one call.
+ *
+ * The parts run in parallel on a bounded pool, each in its own read-only transaction
+ * and therefore on its own connection, so the dashboard takes about as long as its
+ * slowest part. Every part must finish within products.dashboard.part-timeout-ms of
+ * the request; the transaction timeout makes the database cancel its queries too.
+ * A part that fails, times out or finds the pool full is reported in the errors and
+ * the other parts are still returned.
+ *
+ * With sharded product storage the parts read the shards, which enforce their own
+ * query timeout, so no transaction is opened on the primary database.
+ */
+@Service
+public class ProductDashboardService {
+
+    public static final String PRODUCTS = "products";
+    public static final String LOW_STOCK = "lowStock";
+    public static final String CATEGORIES = "categories";
+    public static final String RECENT_CHANGES = "recentChanges";
+
+    private static final Logger log = LoggerFactory.getLogger(ProductDashboardService.class);
+
+    private final ProductService productService;
+    private final ProductReadCoalescer productReadCoalescer;
+    private final CatalogReadModel catalogReadModel;
+    // Null when products are sharded
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final long partTimeoutMillis;
+    private final ThreadPoolExecutor executor;
+
+    @Autowired
+    public ProductDashboardService(ProductService productService,
+                                   ProductReadCoalescer productReadCoalescer,
+                                   CatalogReadModel catalogReadModel,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${products.dashboard.threads:4}") int threads,
+                                   @Value("${products.dashboard.queue-capacity:32}") int queueCapacity,
+                                   @Value("${products.dashboard.part-timeout-ms:2000}") long partTimeoutMillis,
+                                   @Value("${products.sharding.enabled:false}") boolean sharded) {
+        this.productService = productService;
+        this.productReadCoalescer = productReadCoalescer;
+        this.catalogReadModel = catalogReadModel;
+        this.meterRegistry = meterRegistry;
+        this.partTimeoutMillis = partTimeoutMillis;
+        if (sharded) {
+            this.transactionTemplate = null;
+        } else {
+            this.transactionTemplate = new TransactionTemplate(transactionManager);
+            this.transactionTemplate.setReadOnly(true);
+            this.transactionTemplate.setTimeout((int) Math.max(1, (partTimeoutMillis + 999) / 1000));
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "product-dashboard-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Load every dashboard part in parallel
+     */
+    public Dashboard getDashboard(int lowStockThreshold, int recentLimit) {
+        Map<String, Supplier<Object>> parts = new LinkedHashMap<>();
+        parts.put(PRODUCTS, () -> catalogReadModel.isServing()
+                ? catalogReadModel.list(CatalogQuery.all())
+                : productReadCoalescer.getAllProducts());
+        parts.put(LOW_STOCK, () -> productReadCoalescer.getLowStockProducts(lowStockThreshold));
+        parts.put(CATEGORIES, productService::getCategorySummaries);
+        parts.put(RECENT_CHANGES, () -> productService.getRecentlyUpdatedProducts(recentLimit));
+        return load(parts);
+    }
+
+    private Dashboard load(Map<String, Supplier<Object>> parts) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(partTimeoutMillis);
+        Map<String, Object> results = new LinkedHashMap<>();
+        Map<String, String> errors = new LinkedHashMap<>();
+        Map<String, Future<Object>> futures = new LinkedHashMap<>();
+        for (Map.Entry<String, Supplier<Object>> part : parts.entrySet()) {
+            Supplier<Object> query = part.getValue();
+            try {
+                futures.put(part.getKey(), executor.submit(() -> transactionTemplate == null
+                        ? query.get()
+                        : transactionTemplate.execute(status -> query.get())));
+            } catch (RejectedExecutionException e) {
+                fail(part.getKey(), "rejected", "Dashboard is overloaded", errors);
+            }
+        }
+
+        List<Future<Object>> pending = new ArrayList<>(futures.values());
+        for (Map.Entry<String, Future<Object>> part : futures.entrySet()) {
+            Future<Object> future = part.getValue();
+            try {
+                results.put(part.getKey(), future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                fail(part.getKey(), "timeout", "Timed out after " + partTimeoutMillis + " ms", errors);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                log.warn("Dashboard part {} failed", part.getKey(), cause);
+                fail(part.getKey(), "error", "Failed to load: " + cause.getMessage(), errors);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pending.forEach(f -> f.cancel(true));
+                throw new IllegalStateException("Interrupted while loading the dashboard", e);
+            }
+            pending.remove(future);
+        }
+        for (String part : parts.keySet()) {
+            if (!results.containsKey(part)) {
+                results.put(part, null);
+            }
+        }
+        return new Dashboard(Collections.unmodifiableMap(results), Collections.unmodifiableMap(errors));
+    }
+
+    private void fail(String part, String reason, String message, Map<String, String> errors) {
+        errors.put(part, message);
+        Counter.builder("products.dashboard.part_failures")
+                .description("Dashboard parts left out of the response")
+                .tag("part", part)
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Dashboard parts in a fixed order, null for the parts listed in errors
+     */
+    public record Dashboard(Map<String, Object> parts, Map<String, String> errors) {
+
+        public boolean isPartial() {
+            return !errors.isEmpty();
+        }
+
+        public boolean isEmpty() {
+            return errors.size() == parts.size();
+        }
+    }
+}
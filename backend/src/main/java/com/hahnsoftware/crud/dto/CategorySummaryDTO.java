@@ -0,0 +1,51 @@
+package com.hahnsoftware.crud.dto;
+
+public class CategorySummaryDTO {
+    
+    private String category;
+    private long productCount;
+    private long totalQuantity;
+    
+    // Constructors
+    public CategorySummaryDTO() {}
+    
+    public CategorySummaryDTO(String category, long productCount, long totalQuantity) {
+        this.category = category;
+        this.productCount = productCount;
+        this.totalQuantity = totalQuantity;
+    }
+    
+    // Getters and Setters
+    public String getCategory() {
+        return category;
+    }
+    
+    public void setCategory(String category) {
+        this.category = category;
+    }
+    
+    public long getProductCount() {
+        return productCount;
+    }
+    
+    public void setProductCount(long productCount) {
+        this.productCount = productCount;
+    }
+    
+    public long getTotalQuantity() {
+        return totalQuantity;
+    }
+    
+    public void setTotalQuantity(long totalQuantity) {
+        this.totalQuantity = totalQuantity;
+    }
+    
+    @Override
+    public String toString() {
+        return "CategorySummaryDTO{" +
+                "category='" + category + '\'' +
+                ", productCount=" + productCount +
+                ", totalQuantity=" + totalQuantity +
+                '}';
+    }
+}
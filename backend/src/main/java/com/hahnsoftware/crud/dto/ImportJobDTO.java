@@ -0,0 +1,156 @@
+package com.hahnsoftware.crud.dto;
+
+import java.time.LocalDateTime;
+
+public class ImportJobDTO {
+    
+    private String id;
+    private String status;
+    private String fileName;
+    private String format;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long rowsRead;
+    private Long rowsStaged;
+    private Long rowsRejected;
+    private Long rowsSuperseded;
+    private Long inserted;
+    private Long updated;
+    private Long unchanged;
+    private Long rowsPerSecond;
+    private String error;
+    
+    // Constructors
+    public ImportJobDTO() {}
+    
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public String getFileName() {
+        return fileName;
+    }
+    
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+    
+    public String getFormat() {
+        return format;
+    }
+    
+    public void setFormat(String format) {
+        this.format = format;
+    }
+    
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+    
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+    
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+    
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+    
+    public Long getRowsRead() {
+        return rowsRead;
+    }
+    
+    public void setRowsRead(Long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+    
+    public Long getRowsStaged() {
+        return rowsStaged;
+    }
+    
+    public void setRowsStaged(Long rowsStaged) {
+        this.rowsStaged = rowsStaged;
+    }
+    
+    public Long getRowsRejected() {
+        return rowsRejected;
+    }
+    
+    public void setRowsRejected(Long rowsRejected) {
+        this.rowsRejected = rowsRejected;
+    }
+    
+    public Long getRowsSuperseded() {
+        return rowsSuperseded;
+    }
+    
+    public void setRowsSuperseded(Long rowsSuperseded) {
+        this.rowsSuperseded = rowsSuperseded;
+    }
+    
+    public Long getInserted() {
+        return inserted;
+    }
+    
+    public void setInserted(Long inserted) {
+        this.inserted = inserted;
+    }
+    
+    public Long getUpdated() {
+        return updated;
+    }
+    
+    public void setUpdated(Long updated) {
+        this.updated = updated;
+    }
+    
+    public Long getUnchanged() {
+        return unchanged;
+    }
+    
+    public void setUnchanged(Long unchanged) {
+        this.unchanged = unchanged;
+    }
+    
+    public Long getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+    
+    public void setRowsPerSecond(Long rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+    
+    @Override
+    public String toString() {
+        return "ImportJobDTO{" +
+                "id='" + id + '\'' +
+                ", status='" + status + '\'' +
+                ", fileName='" + fileName + '\'' +
+                ", format='" + format + '\'' +
+                '}';
+    }
+}
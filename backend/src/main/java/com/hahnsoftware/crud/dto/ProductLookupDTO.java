@@ -0,0 +1,54 @@
+package com.hahnsoftware.crud.dto;
+
+/**
+ * One entry of a multi-get: the requested id and its product, or found=false
+ */
+public class ProductLookupDTO {
+    
+    private Long id;
+    private boolean found;
+    private ProductDTO product;
+    
+    // Constructors
+    public ProductLookupDTO() {}
+    
+    public ProductLookupDTO(Long id, ProductDTO product) {
+        this.id = id;
+        this.found = product != null;
+        this.product = product;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public boolean isFound() {
+        return found;
+    }
+    
+    public void setFound(boolean found) {
+        this.found = found;
+    }
+    
+    public ProductDTO getProduct() {
+        return product;
+    }
+    
+    public void setProduct(ProductDTO product) {
+        this.product = product;
+    }
+    
+    @Override
+    public String toString() {
+        return "ProductLookupDTO{" +
+                "id=" + id +
+                ", found=" + found +
+                ", product=" + product +
+                '}';
+    }
+}
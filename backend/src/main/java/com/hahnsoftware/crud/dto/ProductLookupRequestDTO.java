@@ -0,0 +1,35 @@
+package com.hahnsoftware.crud.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public class ProductLookupRequestDTO {
+    
+    @NotEmpty(message = "At least one id is required")
+    private List<@NotNull(message = "Ids cannot be null") Long> ids;
+    
+    // Constructors
+    public ProductLookupRequestDTO() {}
+    
+    public ProductLookupRequestDTO(List<Long> ids) {
+        this.ids = ids;
+    }
+    
+    // Getters and Setters
+    public List<Long> getIds() {
+        return ids;
+    }
+    
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+    
+    @Override
+    public String toString() {
+        return "ProductLookupRequestDTO{" +
+                "ids=" + ids +
+                '}';
+    }
+}
@@ -0,0 +1,40 @@
+package com.hahnsoftware.crud.dto;
+
+public class ProductSuggestionDTO {
+    
+    private Long id;
+    private String name;
+    
+    // Constructors
+    public ProductSuggestionDTO() {}
+    
+    public ProductSuggestionDTO(Long id, String name) {
+        this.id = id;
+        this.name = name;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    @Override
+    public String toString() {
+        return "ProductSuggestionDTO{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,40 @@
+package com.hahnsoftware.crud.dto;
+
+public class RejectedRowDTO {
+    
+    private Long lineNumber;
+    private String reason;
+    
+    // Constructors
+    public RejectedRowDTO() {}
+    
+    public RejectedRowDTO(Long lineNumber, String reason) {
+        this.lineNumber = lineNumber;
+        this.reason = reason;
+    }
+    
+    // Getters and Setters
+    public Long getLineNumber() {
+        return lineNumber;
+    }
+    
+    public void setLineNumber(Long lineNumber) {
+        this.lineNumber = lineNumber;
+    }
+    
+    public String getReason() {
+        return reason;
+    }
+    
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+    
+    @Override
+    public String toString() {
+        return "RejectedRowDTO{" +
+                "lineNumber=" + lineNumber +
+                ", reason='" + reason + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,78 @@
+package com.hahnsoftware.crud.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A product's quantity at a point in time, rebuilt from a snapshot and the movements after it
+ */
+public class StockLevelDTO {
+    
+    private Long productId;
+    private LocalDateTime at;
+    private int quantity;
+    private LocalDateTime snapshotAt;
+    private long replayedMovements;
+    
+    // Constructors
+    public StockLevelDTO() {}
+    
+    public StockLevelDTO(Long productId, LocalDateTime at, int quantity, LocalDateTime snapshotAt, long replayedMovements) {
+        this.productId = productId;
+        this.at = at;
+        this.quantity = quantity;
+        this.snapshotAt = snapshotAt;
+        this.replayedMovements = replayedMovements;
+    }
+    
+    // Getters and Setters
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public LocalDateTime getAt() {
+        return at;
+    }
+    
+    public void setAt(LocalDateTime at) {
+        this.at = at;
+    }
+    
+    public int getQuantity() {
+        return quantity;
+    }
+    
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+    
+    public LocalDateTime getSnapshotAt() {
+        return snapshotAt;
+    }
+    
+    public void setSnapshotAt(LocalDateTime snapshotAt) {
+        this.snapshotAt = snapshotAt;
+    }
+    
+    public long getReplayedMovements() {
+        return replayedMovements;
+    }
+    
+    public void setReplayedMovements(long replayedMovements) {
+        this.replayedMovements = replayedMovements;
+    }
+    
+    @Override
+    public String toString() {
+        return "StockLevelDTO{" +
+                "productId=" + productId +
+                ", at=" + at +
+                ", quantity=" + quantity +
+                ", snapshotAt=" + snapshotAt +
+                ", replayedMovements=" + replayedMovements +
+                '}';
+    }
+}
@@ -0,0 +1,89 @@
+package com.hahnsoftware.crud.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of a product's stock ledger: the change and the quantity after it
+ */
+public class StockMovementDTO {
+    
+    private Long id;
+    private Long productId;
+    private LocalDateTime occurredAt;
+    private int delta;
+    private int quantity;
+    private String reason;
+    
+    // Constructors
+    public StockMovementDTO() {}
+    
+    public StockMovementDTO(Long id, Long productId, LocalDateTime occurredAt, int delta, int quantity, String reason) {
+        this.id = id;
+        this.productId = productId;
+        this.occurredAt = occurredAt;
+        this.delta = delta;
+        this.quantity = quantity;
+        this.reason = reason;
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getProductId() {
+        return productId;
+    }
+    
+    public void setProductId(Long productId) {
+        this.productId = productId;
+    }
+    
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+    
+    public void setOccurredAt(LocalDateTime occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+    
+    public int getDelta() {
+        return delta;
+    }
+    
+    public void setDelta(int delta) {
+        this.delta = delta;
+    }
+    
+    public int getQuantity() {
+        return quantity;
+    }
+    
+    public void setQuantity(int quantity) {
+        this.quantity = quantity;
+    }
+    
+    public String getReason() {
+        return reason;
+    }
+    
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+    
+    @Override
+    public String toString() {
+        return "StockMovementDTO{" +
+                "id=" + id +
+                ", productId=" + productId +
+                ", occurredAt=" + occurredAt +
+                ", delta=" + delta +
+                ", quantity=" + quantity +
+                ", reason='" + reason + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,71 @@
+package com.hahnsoftware.crud.event;
+
+import com.hahnsoftware.crud.dto.ProductDTO;
+
+/**
+ * Published by ProductService for every product write.
+ * Listeners that depend on committed data should use
+ * {@code @TransactionalEventListener} (after commit).
+ */
+public class ProductChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+    private final Long productId;
+    private final ProductDTO product;
+    private final ProductDTO previous;
+
+    public ProductChangedEvent(Type type, Long productId, ProductDTO product, ProductDTO previous) {
+        this.type = type;
+        this.productId = productId;
+        this.product = product;
+        this.previous = previous;
+    }
+
+    public static ProductChangedEvent created(ProductDTO product) {
+        return new ProductChangedEvent(Type.CREATED, product.getId(), product, null);
+    }
+
+    public static ProductChangedEvent updated(ProductDTO product, ProductDTO previous) {
+        return new ProductChangedEvent(Type.UPDATED, product.getId(), product, previous);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(Type.DELETED, productId, null, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    /**
+     * State after the write, null for deletes
+     */
+    public ProductDTO getProduct() {
+        return product;
+    }
+
+    /**
+     * State before the write, only available for updates
+     */
+    public ProductDTO getPrevious() {
+        return previous;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductChangedEvent{" +
+                "type=" + type +
+                ", productId=" + productId +
+                '}';
+    }
+}
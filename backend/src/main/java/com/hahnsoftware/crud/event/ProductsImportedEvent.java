@@ -0,0 +1,50 @@
+package com.hahnsoftware.crud.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published once per bulk import that changed products.
+ *
+ * Imports write products set-based, without a {@link ProductChangedEvent} per row.
+ * Every product they inserted or updated has {@code updated_at >= changedSince},
+ * so listeners can either re-read those rows or drop everything derived from products.
+ */
+public class ProductsImportedEvent {
+
+    private final String jobId;
+    private final long inserted;
+    private final long updated;
+    private final LocalDateTime changedSince;
+
+    public ProductsImportedEvent(String jobId, long inserted, long updated, LocalDateTime changedSince) {
+        this.jobId = jobId;
+        this.inserted = inserted;
+        this.updated = updated;
+        this.changedSince = changedSince;
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public long getUpdated() {
+        return updated;
+    }
+
+    public LocalDateTime getChangedSince() {
+        return changedSince;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductsImportedEvent{" +
+                "jobId=" + jobId +
+                ", inserted=" + inserted +
+                ", updated=" + updated +
+                '}';
+    }
+}
@@ -0,0 +1,72 @@
+package com.hahnsoftware.crud.importer;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+/**
+ * Encodes rows in PostgreSQL's COPY text format and hands them on in chunks.
+ *
+ * Fields are tab-separated, rows newline-terminated, null is {@code \N}, and
+ * backslashes, tabs and line breaks inside values are escaped. Chunks of about
+ * {@code chunkChars} characters are passed to the sink as UTF-8 bytes.
+ */
+public class CopyRowWriter {
+
+    private final StringBuilder chunk;
+    private final int chunkChars;
+    private final Sink sink;
+    private boolean rowStart = true;
+
+    public CopyRowWriter(int chunkChars, Sink sink) {
+        this.chunk = new StringBuilder(chunkChars + 1024);
+        this.chunkChars = chunkChars;
+        this.sink = sink;
+    }
+
+    public CopyRowWriter field(Object value) {
+        if (!rowStart) {
+            chunk.append('\t');
+        }
+        rowStart = false;
+        if (value == null) {
+            chunk.append("\\N");
+            return this;
+        }
+        String text = value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> chunk.append("\\\\");
+                case '\t' -> chunk.append("\\t");
+                case '\n' -> chunk.append("\\n");
+                case '\r' -> chunk.append("\\r");
+                default -> chunk.append(c);
+            }
+        }
+        return this;
+    }
+
+    public void endRow() throws SQLException {
+        chunk.append('\n');
+        rowStart = true;
+        if (chunk.length() >= chunkChars) {
+            flush();
+        }
+    }
+
+    public void flush() throws SQLException {
+        if (chunk.length() > 0) {
+            sink.write(chunk.toString().getBytes(StandardCharsets.UTF_8));
+            chunk.setLength(0);
+        }
+    }
+
+    /**
+     * Destination of encoded chunks, e.g. a CopyIn
+     */
+    @FunctionalInterface
+    public interface Sink {
+
+        void write(byte[] bytes) throws SQLException;
+    }
+}
@@ -0,0 +1,246 @@
+package com.hahnsoftware.crud.importer;
+
+import com.hahnsoftware.crud.dto.ProductDTO;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streaming RFC 4180 CSV reader for product imports.
+ *
+ * The first record is a header naming the columns: name, price and quantity are
+ * required, description and category optional, others are ignored. Quoted fields may
+ * contain commas, doubled quotes and line breaks. A record longer than
+ * {@link #MAX_RECORD_CHARS} (e.g. after a stray quote) is rejected and reading resumes
+ * at the next line, so one bad record cannot swallow the rest of the file.
+ */
+public class CsvProductRowReader implements ProductRowReader {
+
+    static final int MAX_RECORD_CHARS = 16_384;
+    private static final int NO_CHAR = -2;
+
+    private final Reader reader;
+    private final char[] buffer = new char[64 * 1024];
+    private final List<String> fields = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder();
+
+    private int position;
+    private int limit;
+    private int pushback = NO_CHAR;
+    private long line = 1;
+    private long recordLine;
+    private int recordLength;
+    private String recordError;
+
+    private int columnCount;
+    private int nameColumn = -1;
+    private int descriptionColumn = -1;
+    private int priceColumn = -1;
+    private int quantityColumn = -1;
+    private int categoryColumn = -1;
+
+    public CsvProductRowReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        if (columnCount == 0) {
+            readHeader();
+        }
+        while (readRecord()) {
+            if (recordError != null) {
+                return ImportRow.rejected(recordLine, recordError);
+            }
+            if (fields.size() == 1 && fields.get(0).isEmpty()) {
+                continue;
+            }
+            if (fields.size() != columnCount) {
+                return ImportRow.rejected(recordLine,
+                        "Expected " + columnCount + " columns but found " + fields.size());
+            }
+            return toRow();
+        }
+        return null;
+    }
+
+    private void readHeader() throws IOException {
+        if (!readRecord() || recordError != null) {
+            throw new IllegalArgumentException("CSV file is empty or has a malformed header");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            String column = fields.get(i).trim().toLowerCase(Locale.ROOT);
+            // Byte order mark left by some spreadsheet exports
+            if (i == 0 && column.startsWith("\uFEFF")) {
+                column = column.substring(1);
+            }
+            columns.putIfAbsent(column, i);
+        }
+        columnCount = fields.size();
+        nameColumn = columns.getOrDefault("name", -1);
+        descriptionColumn = columns.getOrDefault("description", -1);
+        priceColumn = columns.getOrDefault("price", -1);
+        quantityColumn = columns.getOrDefault("quantity", -1);
+        categoryColumn = columns.getOrDefault("category", -1);
+        if (nameColumn < 0 || priceColumn < 0 || quantityColumn < 0) {
+            throw new IllegalArgumentException("CSV header must contain the columns name, price and quantity");
+        }
+    }
+
+    private ImportRow toRow() {
+        ProductDTO product = new ProductDTO();
+        product.setName(text(nameColumn));
+        product.setDescription(text(descriptionColumn));
+        product.setCategory(text(categoryColumn));
+
+        String price = text(priceColumn);
+        if (price != null) {
+            try {
+                product.setPrice(new BigDecimal(price));
+            } catch (NumberFormatException e) {
+                return ImportRow.rejected(recordLine, "Invalid price: " + abbreviate(price, 50));
+            }
+        }
+        String quantity = text(quantityColumn);
+        if (quantity != null) {
+            try {
+                product.setQuantity(Integer.valueOf(quantity));
+            } catch (NumberFormatException e) {
+                return ImportRow.rejected(recordLine, "Invalid quantity: " + abbreviate(quantity, 50));
+            }
+        }
+        return ImportRow.of(recordLine, product);
+    }
+
+    private String text(int column) {
+        if (column < 0) {
+            return null;
+        }
+        String value = fields.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Read the next record into {@link #fields}; false at the end of the input
+     */
+    private boolean readRecord() throws IOException {
+        fields.clear();
+        field.setLength(0);
+        recordError = null;
+        recordLength = 0;
+
+        int c = read();
+        if (c == -1) {
+            return false;
+        }
+        recordLine = line;
+        boolean quoted = false;
+        boolean fieldStart = true;
+        boolean afterQuote = false;
+        while (true) {
+            if (c == -1) {
+                if (quoted) {
+                    recordError = "Unterminated quoted field";
+                }
+                endField();
+                return true;
+            }
+            if (quoted) {
+                if (c == '"') {
+                    int next = read();
+                    if (next != '"') {
+                        quoted = false;
+                        afterQuote = true;
+                        c = next;
+                        continue;
+                    }
+                } else if (c == '\n') {
+                    line++;
+                }
+                if (!append((char) c)) {
+                    return true;
+                }
+            } else if (c == ',') {
+                endField();
+                fieldStart = true;
+                afterQuote = false;
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        pushback = next;
+                    }
+                }
+                line++;
+                endField();
+                return true;
+            } else if (c == '"' && fieldStart) {
+                quoted = true;
+                fieldStart = false;
+            } else {
+                if (afterQuote && recordError == null) {
+                    recordError = "Unexpected character after closing quote";
+                }
+                fieldStart = false;
+                if (!append((char) c)) {
+                    return true;
+                }
+            }
+            c = read();
+        }
+    }
+
+    private boolean append(char c) throws IOException {
+        if (++recordLength > MAX_RECORD_CHARS) {
+            recordError = "Record exceeds " + MAX_RECORD_CHARS + " characters";
+            skipLine();
+            endField();
+            return false;
+        }
+        field.append(c);
+        return true;
+    }
+
+    private void endField() {
+        fields.add(field.toString());
+        field.setLength(0);
+    }
+
+    private void skipLine() throws IOException {
+        int c;
+        while ((c = read()) != -1) {
+            if (c == '\n') {
+                line++;
+                return;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushback != NO_CHAR) {
+            int c = pushback;
+            pushback = NO_CHAR;
+            return c;
+        }
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    static String abbreviate(String value, int maxLength) {
+        return value.length() <= maxLength ? value : value.substring(0, maxLength) + "...";
+    }
+}
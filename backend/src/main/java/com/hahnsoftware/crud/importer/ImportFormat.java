@@ -0,0 +1,45 @@
+package com.hahnsoftware.crud.importer;
+
+import java.util.Locale;
+
+/**
+ * Supported import file formats
+ */
+public enum ImportFormat {
+
+    /**
+     * Comma-separated values with a header row naming the columns
+     */
+    CSV,
+
+    /**
+     * One JSON product object per line
+     */
+    NDJSON;
+
+    /**
+     * Detect the format from a content type or, failing that, a file name
+     */
+    public static ImportFormat detect(String contentType, String fileName) {
+        if (contentType != null) {
+            String type = contentType.toLowerCase(Locale.ROOT);
+            if (type.startsWith("text/csv")) {
+                return CSV;
+            }
+            if (type.startsWith("application/x-ndjson") || type.startsWith("application/jsonl")) {
+                return NDJSON;
+            }
+        }
+        if (fileName != null) {
+            String name = fileName.toLowerCase(Locale.ROOT);
+            if (name.endsWith(".csv")) {
+                return CSV;
+            }
+            if (name.endsWith(".ndjson") || name.endsWith(".jsonl")) {
+                return NDJSON;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported import format, expected CSV (text/csv, .csv) "
+                + "or NDJSON (application/x-ndjson, .ndjson, .jsonl)");
+    }
+}
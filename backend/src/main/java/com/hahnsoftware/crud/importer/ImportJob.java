@@ -0,0 +1,145 @@
+package com.hahnsoftware.crud.importer;
+
+import com.hahnsoftware.crud.dto.ImportJobDTO;
+import com.hahnsoftware.crud.dto.RejectedRowDTO;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Progress and outcome of one import.
+ *
+ * Counters are written by the importing thread and read by status requests at any
+ * time. Only the first {@code maxRejectedRows} rejected rows are kept for the report;
+ * all of them are counted.
+ */
+public class ImportJob {
+
+    public enum Status {
+        STAGING,
+        MERGING,
+        COMPLETED,
+        FAILED
+    }
+
+    private final String id;
+    private final String fileName;
+    private final ImportFormat format;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final long startNanos = System.nanoTime();
+    private final int maxRejectedRows;
+    private final List<RejectedRowDTO> rejectedRows = new ArrayList<>();
+
+    private volatile Status status = Status.STAGING;
+    private volatile LocalDateTime finishedAt;
+    private volatile long finishedNanos;
+    private volatile long rowsRead;
+    private volatile long rowsStaged;
+    private volatile long rowsRejected;
+    private volatile long rowsSuperseded;
+    private volatile long inserted;
+    private volatile long updated;
+    private volatile long unchanged;
+    private volatile String error;
+
+    public ImportJob(String id, String fileName, ImportFormat format, int maxRejectedRows) {
+        this.id = id;
+        this.fileName = fileName;
+        this.format = format;
+        this.maxRejectedRows = maxRejectedRows;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    long getRowsStaged() {
+        return rowsStaged;
+    }
+
+    long getRowsSuperseded() {
+        return rowsSuperseded;
+    }
+
+    void rowStaged() {
+        rowsRead++;
+        rowsStaged++;
+    }
+
+    void rowRejected(long lineNumber, String reason) {
+        rowsRead++;
+        rowsRejected++;
+        addRejectedRow(lineNumber, reason);
+    }
+
+    void rowSuperseded(long lineNumber, String reason) {
+        rowsSuperseded++;
+        addRejectedRow(lineNumber, reason);
+    }
+
+    void merging() {
+        status = Status.MERGING;
+    }
+
+    void completed(long inserted, long updated, long unchanged) {
+        this.inserted = inserted;
+        this.updated = updated;
+        this.unchanged = unchanged;
+        finish(Status.COMPLETED);
+    }
+
+    void failed(String error) {
+        this.error = error;
+        finish(Status.FAILED);
+    }
+
+    public synchronized List<RejectedRowDTO> getRejectedRows() {
+        return new ArrayList<>(rejectedRows);
+    }
+
+    public ImportJobDTO toDTO() {
+        ImportJobDTO dto = new ImportJobDTO();
+        dto.setId(id);
+        dto.setStatus(status.name());
+        dto.setFileName(fileName);
+        dto.setFormat(format.name());
+        dto.setStartedAt(startedAt);
+        dto.setFinishedAt(finishedAt);
+        dto.setRowsRead(rowsRead);
+        dto.setRowsStaged(rowsStaged);
+        dto.setRowsRejected(rowsRejected);
+        dto.setRowsSuperseded(rowsSuperseded);
+        dto.setInserted(inserted);
+        dto.setUpdated(updated);
+        dto.setUnchanged(unchanged);
+        long elapsedNanos = (isFinished() ? finishedNanos : System.nanoTime()) - startNanos;
+        dto.setRowsPerSecond(elapsedNanos > 0 ? rowsRead * 1_000_000_000L / elapsedNanos : 0);
+        dto.setError(error);
+        return dto;
+    }
+
+    private synchronized void addRejectedRow(long lineNumber, String reason) {
+        if (rejectedRows.size() < maxRejectedRows) {
+            rejectedRows.add(new RejectedRowDTO(lineNumber, reason));
+        }
+    }
+
+    private void finish(Status finalStatus) {
+        finishedNanos = System.nanoTime();
+        finishedAt = LocalDateTime.now();
+        status = finalStatus;
+    }
+}
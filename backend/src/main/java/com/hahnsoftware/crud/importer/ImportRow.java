@@ -0,0 +1,46 @@
+package com.hahnsoftware.crud.importer;
+
+import com.hahnsoftware.crud.dto.ProductDTO;
+
+/**
+ * One record read from an import file: a product, or the reason it could not be read
+ */
+public final class ImportRow {
+
+    private final long lineNumber;
+    private final ProductDTO product;
+    private final String error;
+
+    private ImportRow(long lineNumber, ProductDTO product, String error) {
+        this.lineNumber = lineNumber;
+        this.product = product;
+        this.error = error;
+    }
+
+    public static ImportRow of(long lineNumber, ProductDTO product) {
+        return new ImportRow(lineNumber, product, null);
+    }
+
+    public static ImportRow rejected(long lineNumber, String error) {
+        return new ImportRow(lineNumber, null, error);
+    }
+
+    /**
+     * Line of the file the record starts on
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public ProductDTO getProduct() {
+        return product;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isRejected() {
+        return error != null;
+    }
+}
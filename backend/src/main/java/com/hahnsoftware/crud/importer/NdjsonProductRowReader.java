@@ -0,0 +1,104 @@
+package com.hahnsoftware.crud.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.hahnsoftware.crud.dto.ProductDTO;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Streaming reader for newline-delimited JSON: one product object per line, in the
+ * same shape as the REST API's ProductDTO. Blank lines are skipped; a line that is not
+ * a valid product object is rejected without affecting the others. A line longer than
+ * {@link #MAX_LINE_CHARS} is rejected without being held in memory, and reading
+ * resumes at the next line.
+ */
+public class NdjsonProductRowReader implements ProductRowReader {
+
+    static final int MAX_LINE_CHARS = 16_384;
+
+    private final Reader reader;
+    private final ObjectReader productReader;
+    private final char[] buffer = new char[64 * 1024];
+    private final StringBuilder text = new StringBuilder();
+    private int position;
+    private int limit;
+    private boolean lineTooLong;
+    private long line;
+
+    public NdjsonProductRowReader(Reader reader, ObjectReader productReader) {
+        this.reader = reader;
+        this.productReader = productReader.forType(ProductDTO.class);
+    }
+
+    @Override
+    public ImportRow next() throws IOException {
+        while (readLine()) {
+            line++;
+            if (lineTooLong) {
+                return ImportRow.rejected(line, "Line exceeds " + MAX_LINE_CHARS + " characters");
+            }
+            if (isBlank(text)) {
+                continue;
+            }
+            try {
+                ProductDTO product = productReader.readValue(text.toString());
+                if (product == null) {
+                    return ImportRow.rejected(line, "Expected a product object");
+                }
+                return ImportRow.of(line, product);
+            } catch (JsonProcessingException e) {
+                return ImportRow.rejected(line, "Invalid JSON: " + CsvProductRowReader.abbreviate(e.getOriginalMessage(), 200));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Read up to the next line feed into {@link #text}, keeping at most
+     * MAX_LINE_CHARS of it; false at the end of the input
+     */
+    private boolean readLine() throws IOException {
+        text.setLength(0);
+        lineTooLong = false;
+        boolean seen = false;
+        while (true) {
+            if (position == limit) {
+                limit = reader.read(buffer, 0, buffer.length);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return seen;
+                }
+            }
+            seen = true;
+            int end = position;
+            while (end < limit && buffer[end] != '\n') {
+                end++;
+            }
+            if (!lineTooLong) {
+                if (text.length() + (end - position) > MAX_LINE_CHARS) {
+                    lineTooLong = true;
+                    text.setLength(0);
+                } else {
+                    text.append(buffer, position, end - position);
+                }
+            }
+            if (end < limit) {
+                position = end + 1;
+                return true;
+            }
+            position = end;
+        }
+    }
+
+    private static boolean isBlank(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (!Character.isWhitespace(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
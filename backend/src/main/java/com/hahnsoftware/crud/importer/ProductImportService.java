@@ -0,0 +1,336 @@
+package com.hahnsoftware.crud.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hahnsoftware.crud.dto.ProductDTO;
+import com.hahnsoftware.crud.event.ProductsImportedEvent;
+import com.hahnsoftware.crud.ledger.StockMovementReason;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk import of products from CSV or NDJSON streams.
+ *
+ * Each import runs on its own import thread. The input is read, validated and encoded
+ * one record at a time and written to a temporary staging table with COPY FROM STDIN,
+ * so memory use does not depend on the file size. The COPY socket provides
+ * backpressure: when the database falls behind, writes block and the request body is
+ * no longer read. The caller is told as soon as the input has been read to the end,
+ * so that it does not have to wait for the merge.
+ *
+ * Once the input is exhausted, the staging table is merged into products in the same
+ * transaction: when a name (ignoring case) appears several times in the file, the
+ * last occurrence wins; products with an existing name are updated if anything
+ * changed, all others inserted. The merge locks products against concurrent writes
+ * (reads are unaffected) so that no duplicate names can be created meanwhile. With the
+ * stock ledger enabled, the merge also appends a movement for every quantity it
+ * changes, computed from the quantities it replaces.
+ *
+ * Rejected rows (unreadable, failing the ProductDTO constraints, or superseded by a
+ * later row) are reported per job and never stop the import.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final String STAGING_TABLE = "product_import_staging";
+    private static final int COPY_CHUNK_CHARS = 256 * 1024;
+
+    private static final String INSERT_NEW_PRODUCTS =
+            "INSERT INTO products (name, description, price, quantity, category, created_at, updated_at) "
+            + "SELECT s.name, s.description, s.price, s.quantity, s.category, LOCALTIMESTAMP, LOCALTIMESTAMP "
+            + "FROM " + STAGING_TABLE + " s "
+            + "WHERE NOT EXISTS (SELECT 1 FROM products p WHERE UPPER(p.name) = UPPER(s.name)) "
+            + "ORDER BY s.line_number";
+
+    private static final String INSERT_MOVEMENT_COLUMNS =
+            "INSERT INTO stock_movements (product_id, occurred_at, delta, quantity, reason) ";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Semaphore runningImports;
+    private final ExecutorService importThreads;
+    private final int maxRejectedRows;
+    private final int retainedJobs;
+    private final boolean sharded;
+    private final boolean stockLedger;
+    private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final Counter rowsStaged;
+    private final Counter rowsRejected;
+
+    @Autowired
+    public ProductImportService(DataSource dataSource,
+                                JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                ApplicationEventPublisher eventPublisher,
+                                MeterRegistry meterRegistry,
+                                @Value("${products.import.max-concurrent-jobs:2}") int maxConcurrentJobs,
+                                @Value("${products.import.max-rejected-rows:1000}") int maxRejectedRows,
+                                @Value("${products.import.retained-jobs:50}") int retainedJobs,
+                                @Value("${products.sharding.enabled:false}") boolean sharded,
+                                @Value("${products.stock-ledger.enabled:false}") boolean stockLedger) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.runningImports = new Semaphore(maxConcurrentJobs);
+        this.importThreads = Executors.newFixedThreadPool(maxConcurrentJobs, runnable -> {
+            Thread thread = new Thread(runnable, "product-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maxRejectedRows = maxRejectedRows;
+        this.retainedJobs = retainedJobs;
+        this.sharded = sharded;
+        this.stockLedger = stockLedger;
+        this.rowsStaged = Counter.builder("products.import.rows")
+                .tag("outcome", "staged")
+                .register(meterRegistry);
+        this.rowsRejected = Counter.builder("products.import.rows")
+                .tag("outcome", "rejected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Start importing a stream of products on an import thread. The returned future
+     * completes with the job once the input has been read to the end; the merge then
+     * continues in the background and its progress can be followed through
+     * {@link #getJob}. If the import fails before that, the future completes with the
+     * exception; a failed import is kept as a FAILED job either way. The input must
+     * stay readable until the future completes.
+     *
+     * @throws IllegalStateException if the maximum number of concurrent imports is running
+     * @throws UnsupportedOperationException if products are sharded (imports write the primary database)
+     */
+    public CompletableFuture<ImportJob> importProducts(InputStream input, ImportFormat format, String fileName) {
+        if (sharded) {
+            throw new UnsupportedOperationException("Bulk import is not supported with sharded product storage");
+        }
+        if (!runningImports.tryAcquire()) {
+            throw new IllegalStateException("Too many imports are running, please retry later");
+        }
+        ImportJob job = new ImportJob(UUID.randomUUID().toString(), fileName, format, maxRejectedRows);
+        register(job);
+        CompletableFuture<ImportJob> received = new CompletableFuture<>();
+        importThreads.execute(() -> {
+            try {
+                Reader reader = new InputStreamReader(input, StandardCharsets.UTF_8);
+                ProductRowReader rows = format == ImportFormat.CSV
+                        ? new CsvProductRowReader(reader)
+                        : new NdjsonProductRowReader(reader, objectMapper.reader());
+                transactionTemplate.executeWithoutResult(status -> run(job, rows, received));
+                log.info("Import {} of {} completed: {}", job.getId(), fileName, job.toDTO());
+            } catch (RuntimeException e) {
+                job.failed(e.getMessage());
+                log.warn("Import {} of {} failed", job.getId(), fileName, e);
+                received.completeExceptionally(e);
+            } finally {
+                runningImports.release();
+            }
+        });
+        return received;
+    }
+
+    @PreDestroy
+    public void stop() {
+        importThreads.shutdownNow();
+    }
+
+    public Optional<ImportJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * Retained jobs, most recent first
+     */
+    public List<ImportJob> getJobs() {
+        List<ImportJob> result = new ArrayList<>(jobs.values());
+        result.sort(Comparator.comparing(ImportJob::getStartedAt).reversed());
+        return result;
+    }
+
+    private void run(ImportJob job, ProductRowReader rows, CompletableFuture<ImportJob> received) {
+        jdbcTemplate.execute("CREATE TEMPORARY TABLE " + STAGING_TABLE + " ("
+                + "line_number BIGINT NOT NULL, "
+                + "name VARCHAR(255) NOT NULL, "
+                + "description TEXT, "
+                + "price DECIMAL(10,2) NOT NULL, "
+                + "quantity INTEGER NOT NULL, "
+                + "category VARCHAR(100)"
+                + ") ON COMMIT DROP");
+
+        try {
+            stage(job, rows);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read the import stream: " + e.getMessage(), e);
+        } catch (SQLException e) {
+            throw new UncategorizedSQLException("COPY into " + STAGING_TABLE, null, e);
+        }
+
+        job.merging();
+        received.complete(job);
+        jdbcTemplate.execute("ANALYZE " + STAGING_TABLE);
+        removeSupersededRows(job);
+
+        jdbcTemplate.execute("LOCK TABLE products IN SHARE ROW EXCLUSIVE MODE");
+        LocalDateTime changedSince = jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", LocalDateTime.class);
+        if (stockLedger) {
+            // Before the update, while the replaced quantities are still there (and locked)
+            jdbcTemplate.update(INSERT_MOVEMENT_COLUMNS
+                    + "SELECT p.id, LOCALTIMESTAMP, s.quantity - p.quantity, s.quantity, '" + StockMovementReason.IMPORTED + "' "
+                    + "FROM products p JOIN " + STAGING_TABLE + " s ON UPPER(p.name) = UPPER(s.name) "
+                    + "WHERE p.quantity <> s.quantity");
+        }
+        int updated = jdbcTemplate.update(
+                "UPDATE products p SET description = s.description, price = s.price, quantity = s.quantity, "
+                        + "category = s.category, updated_at = LOCALTIMESTAMP "
+                        + "FROM " + STAGING_TABLE + " s "
+                        + "WHERE UPPER(p.name) = UPPER(s.name) "
+                        + "AND (p.description, p.price, p.quantity, p.category) "
+                        + "IS DISTINCT FROM (s.description, s.price, s.quantity, s.category)");
+        int inserted = stockLedger
+                ? jdbcTemplate.queryForObject("WITH created AS (" + INSERT_NEW_PRODUCTS + " RETURNING id, quantity), "
+                        + "moved AS (" + INSERT_MOVEMENT_COLUMNS
+                        + "SELECT id, LOCALTIMESTAMP, quantity, quantity, '" + StockMovementReason.IMPORTED + "' "
+                        + "FROM created WHERE quantity <> 0) "
+                        + "SELECT COUNT(*) FROM created", Integer.class)
+                : jdbcTemplate.update(INSERT_NEW_PRODUCTS);
+        long merged = job.getRowsStaged() - job.getRowsSuperseded();
+        long unchanged = Math.max(0, merged - inserted - updated);
+
+        if (inserted > 0 || updated > 0) {
+            // Delivered to @TransactionalEventListener methods after commit
+            eventPublisher.publishEvent(new ProductsImportedEvent(job.getId(), inserted, updated, changedSince));
+        }
+        job.completed(inserted, updated, unchanged);
+    }
+
+    private void stage(ImportJob job, ProductRowReader rows) throws IOException, SQLException {
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        try {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                    "COPY " + STAGING_TABLE + " (line_number, name, description, price, quantity, category) FROM STDIN");
+            try {
+                CopyRowWriter writer = new CopyRowWriter(COPY_CHUNK_CHARS,
+                        bytes -> copyIn.writeToCopy(bytes, 0, bytes.length));
+                ImportRow row;
+                while ((row = rows.next()) != null) {
+                    String error = row.isRejected() ? row.getError() : validate(row.getProduct());
+                    if (error != null) {
+                        job.rowRejected(row.getLineNumber(), error);
+                        rowsRejected.increment();
+                        continue;
+                    }
+                    ProductDTO product = row.getProduct();
+                    writer.field(row.getLineNumber())
+                            .field(product.getName())
+                            .field(product.getDescription())
+                            .field(product.getPrice().toPlainString())
+                            .field(product.getQuantity())
+                            .field(product.getCategory())
+                            .endRow();
+                    job.rowStaged();
+                    rowsStaged.increment();
+                }
+                writer.flush();
+                copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        } finally {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+        }
+    }
+
+    private String validate(ProductDTO product) {
+        Set<ConstraintViolation<ProductDTO>> violations = validator.validate(product);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    /**
+     * Keep only the last row per name (ignoring case) and report the others
+     */
+    private void removeSupersededRows(ImportJob job) {
+        jdbcTemplate.query(
+                "DELETE FROM " + STAGING_TABLE + " s USING ("
+                        + "SELECT line_number, FIRST_VALUE(line_number) OVER ("
+                        + "PARTITION BY UPPER(name) ORDER BY line_number DESC) AS winner "
+                        + "FROM " + STAGING_TABLE + ") d "
+                        + "WHERE s.line_number = d.line_number AND d.line_number <> d.winner "
+                        + "RETURNING s.line_number, d.winner",
+                rs -> {
+                    job.rowSuperseded(rs.getLong("line_number"),
+                            "Duplicate name, superseded by line " + rs.getLong("winner"));
+                });
+    }
+
+    private void register(ImportJob job) {
+        jobs.put(job.getId(), job);
+        if (jobs.size() <= retainedJobs) {
+            return;
+        }
+        // Forget the oldest finished jobs
+        Collection<ImportJob> finished = jobs.values().stream()
+                .filter(ImportJob::isFinished)
+                .sorted(Comparator.comparing(ImportJob::getStartedAt))
+                .limit(jobs.size() - retainedJobs)
+                .toList();
+        finished.forEach(candidate -> jobs.remove(candidate.getId()));
+    }
+}
@@ -0,0 +1,15 @@
+package com.hahnsoftware.crud.importer;
+
+import java.io.IOException;
+
+/**
+ * Reads products one record at a time from an import stream
+ */
+public interface ProductRowReader {
+
+    /**
+     * Next record, or null at the end of the input. Malformed records are returned
+     * as rejected rows; only I/O failures end the import.
+     */
+    ImportRow next() throws IOException;
+}
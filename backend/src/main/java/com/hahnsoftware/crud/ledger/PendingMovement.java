@@ -0,0 +1,42 @@
+package com.hahnsoftware.crud.ledger;
+
+import com.hahnsoftware.crud.dto.ProductDTO;
+import com.hahnsoftware.crud.event.ProductChangedEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * A ledger write waiting for the writer thread.
+ *
+ * Carries the quantity after the write, not a delta: the quantity before it was read
+ * without a lock and may already be stale. The writer resolves the delta against the
+ * ledger itself, after everything queued before it has been written, and skips the
+ * movement if the quantity turns out unchanged.
+ */
+record PendingMovement(StockMovementReason reason, long productId, LocalDateTime occurredAt, int quantity) {
+
+    /**
+     * The movement for a product write, or null for a product created without stock
+     */
+    static PendingMovement of(ProductChangedEvent event, LocalDateTime occurredAt) {
+        switch (event.getType()) {
+            case CREATED -> {
+                int quantity = quantityOf(event.getProduct());
+                return quantity == 0 ? null
+                        : new PendingMovement(StockMovementReason.CREATED, event.getProductId(), occurredAt, quantity);
+            }
+            case UPDATED -> {
+                return new PendingMovement(StockMovementReason.UPDATED, event.getProductId(), occurredAt,
+                        quantityOf(event.getProduct()));
+            }
+            case DELETED -> {
+                return new PendingMovement(StockMovementReason.DELETED, event.getProductId(), occurredAt, 0);
+            }
+            default -> throw new IllegalArgumentException("Unknown change type: " + event.getType());
+        }
+    }
+
+    private static int quantityOf(ProductDTO product) {
+        return product == null || product.getQuantity() == null ? 0 : product.getQuantity();
+    }
+}
@@ -0,0 +1,290 @@
+package com.hahnsoftware.crud.ledger;
+
+import com.hahnsoftware.crud.dto.StockLevelDTO;
+import com.hahnsoftware.crud.dto.StockMovementDTO;
+import com.hahnsoftware.crud.event.ProductChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only ledger of stock movements: one row per quantity change.
+ *
+ * Committed product changes are turned into movements by the event listeners and
+ * only queued there, so the write path pays for an offer to a queue. One writer
+ * thread appends them with batched inserts, a batch per flush window, into
+ * stock_movements (partitioned by month). Movements carry the quantity after the
+ * write; their deltas are resolved against the quantity the ledger knows when they are
+ * written, after every movement queued before them, so a stale or reordered change
+ * cannot shift the ledger for good. Imports write their movements themselves, in the
+ * import transaction (see ProductImportService).
+ *
+ * The quantity at a past time is rebuilt from the latest snapshot round before it
+ * (see {@link StockLedgerMaintenance}) plus the movements of the transactions that
+ * round did not cover. Queued movements reach the ledger within
+ * products.stock-ledger.flush-ms; a batch that fails is retried, in order, until it
+ * is written. When the queue is full, movements are dropped and counted rather than
+ * slowing writes down; snapshot rounds reconcile the ledger with the products table,
+ * so a dropped or lost movement is corrected by the next round.
+ */
+@Service
+public class StockLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLedger.class);
+
+    /** Snapshot time before the first snapshot round */
+    private static final LocalDateTime LEDGER_EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final long MAX_RETRY_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    /**
+     * Quantity the ledger knows for product p: its snapshot in the latest round plus the
+     * movements since. Parameters: the round's taken_at and txid horizon.
+     */
+    static final String KNOWN_QUANTITY = "COALESCE((SELECT s.quantity FROM stock_snapshots s "
+            + "WHERE s.product_id = p.id AND s.taken_at <= ? ORDER BY s.taken_at DESC LIMIT 1), 0) "
+            + "+ COALESCE((SELECT SUM(m.delta) FROM stock_movements m WHERE m.product_id = p.id AND m.txid >= ?), 0)";
+
+    private static final String INSERT_MOVEMENT =
+            "INSERT INTO stock_movements (product_id, occurred_at, delta, quantity, reason) "
+            + "SELECT p.id, ?, p.quantity - k.quantity, p.quantity, ? "
+            + "FROM (SELECT CAST(? AS BIGINT) AS id, CAST(? AS INTEGER) AS quantity) p "
+            + "CROSS JOIN LATERAL (SELECT " + KNOWN_QUANTITY + " AS quantity) k WHERE k.quantity <> p.quantity";
+
+    private static final RowMapper<StockMovementDTO> MOVEMENT_ROW_MAPPER = (rs, rowNum) -> new StockMovementDTO(
+            rs.getLong("id"),
+            rs.getLong("product_id"),
+            rs.getObject("occurred_at", LocalDateTime.class),
+            rs.getInt("delta"),
+            rs.getInt("quantity"),
+            rs.getString("reason"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate readTransaction;
+    private final StockLedgerMaintenance maintenance;
+    private final boolean enabled;
+    private final long flushNanos;
+    private final int maxBatchSize;
+    private final BlockingQueue<PendingMovement> queue;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failedWrites;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    @Autowired
+    public StockLedger(JdbcTemplate jdbcTemplate,
+                       TransactionTemplate transactionTemplate,
+                       StockLedgerMaintenance maintenance,
+                       MeterRegistry meterRegistry,
+                       @Value("${products.stock-ledger.enabled:false}") boolean enabled,
+                       @Value("${products.stock-ledger.flush-ms:200}") long flushMillis,
+                       @Value("${products.stock-ledger.max-batch-size:500}") int maxBatchSize,
+                       @Value("${products.stock-ledger.queue-capacity:100000}") int queueCapacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readTransaction = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readTransaction.setReadOnly(true);
+        this.readTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.maintenance = maintenance;
+        this.enabled = enabled;
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(flushMillis);
+        this.maxBatchSize = maxBatchSize;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.written = Counter.builder("products.stock_ledger.movements")
+                .description("Stock movements appended to the ledger")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("products.stock_ledger.dropped")
+                .description("Stock movements lost because the queue was full or the last write at shutdown failed")
+                .register(meterRegistry);
+        this.failedWrites = Counter.builder("products.stock_ledger.failed_writes")
+                .description("Stock movement batches that failed and were retried")
+                .register(meterRegistry);
+        Gauge.builder("products.stock_ledger.queued", queue, BlockingQueue::size)
+                .description("Stock movements waiting to be written")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Prepare the ledger tables, then start appending queued movements
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        maintenance.prepare();
+        running = true;
+        writer = new Thread(this::runWriter, "stock-ledger-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        List<PendingMovement> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (writer != null && !remaining.isEmpty() && !write(remaining)) {
+            dropped.increment(remaining.size());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (enabled) {
+            enqueue(PendingMovement.of(event, LocalDateTime.now()));
+        }
+    }
+
+    /**
+     * Movements of a product in [from, to), oldest first
+     */
+    public List<StockMovementDTO> getHistory(long productId, LocalDateTime from, LocalDateTime to, int limit) {
+        return jdbcTemplate.query("SELECT id, product_id, occurred_at, delta, quantity, reason FROM stock_movements "
+                        + "WHERE product_id = ? AND occurred_at >= ? AND occurred_at < ? ORDER BY occurred_at, id LIMIT ?",
+                MOVEMENT_ROW_MAPPER, productId, from, to, limit);
+    }
+
+    /**
+     * Quantity of a product at the given time: its snapshot in the latest round before it
+     * plus the movements up to that time that the round did not cover
+     */
+    public StockLevelDTO getStockAt(long productId, LocalDateTime at) {
+        return readTransaction.execute(status -> {
+            StockLedgerMaintenance.Round round = maintenance.latestRound(at);
+            int snapshotQuantity = 0;
+            if (round != null) {
+                List<Integer> snapshot = jdbcTemplate.queryForList("SELECT quantity FROM stock_snapshots "
+                                + "WHERE product_id = ? AND taken_at <= ? ORDER BY taken_at DESC LIMIT 1",
+                        Integer.class, productId, round.takenAt());
+                snapshotQuantity = snapshot.isEmpty() ? 0 : snapshot.get(0);
+            }
+            int base = snapshotQuantity;
+            LocalDateTime snapshotAt = round != null ? round.takenAt() : null;
+            return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(delta), 0) AS delta, COUNT(*) AS movements "
+                            + "FROM stock_movements WHERE product_id = ? AND txid >= ? AND occurred_at <= ?",
+                    (rs, rowNum) -> new StockLevelDTO(productId, at, base + rs.getInt("delta"), snapshotAt,
+                            rs.getLong("movements")),
+                    productId, round != null ? round.txidHorizon() : 0, at);
+        });
+    }
+
+    private void enqueue(PendingMovement movement) {
+        if (movement != null && !queue.offer(movement)) {
+            dropped.increment();
+        }
+    }
+
+    private void runWriter() {
+        List<PendingMovement> batch = new ArrayList<>(maxBatchSize);
+        long retryNanos = 0;
+        while (running) {
+            try {
+                if (batch.isEmpty()) {
+                    collect(batch);
+                } else {
+                    // Retry the failed batch before anything queued after it
+                    TimeUnit.NANOSECONDS.sleep(retryNanos);
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (write(batch)) {
+                batch.clear();
+                retryNanos = 0;
+            } else {
+                retryNanos = Math.min(MAX_RETRY_NANOS, Math.max(flushNanos, retryNanos * 2));
+            }
+        }
+        if (!batch.isEmpty() && !write(batch)) {
+            dropped.increment(batch.size());
+        }
+    }
+
+    /**
+     * Wait for the first movement, then gather more until the flush window closes or the batch is full
+     */
+    private void collect(List<PendingMovement> batch) throws InterruptedException {
+        batch.add(queue.take());
+        long deadline = System.nanoTime() + flushNanos;
+        while (batch.size() < maxBatchSize) {
+            if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            PendingMovement next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Append a batch in one transaction, in queue order; false if it failed and nothing was written
+     */
+    private boolean write(List<PendingMovement> batch) {
+        try {
+            Integer rows = writeTransaction.execute(status -> {
+                StockLedgerMaintenance.Round round = maintenance.latestRound(null);
+                LocalDateTime takenAt = round != null ? round.takenAt() : LEDGER_EPOCH;
+                long txidHorizon = round != null ? round.txidHorizon() : 0;
+                // Executed in order, so each delta sees the movements inserted before it
+                int[][] counts = jdbcTemplate.batchUpdate(INSERT_MOVEMENT, batch, batch.size(), (ps, movement) -> {
+                    ps.setObject(1, movement.occurredAt());
+                    ps.setString(2, movement.reason().name());
+                    ps.setLong(3, movement.productId());
+                    ps.setInt(4, movement.quantity());
+                    ps.setObject(5, takenAt);
+                    ps.setLong(6, txidHorizon);
+                });
+                int count = 0;
+                for (int[] batchCounts : counts) {
+                    for (int inserted : batchCounts) {
+                        count += Math.max(0, inserted);
+                    }
+                }
+                return count;
+            });
+            written.increment(rows == null ? 0 : rows);
+            return true;
+        } catch (RuntimeException e) {
+            log.error("Failed to append {} stock movements, will retry", batch.size(), e);
+            failedWrites.increment();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.hahnsoftware.crud.ledger;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Storage upkeep of the stock ledger: schema, monthly partitions, snapshot rounds
+ * and retention.
+ *
+ * A snapshot round records, for every product that moved since the previous round,
+ * its quantity at the round's time: its previous snapshot plus those movements. The
+ * quantity at any time is then one snapshot plus at most one round interval of
+ * movements. Rounds are keyed on the database's transaction horizon rather than on
+ * movement times: a round covers the movements of every transaction that had finished
+ * when it was taken, so a movement committed late (queued, retried or imported) lands
+ * in the next round instead of being missed. Only one application instance takes a
+ * round at a time.
+ *
+ * Each round then reconciles the ledger with the products table: where the quantity
+ * the ledger knows differs from a product's quantity, or a product that moved since the
+ * previous round no longer exists but still has stock, a RECONCILED movement corrects it. This repairs movements dropped on
+ * a full queue or lost in a crash. Products written since the previous round are left
+ * to the next one, as their movements may still be queued. Not done with sharded
+ * product storage, where the products table of this database is not authoritative.
+ *
+ * Movement partitions are created a month ahead; with
+ * products.stock-ledger.retention-months set, whole partitions older than that are
+ * dropped (snapshots are kept, so quantities stay available).
+ */
+@Component
+public class StockLedgerMaintenance {
+
+    static final String PARTITION_PREFIX = "stock_movements_p";
+
+    private static final Logger log = LoggerFactory.getLogger(StockLedgerMaintenance.class);
+    private static final int PARTITIONS_AHEAD = 1;
+    private static final long SNAPSHOT_LOCK_KEY = 0x5354_4f43_4b4cL;
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern PARTITION_NAME = Pattern.compile(PARTITION_PREFIX + "(\\d{4})(\\d{2})");
+    private static final String INSERT_RECONCILED = "INSERT INTO stock_movements "
+            + "(product_id, occurred_at, delta, quantity, reason) ";
+    private static final String RECONCILE_PRODUCTS = INSERT_RECONCILED
+            + "SELECT p.id, ?, p.quantity - k.quantity, p.quantity, '" + StockMovementReason.RECONCILED + "' "
+            + "FROM products p CROSS JOIN LATERAL (SELECT " + StockLedger.KNOWN_QUANTITY + " AS quantity) k "
+            + "WHERE k.quantity <> p.quantity AND (p.updated_at IS NULL OR p.updated_at < ?)";
+    private static final String RECONCILE_DELETED_PRODUCTS = INSERT_RECONCILED
+            + "SELECT p.id, ?, -k.quantity, 0, '" + StockMovementReason.RECONCILED + "' "
+            + "FROM (SELECT DISTINCT product_id AS id FROM stock_movements WHERE txid >= ? AND txid < ?) p "
+            + "CROSS JOIN LATERAL (SELECT " + StockLedger.KNOWN_QUANTITY + " AS quantity) k "
+            + "WHERE k.quantity <> 0 AND NOT EXISTS (SELECT 1 FROM products x WHERE x.id = p.id)";
+    private static final RowMapper<Round> ROUND_ROW_MAPPER = (rs, rowNum) -> new Round(
+            rs.getObject("taken_at", LocalDateTime.class), rs.getLong("txid_horizon"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int retentionMonths;
+    private final boolean sharded;
+    private final Counter snapshotRows;
+    private final Counter reconciled;
+
+    private volatile boolean prepared;
+
+    @Autowired
+    public StockLedgerMaintenance(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${products.stock-ledger.enabled:false}") boolean enabled,
+                                  @Value("${products.stock-ledger.retention-months:0}") int retentionMonths,
+                                  @Value("${products.sharding.enabled:false}") boolean sharded) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.enabled = enabled;
+        this.retentionMonths = retentionMonths;
+        this.sharded = sharded;
+        this.snapshotRows = Counter.builder("products.stock_ledger.snapshot_rows")
+                .description("Product quantities written by snapshot rounds")
+                .register(meterRegistry);
+        this.reconciled = Counter.builder("products.stock_ledger.reconciled")
+                .description("Corrections written where the ledger disagreed with the products table")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Create the ledger tables and the partitions for this and the next month
+     */
+    public void prepare() {
+        new ResourceDatabasePopulator(new ClassPathResource("stock-ledger-schema.sql"))
+                .execute(jdbcTemplate.getDataSource());
+        ensurePartitions(YearMonth.now());
+        prepared = true;
+    }
+
+    @Scheduled(fixedDelayString = "${products.stock-ledger.snapshot-interval-ms:3600000}",
+            initialDelayString = "${products.stock-ledger.snapshot-interval-ms:3600000}")
+    public void run() {
+        if (!enabled || !prepared) {
+            return;
+        }
+        try {
+            YearMonth month = YearMonth.now();
+            ensurePartitions(month);
+            takeSnapshot();
+            dropExpiredPartitions(month);
+        } catch (DataAccessException e) {
+            log.warn("Stock ledger maintenance failed", e);
+        }
+    }
+
+    /**
+     * Snapshot every product that moved in the transactions finished since the previous
+     * round, then reconcile the ledger with the products table; returns the number of
+     * products snapshotted, or -1 if no round was taken
+     */
+    public int takeSnapshot() {
+        Integer products = transactionTemplate.execute(status -> {
+            Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class,
+                    SNAPSHOT_LOCK_KEY);
+            if (!Boolean.TRUE.equals(locked)) {
+                return -1;
+            }
+            Round previous = latestRound(null);
+            // Every transaction below the horizon has committed or aborted, before taken_at
+            Round round = jdbcTemplate.queryForObject("SELECT CAST(clock_timestamp() AS TIMESTAMP) AS taken_at, "
+                    + "txid_snapshot_xmin(txid_current_snapshot()) AS txid_horizon", ROUND_ROW_MAPPER);
+            if (previous != null && (round.txidHorizon() <= previous.txidHorizon()
+                    || !round.takenAt().isAfter(previous.takenAt()))) {
+                return -1;
+            }
+            int rows = jdbcTemplate.update("INSERT INTO stock_snapshots (product_id, taken_at, quantity) "
+                            + "SELECT m.product_id, ?, COALESCE((SELECT s.quantity FROM stock_snapshots s "
+                            + "WHERE s.product_id = m.product_id ORDER BY s.taken_at DESC LIMIT 1), 0) + SUM(m.delta) "
+                            + "FROM stock_movements m WHERE m.txid >= ? AND m.txid < ? GROUP BY m.product_id",
+                    round.takenAt(), previous != null ? previous.txidHorizon() : 0, round.txidHorizon());
+            jdbcTemplate.update("INSERT INTO stock_snapshot_rounds (taken_at, txid_horizon, products) VALUES (?, ?, ?)",
+                    round.takenAt(), round.txidHorizon(), rows);
+            log.debug("Stock snapshot round at {} (horizon {}): {} products", round.takenAt(), round.txidHorizon(), rows);
+            if (!sharded) {
+                reconcile(previous, round);
+            }
+            return rows;
+        });
+        if (products != null && products >= 0) {
+            snapshotRows.increment(products);
+            return products;
+        }
+        return -1;
+    }
+
+    private void reconcile(Round previous, Round round) {
+        long previousHorizon = previous != null ? previous.txidHorizon() : 0;
+        LocalDateTime settledBefore = previous != null ? previous.takenAt() : round.takenAt();
+        int corrections = jdbcTemplate.update(RECONCILE_PRODUCTS,
+                round.takenAt(), round.takenAt(), round.txidHorizon(), settledBefore);
+        corrections += jdbcTemplate.update(RECONCILE_DELETED_PRODUCTS,
+                round.takenAt(), previousHorizon, round.txidHorizon(), round.takenAt(), round.txidHorizon());
+        if (corrections > 0) {
+            log.warn("Stock ledger disagreed with {} products, reconciled", corrections);
+            reconciled.increment(corrections);
+        }
+    }
+
+    /**
+     * The latest round taken at or before the given time (any time if null), null if there is none
+     */
+    Round latestRound(LocalDateTime at) {
+        List<Round> rounds = at != null
+                ? jdbcTemplate.query("SELECT taken_at, txid_horizon FROM stock_snapshot_rounds "
+                        + "WHERE taken_at <= ? ORDER BY taken_at DESC LIMIT 1", ROUND_ROW_MAPPER, at)
+                : jdbcTemplate.query("SELECT taken_at, txid_horizon FROM stock_snapshot_rounds "
+                        + "ORDER BY taken_at DESC LIMIT 1", ROUND_ROW_MAPPER);
+        return rounds.isEmpty() ? null : rounds.get(0);
+    }
+
+    private void ensurePartitions(YearMonth current) {
+        for (int i = 0; i <= PARTITIONS_AHEAD; i++) {
+            YearMonth month = current.plusMonths(i);
+            try {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month)
+                        + " PARTITION OF stock_movements FOR VALUES FROM ('" + month.atDay(1) + "') TO ('"
+                        + month.plusMonths(1).atDay(1) + "')");
+            } catch (DataAccessException e) {
+                // The default partition already holds rows of this month
+                log.warn("Could not create stock movement partition for {}", month, e);
+            }
+        }
+    }
+
+    private void dropExpiredPartitions(YearMonth current) {
+        if (retentionMonths <= 0) {
+            return;
+        }
+        List<String> partitions = jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i "
+                + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'stock_movements'::regclass", String.class);
+        for (String partition : partitions) {
+            YearMonth month = partitionMonth(partition);
+            if (month != null && isExpired(month, current, retentionMonths)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                log.info("Dropped stock movement partition {}", partition);
+            }
+        }
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + PARTITION_MONTH.format(month);
+    }
+
+    /**
+     * The month of a partition created by {@link #ensurePartitions}, null for other tables
+     */
+    static YearMonth partitionMonth(String tableName) {
+        Matcher matcher = PARTITION_NAME.matcher(tableName);
+        if (!matcher.matches()) {
+            return null;
+        }
+        int month = Integer.parseInt(matcher.group(2));
+        return month >= 1 && month <= 12 ? YearMonth.of(Integer.parseInt(matcher.group(1)), month) : null;
+    }
+
+    /**
+     * Whether all of a partition's month lies before the retained months
+     */
+    static boolean isExpired(YearMonth partition, YearMonth current, int retentionMonths) {
+        return partition.isBefore(current.minusMonths(retentionMonths));
+    }
+
+    /**
+     * A snapshot round: it covers the movements of transactions below txidHorizon
+     */
+    record Round(LocalDateTime takenAt, long txidHorizon) {
+    }
+}
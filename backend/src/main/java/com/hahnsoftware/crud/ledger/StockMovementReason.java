@@ -0,0 +1,13 @@
+package com.hahnsoftware.crud.ledger;
+
+/**
+ * What caused a stock movement
+ */
+public enum StockMovementReason {
+    CREATED,
+    UPDATED,
+    DELETED,
+    IMPORTED,
+    /** Correction by a snapshot round, where the ledger disagreed with the product */
+    RECONCILED
+}
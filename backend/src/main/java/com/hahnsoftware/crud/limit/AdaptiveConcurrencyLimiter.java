@@ -0,0 +1,149 @@
+package com.hahnsoftware.crud.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limiter whose limit follows observed latency (gradient algorithm).
+ *
+ * A long-term average of request latency is compared with the recent latency.
+ * While they match, the limit grows by a queue allowance of sqrt(limit); when recent
+ * latency rises above the long-term average (requests are queueing somewhere, e.g.
+ * on database connections) the limit shrinks proportionally. Failed requests shrink
+ * it multiplicatively. The limit only grows while the limiter is actually
+ * saturated, so an idle service does not drift to the maximum.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double DROP_BACKOFF = 0.9;
+    private static final int LONG_WINDOW = 600;
+    private static final int WARMUP_SAMPLES = 10;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final int sampleWindow;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile int limit;
+
+    // Guarded by this
+    private double estimatedLimit;
+    private double longRttNanos;
+    private long longSamples;
+    private long windowRttSum;
+    private int windowCount;
+    private int windowMaxInFlight;
+    private boolean windowDropped;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit) {
+        this(name, initialLimit, minLimit, maxLimit, 1.5, 0.2, 10);
+    }
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      double tolerance, double smoothing, int sampleWindow) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.sampleWindow = sampleWindow;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    /**
+     * Try to reserve a slot. Returns the in-flight count at acquisition (to be passed
+     * to {@link #release}), or -1 if the limit is reached.
+     */
+    public int tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return current + 1;
+            }
+        }
+    }
+
+    /**
+     * Release a slot and record the request outcome
+     *
+     * @param inFlightAtStart value returned by {@link #tryAcquire}
+     * @param rttNanos        request latency
+     * @param dropped         whether the request failed in a way that indicates overload
+     */
+    public void release(int inFlightAtStart, long rttNanos, boolean dropped) {
+        inFlight.decrementAndGet();
+        onSample(inFlightAtStart, rttNanos, dropped);
+    }
+
+    private synchronized void onSample(int inFlightAtStart, long rttNanos, boolean dropped) {
+        windowRttSum += rttNanos;
+        windowCount++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtStart);
+        windowDropped |= dropped;
+        if (windowCount < sampleWindow) {
+            return;
+        }
+
+        double shortRtt = (double) windowRttSum / windowCount;
+        int maxInFlight = windowMaxInFlight;
+        boolean anyDropped = windowDropped;
+        windowRttSum = 0;
+        windowCount = 0;
+        windowMaxInFlight = 0;
+        windowDropped = false;
+
+        updateLongRtt(shortRtt);
+
+        double newLimit;
+        if (anyDropped) {
+            newLimit = estimatedLimit * DROP_BACKOFF;
+        } else if (maxInFlight < estimatedLimit / 2) {
+            // Not saturated: latency says nothing about the limit
+            return;
+        } else {
+            double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * longRttNanos / shortRtt));
+            double queueSize = Math.sqrt(estimatedLimit);
+            newLimit = estimatedLimit * gradient + queueSize;
+            newLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        }
+
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+
+    private void updateLongRtt(double shortRtt) {
+        longSamples++;
+        if (longSamples <= WARMUP_SAMPLES) {
+            longRttNanos += (shortRtt - longRttNanos) / longSamples;
+            return;
+        }
+        double factor = 2.0 / (LONG_WINDOW + 1);
+        longRttNanos = longRttNanos * (1 - factor) + shortRtt * factor;
+        // Let the baseline recover quickly once a latency spike is over
+        if (longRttNanos / shortRtt > 2) {
+            longRttNanos *= 0.95;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,140 @@
+package com.hahnsoftware.crud.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsConfigurationSource;
+import org.springframework.web.cors.CorsProcessor;
+import org.springframework.web.cors.DefaultCorsProcessor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Load shedding for the REST API.
+ *
+ * Reads and writes under /api have separate adaptive limits. Requests over the
+ * limit are rejected immediately with 503 and Retry-After instead of queueing on
+ * Tomcat threads. Health checks (/actuator/health) and CORS preflights are never
+ * limited, so an overloaded instance is not restarted for being slow. Bulk imports
+ * stream for minutes and have their own concurrency cap, so they are not limited here
+ * and do not distort the measured latencies. Rejections happen before the CORS handling
+ * of Spring MVC, so they add the CORS headers themselves; otherwise browsers would only
+ * see a CORS error instead of the 503.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "products.concurrency-limit.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final String IMPORT_PATH = "/api/products/import";
+    private static final String LOOKUP_PATH = "/api/products/lookup";
+    private static final String REJECTED_BODY =
+            "{\"success\":false,\"message\":\"Service is overloaded, please retry later\"}";
+
+    private final AdaptiveConcurrencyLimiter readLimiter;
+    private final AdaptiveConcurrencyLimiter writeLimiter;
+    private final String retryAfterSeconds;
+    private final Counter readRejections;
+    private final Counter writeRejections;
+    private final CorsConfigurationSource corsConfigurationSource;
+    private final CorsProcessor corsProcessor = new DefaultCorsProcessor();
+
+    @Autowired
+    public ConcurrencyLimitFilter(MeterRegistry meterRegistry,
+                                  CorsConfigurationSource corsConfigurationSource,
+                                  @Value("${products.concurrency-limit.read.initial:20}") int readInitial,
+                                  @Value("${products.concurrency-limit.read.min:4}") int readMin,
+                                  @Value("${products.concurrency-limit.read.max:150}") int readMax,
+                                  @Value("${products.concurrency-limit.write.initial:10}") int writeInitial,
+                                  @Value("${products.concurrency-limit.write.min:2}") int writeMin,
+                                  @Value("${products.concurrency-limit.write.max:50}") int writeMax,
+                                  @Value("${products.concurrency-limit.retry-after-seconds:1}") int retryAfterSeconds) {
+        this.readLimiter = new AdaptiveConcurrencyLimiter("read", readInitial, readMin, readMax);
+        this.writeLimiter = new AdaptiveConcurrencyLimiter("write", writeInitial, writeMin, writeMax);
+        this.retryAfterSeconds = String.valueOf(retryAfterSeconds);
+        this.corsConfigurationSource = corsConfigurationSource;
+        this.readRejections = registerMeters(meterRegistry, readLimiter);
+        this.writeRejections = registerMeters(meterRegistry, writeLimiter);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return !path.startsWith("/api/") || "OPTIONS".equals(request.getMethod())
+                || ("POST".equals(request.getMethod()) && path.equals(IMPORT_PATH));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean read = isRead(request);
+        AdaptiveConcurrencyLimiter limiter = read ? readLimiter : writeLimiter;
+
+        int inFlightAtStart = limiter.tryAcquire();
+        if (inFlightAtStart < 0) {
+            (read ? readRejections : writeRejections).increment();
+            reject(request, response);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            filterChain.doFilter(request, response);
+            dropped = response.getStatus() >= HttpStatus.INTERNAL_SERVER_ERROR.value();
+        } finally {
+            limiter.release(inFlightAtStart, System.nanoTime() - start, dropped);
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        CorsConfiguration corsConfiguration = corsConfigurationSource.getCorsConfiguration(request);
+        if (corsConfiguration != null) {
+            CorsConfiguration rejection = new CorsConfiguration(corsConfiguration);
+            rejection.addExposedHeader(HttpHeaders.RETRY_AFTER);
+            if (!corsProcessor.processRequest(rejection, request, response)) {
+                // Origin not allowed: the processor already answered 403
+                return;
+            }
+        }
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write(REJECTED_BODY);
+    }
+
+    private static boolean isRead(HttpServletRequest request) {
+        String method = request.getMethod();
+        // A lookup is a read sent as POST for its id list
+        return "GET".equals(method) || "HEAD".equals(method)
+                || ("POST".equals(method)
+                        && request.getRequestURI().substring(request.getContextPath().length()).equals(LOOKUP_PATH));
+    }
+
+    private static Counter registerMeters(MeterRegistry meterRegistry, AdaptiveConcurrencyLimiter limiter) {
+        Gauge.builder("products.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("class", limiter.getName())
+                .register(meterRegistry);
+        Gauge.builder("products.concurrency.in_flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("class", limiter.getName())
+                .register(meterRegistry);
+        return Counter.builder("products.concurrency.rejected")
+                .tag("class", limiter.getName())
+                .register(meterRegistry);
+    }
+}
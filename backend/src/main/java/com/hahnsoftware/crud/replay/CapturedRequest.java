@@ -0,0 +1,41 @@
+package com.hahnsoftware.crud.replay;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * One captured product API request, as stored in a capture file: a tab-separated line of
+ * offset (ms since capture start), method, path with query, response status, server
+ * duration (µs) and body (URL-safe Base64, "-" when empty).
+ *
+ * Nothing that identifies the client is kept: no headers, cookies, addresses or wall-clock times,
+ * and free text is masked by {@link TrafficCaptureFilter}.
+ */
+public record CapturedRequest(long offsetMillis, String method, String path, int status, long durationMicros,
+                              String body) {
+
+    private static final String NO_BODY = "-";
+
+    public String encode() {
+        String encodedBody = body == null || body.isEmpty()
+                ? NO_BODY
+                : Base64.getUrlEncoder().withoutPadding().encodeToString(body.getBytes(StandardCharsets.UTF_8));
+        return offsetMillis + "\t" + method + "\t" + path + "\t" + status + "\t" + durationMicros + "\t" + encodedBody;
+    }
+
+    public static CapturedRequest parse(String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 6) {
+            throw new IllegalArgumentException("Expected 6 fields in capture line: " + line);
+        }
+        try {
+            String body = fields[5].equals(NO_BODY)
+                    ? null
+                    : new String(Base64.getUrlDecoder().decode(fields[5]), StandardCharsets.UTF_8);
+            return new CapturedRequest(Long.parseLong(fields[0]), fields[1], fields[2],
+                    Integer.parseInt(fields[3]), Long.parseLong(fields[4]), body);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed capture line: " + line, e);
+        }
+    }
+}
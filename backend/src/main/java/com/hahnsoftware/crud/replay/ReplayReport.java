@@ -0,0 +1,44 @@
+package com.hahnsoftware.crud.replay;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Outcome of a replay: request counts, throughput and client-side latency percentiles
+ */
+public record ReplayReport(long requests, long errors, Duration elapsed,
+                           long p50Micros, long p90Micros, long p99Micros, long maxMicros) {
+
+    /**
+     * Summarize latencies in nanoseconds; the array is sorted in place
+     */
+    static ReplayReport of(long[] latencyNanos, long errors, Duration elapsed) {
+        Arrays.sort(latencyNanos);
+        return new ReplayReport(latencyNanos.length, errors, elapsed,
+                percentileMicros(latencyNanos, 0.50), percentileMicros(latencyNanos, 0.90),
+                percentileMicros(latencyNanos, 0.99),
+                latencyNanos.length == 0 ? 0 : latencyNanos[latencyNanos.length - 1] / 1_000);
+    }
+
+    public double throughput() {
+        return elapsed.isZero() ? 0 : requests * 1_000_000_000.0 / elapsed.toNanos();
+    }
+
+    public String format() {
+        return String.format(Locale.ROOT, "%d requests (%d errors) in %.1f s: %.1f req/s, p50 %.2f ms, p90 %.2f ms, p99 %.2f ms, max %.2f ms",
+                requests, errors, elapsed.toMillis() / 1000.0, throughput(),
+                p50Micros / 1000.0, p90Micros / 1000.0, p99Micros / 1000.0, maxMicros / 1000.0);
+    }
+
+    /**
+     * Nearest-rank percentile of sorted latencies
+     */
+    static long percentileMicros(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile * sortedNanos.length);
+        return sortedNanos[Math.max(0, rank - 1)] / 1_000;
+    }
+}
@@ -0,0 +1,37 @@
+package com.hahnsoftware.crud.replay;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads capture files written by {@link TrafficCaptureWriter}: gzip-compressed lines of
+ * {@link CapturedRequest}, possibly several gzip members when capture was restarted.
+ */
+public final class TrafficCaptureFile {
+
+    static final String HEADER = "# crud-backend traffic capture v1";
+
+    private TrafficCaptureFile() {
+    }
+
+    public static List<CapturedRequest> read(Path file) throws IOException {
+        List<CapturedRequest> requests = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    requests.add(CapturedRequest.parse(line));
+                }
+            }
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,156 @@
+package com.hahnsoftware.crud.replay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples product API reads into a capture file for warm-up and benchmark replay.
+ *
+ * Only requests that are safe to replay against a live instance are captured: GETs
+ * and multi-gets (POST /api/products/lookup). Writes and imports are never captured.
+ * Requests sent by a replay (with the {@value TrafficReplayer#REPLAY_HEADER} header) are not captured either.
+ *
+ * Free text that users type is not stored. Query parameters other than ids, numbers and
+ * sort options (search terms, suggestion prefixes, category filters) and category path
+ * segments are masked: letters become x and digits 0, so the length and word structure
+ * survive but not the text. Lookup bodies are reduced to their numeric ids. Replays
+ * therefore exercise search and suggestion with placeholder terms.
+ */
+public class TrafficCaptureFilter extends OncePerRequestFilter {
+
+    static final String CAPTURED_PATH = "/api/products";
+    static final String LOOKUP_PATH = "/api/products/lookup";
+    private static final String IMPORT_PATH = "/api/products/import";
+    private static final String CATEGORY_PATH = "/api/products/category/";
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    /** Query parameters that hold ids, numbers, times or sort options and are kept verbatim */
+    private static final Set<String> STRUCTURAL_PARAMETERS = Set.of("ids", "threshold", "limit", "offset",
+            "maxQuantity", "sort", "direction", "lowStockThreshold", "recentLimit", "at", "from", "to");
+
+    private final TrafficCaptureWriter writer;
+    private final ObjectMapper objectMapper;
+    private final double sampleRate;
+
+    public TrafficCaptureFilter(TrafficCaptureWriter writer, ObjectMapper objectMapper, double sampleRate) {
+        this.writer = writer;
+        this.objectMapper = objectMapper;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return sampleRate <= 0
+                || !writer.isCapturing()
+                || request.getHeader(TrafficReplayer.REPLAY_HEADER) != null
+                || !path.startsWith(CAPTURED_PATH)
+                || path.startsWith(IMPORT_PATH)
+                || !isReplayable(request.getMethod(), path);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        boolean withBody = "POST".equals(request.getMethod());
+        HttpServletRequest captured = withBody ? new ContentCachingRequestWrapper(request, MAX_BODY_BYTES) : request;
+        long offsetMillis = writer.offsetMillis();
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(captured, response);
+        } finally {
+            String path = redact(request.getRequestURI().substring(request.getContextPath().length()),
+                    request.getQueryString());
+            String body = withBody
+                    ? lookupIds(objectMapper, ((ContentCachingRequestWrapper) captured).getContentAsByteArray())
+                    : null;
+            writer.capture(new CapturedRequest(offsetMillis, request.getMethod(), path, response.getStatus(),
+                    TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), body));
+        }
+    }
+
+    /**
+     * Path and query with free text masked
+     */
+    static String redact(String path, String query) {
+        if (path.startsWith(CATEGORY_PATH) && path.length() > CATEGORY_PATH.length()) {
+            String category = URLDecoder.decode(path.substring(CATEGORY_PATH.length()), StandardCharsets.UTF_8);
+            path = CATEGORY_PATH + URLEncoder.encode(mask(category), StandardCharsets.UTF_8).replace("+", "%20");
+        }
+        if (query == null || query.isEmpty()) {
+            return path;
+        }
+        StringJoiner parameters = new StringJoiner("&", path + "?", "");
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals < 0 || STRUCTURAL_PARAMETERS.contains(parameter.substring(0, equals))) {
+                parameters.add(parameter);
+            } else {
+                String value = URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8);
+                parameters.add(parameter.substring(0, equals + 1) + URLEncoder.encode(mask(value), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters.toString();
+    }
+
+    /**
+     * The ids of a lookup body as {"ids":[...]}, dropping anything else; an empty object if there are none
+     */
+    static String lookupIds(ObjectMapper objectMapper, byte[] body) {
+        ObjectNode normalized = objectMapper.createObjectNode();
+        try {
+            JsonNode ids = objectMapper.readTree(body).path("ids");
+            if (ids.isArray()) {
+                ArrayNode numericIds = normalized.putArray("ids");
+                ids.forEach(id -> {
+                    if (id.isIntegralNumber()) {
+                        numericIds.add(id);
+                    }
+                });
+            }
+        } catch (IOException e) {
+            // Unreadable body: replayed as an empty lookup, which is rejected the same way
+        }
+        return normalized.toString();
+    }
+
+    private static String mask(String text) {
+        StringBuilder masked = new StringBuilder(text.length());
+        text.codePoints().forEach(c -> masked.append(Character.isLetter(c) ? 'x'
+                : Character.isDigit(c) ? '0'
+                : Character.isWhitespace(c) ? ' '
+                : '-'));
+        return masked.toString();
+    }
+
+    /**
+     * Whether a request only reads, so replaying it cannot change data
+     */
+    static boolean isReplayable(String method, String path) {
+        int query = path.indexOf('?');
+        String plainPath = query < 0 ? path : path.substring(0, query);
+        return "GET".equals(method) || ("POST".equals(method) && plainPath.equals(LOOKUP_PATH));
+    }
+}
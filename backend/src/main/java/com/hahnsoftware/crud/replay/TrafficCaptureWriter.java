@@ -0,0 +1,122 @@
+package com.hahnsoftware.crud.replay;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Appends captured requests to a gzip-compressed capture file from a background thread.
+ *
+ * Requests are only queued on the request path; when the queue is full they are
+ * skipped. The file is flushed every second so it can be copied while capture runs.
+ * Capture stops once the uncompressed size reaches the configured limit.
+ */
+public class TrafficCaptureWriter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(TrafficCaptureWriter.class);
+    private static final long FLUSH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Path file;
+    private final long maxBytes;
+    private final long startNanos = System.nanoTime();
+    private final BlockingQueue<CapturedRequest> queue;
+    private final AtomicLong skipped = new AtomicLong();
+    private final Thread writer;
+
+    private volatile boolean capturing = true;
+
+    public TrafficCaptureWriter(Path file, long maxBytes, int queueCapacity) {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.writer = new Thread(this::run, "traffic-capture-writer");
+        this.writer.setDaemon(true);
+    }
+
+    public void start() {
+        writer.start();
+        log.info("Capturing sampled product API traffic to {}", file.toAbsolutePath());
+    }
+
+    /**
+     * Whether requests are still being captured
+     */
+    public boolean isCapturing() {
+        return capturing;
+    }
+
+    /**
+     * Milliseconds since capture started, the offset of a request starting now
+     */
+    public long offsetMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    public void capture(CapturedRequest request) {
+        if (capturing && !queue.offer(request)) {
+            skipped.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        capturing = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void run() {
+        try (OutputStream output = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+             Writer lines = new OutputStreamWriter(new GZIPOutputStream(output, true), StandardCharsets.UTF_8)) {
+            lines.write(TrafficCaptureFile.HEADER + "\n");
+            long written = 0;
+            long lastFlush = System.nanoTime();
+            boolean interrupted = false;
+            while (capturing || !queue.isEmpty()) {
+                CapturedRequest request = null;
+                if (!interrupted) {
+                    try {
+                        request = queue.poll(FLUSH_NANOS, TimeUnit.NANOSECONDS);
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                } else {
+                    request = queue.poll();
+                }
+                if (request != null) {
+                    String line = request.encode() + "\n";
+                    lines.write(line);
+                    written += line.length();
+                    if (written >= maxBytes) {
+                        capturing = false;
+                        queue.clear();
+                        log.info("Traffic capture reached {} bytes, stopped", maxBytes);
+                    }
+                }
+                if (System.nanoTime() - lastFlush >= FLUSH_NANOS) {
+                    lines.flush();
+                    lastFlush = System.nanoTime();
+                }
+            }
+        } catch (IOException e) {
+            capturing = false;
+            log.warn("Traffic capture to {} failed", file, e);
+        }
+        if (skipped.get() > 0) {
+            log.info("Traffic capture skipped {} requests while the writer was behind", skipped.get());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.hahnsoftware.crud.replay;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command-line replay of a capture file against one or two running instances,
+ * e.g. to compare two builds locally (see scripts/replay-compare.sh):
+ *
+ * <pre>
+ * TrafficReplayTool --file traffic-capture.tsv.gz --baseline http://localhost:8080
+ *                   [--candidate http://localhost:8081] [--concurrency 8]
+ *                   [--warm-up-seconds 30] [--duration-seconds 60] [--pace 1]
+ * </pre>
+ *
+ * Each instance is first warmed up with the same traffic, unmeasured, then measured
+ * for the given duration; instances are replayed one after the other so they do not
+ * compete for the machine. Without --pace, the measured run is closed loop and reports
+ * peak throughput; with it, requests are sent at their captured offsets sped up by the
+ * given factor, at most --concurrency awaiting a response, and latencies include any
+ * time a request spent waiting to be sent. Only replay instances whose data may be read freely:
+ * capture files contain reads only.
+ */
+public final class TrafficReplayTool {
+
+    private static final double CLOSED_LOOP = 0;
+
+    private TrafficReplayTool() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options = parseOptions(args);
+        if (options == null || !options.containsKey("file") || !options.containsKey("baseline")) {
+            System.err.println("Usage: TrafficReplayTool --file <capture> --baseline <url> [--candidate <url>] "
+                    + "[--concurrency n] [--warm-up-seconds s] [--duration-seconds s] [--pace speed]");
+            System.exit(2);
+            return;
+        }
+        List<CapturedRequest> requests = TrafficCaptureFile.read(Path.of(options.get("file")));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "8"));
+        Duration warmUp = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warm-up-seconds", "30")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration-seconds", "60")));
+        double pace = options.containsKey("pace") ? Double.parseDouble(options.get("pace")) : CLOSED_LOOP;
+        System.out.printf(Locale.ROOT, "Replaying %d captured requests, %d concurrent, %d s warm-up, %d s measured, %s%n",
+                requests.size(), concurrency, warmUp.toSeconds(), duration.toSeconds(),
+                pace == CLOSED_LOOP ? "closed loop" : String.format(Locale.ROOT, "paced at %.2fx", pace));
+
+        ReplayReport baseline = run("baseline", options.get("baseline"), requests, concurrency, warmUp, duration,
+                pace);
+        if (options.containsKey("candidate")) {
+            ReplayReport candidate = run("candidate", options.get("candidate"), requests, concurrency, warmUp,
+                    duration, pace);
+            System.out.println();
+            System.out.println(compare(baseline, candidate));
+        }
+    }
+
+    private static ReplayReport run(String name, String baseUrl, List<CapturedRequest> requests, int concurrency,
+                                    Duration warmUp, Duration duration, double pace) throws InterruptedException {
+        TrafficReplayer replayer = new TrafficReplayer(baseUrl, "benchmark");
+        if (!warmUp.isZero()) {
+            System.out.printf(Locale.ROOT, "%s warm-up: %s%n", name,
+                    replayer.replay(requests, concurrency, warmUp, 0).format());
+        }
+        ReplayReport report = pace == CLOSED_LOOP
+                ? replayer.replay(requests, concurrency, duration, 0)
+                : replayer.replayPaced(requests, pace, concurrency, duration, 0);
+        System.out.printf(Locale.ROOT, "%s: %s%n", name, report.format());
+        return report;
+    }
+
+    /**
+     * Side-by-side table of two reports with the candidate/baseline ratio
+     */
+    static String compare(ReplayReport baseline, ReplayReport candidate) {
+        StringBuilder table = new StringBuilder(String.format(Locale.ROOT, "%-12s %12s %12s %8s%n",
+                "metric", "baseline", "candidate", "ratio"));
+        row(table, "req/s", baseline.throughput(), candidate.throughput());
+        row(table, "p50 ms", baseline.p50Micros() / 1000.0, candidate.p50Micros() / 1000.0);
+        row(table, "p90 ms", baseline.p90Micros() / 1000.0, candidate.p90Micros() / 1000.0);
+        row(table, "p99 ms", baseline.p99Micros() / 1000.0, candidate.p99Micros() / 1000.0);
+        row(table, "max ms", baseline.maxMicros() / 1000.0, candidate.maxMicros() / 1000.0);
+        row(table, "errors", baseline.errors(), candidate.errors());
+        return table.toString();
+    }
+
+    private static void row(StringBuilder table, String metric, double baseline, double candidate) {
+        String ratio = baseline == 0 ? "-" : String.format(Locale.ROOT, "%.2f", candidate / baseline);
+        table.append(String.format(Locale.ROOT, "%-12s %12.2f %12.2f %8s%n", metric, baseline, candidate, ratio));
+    }
+
+    /**
+     * --name value pairs, or null when malformed
+     */
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || i + 1 >= args.length) {
+                return null;
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+}
@@ -0,0 +1,234 @@
+package com.hahnsoftware.crud.replay;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays captured requests against one base URL, in one of two modes:
+ *
+ * - {@link #replay}: a fixed number of workers send the captured requests in order,
+ *   each as soon as its previous response arrived (closed loop). This drives the
+ *   instance as hard as it goes, which suits warm-up and throughput comparisons, but a
+ *   slow response also delays the requests behind it, so latencies come out too low.
+ * - {@link #replayPaced}: requests are sent at their captured offsets, scaled by a
+ *   speed factor, whether or not earlier responses arrived (open loop). Latency is
+ *   measured from the time a request was due, so stalls count fully.
+ *
+ * Both wrap around the capture until the duration has passed or the request limit is
+ * reached. Server errors and failed connections count as errors; 4xx responses do
+ * not, as captured ids may no longer exist.
+ */
+public class TrafficReplayer {
+
+    /** Marks replayed requests, which are never captured nor counted as product selections */
+    public static final String REPLAY_HEADER = "X-Traffic-Replay";
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final String tag;
+
+    /**
+     * @param tag value of the {@value #REPLAY_HEADER} header, e.g. what the replay is for
+     */
+    public TrafficReplayer(String baseUrl, String tag) {
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.tag = tag;
+    }
+
+    /**
+     * @param maxRequests stop after this many requests, 0 for no limit
+     */
+    public ReplayReport replay(List<CapturedRequest> requests, int concurrency, Duration duration, long maxRequests)
+            throws InterruptedException {
+        if (requests.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to replay");
+        }
+        List<HttpRequest> httpRequests = requests.stream().map(this::toHttpRequest).toList();
+        AtomicLong next = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        long limit = maxRequests > 0 ? maxRequests : Long.MAX_VALUE;
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "traffic-replay-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Future<long[]>> results = new ArrayList<>(concurrency);
+        try {
+            for (int i = 0; i < concurrency; i++) {
+                results.add(workers.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    long index;
+                    while (System.nanoTime() < deadline && (index = next.getAndIncrement()) < limit) {
+                        HttpRequest request = httpRequests.get((int) (index % httpRequests.size()));
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 500) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = System.nanoTime() - sent;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+
+            List<long[]> latencies = new ArrayList<>(concurrency);
+            int total = 0;
+            for (Future<long[]> result : results) {
+                long[] workerLatencies = getResult(result);
+                latencies.add(workerLatencies);
+                total += workerLatencies.length;
+            }
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+            long[] merged = new long[total];
+            int offset = 0;
+            for (long[] workerLatencies : latencies) {
+                System.arraycopy(workerLatencies, 0, merged, offset, workerLatencies.length);
+                offset += workerLatencies.length;
+            }
+            return ReplayReport.of(merged, errors.get(), elapsed);
+        } finally {
+            workers.shutdownNow();
+            workers.awaitTermination(REQUEST_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Open-loop replay at the captured pace, divided by speed (2 sends twice as fast)
+     *
+     * @param maxInFlight requests awaiting a response at most; when reached, sending waits,
+     *                    but latency is still measured from the time each request was due
+     * @param maxRequests stop after this many requests, 0 for no limit
+     */
+    public ReplayReport replayPaced(List<CapturedRequest> requests, double speed, int maxInFlight,
+                                    Duration duration, long maxRequests) throws InterruptedException {
+        if (requests.isEmpty()) {
+            throw new IllegalArgumentException("Nothing to replay");
+        }
+        if (speed <= 0) {
+            throw new IllegalArgumentException("Speed must be positive");
+        }
+        // Lines are written as responses complete, offsets are taken on arrival: send by offset
+        List<CapturedRequest> ordered = requests.stream()
+                .sorted(Comparator.comparingLong(CapturedRequest::offsetMillis))
+                .toList();
+        List<HttpRequest> httpRequests = ordered.stream().map(this::toHttpRequest).toList();
+        long first = ordered.get(0).offsetMillis();
+        long[] dueNanos = new long[ordered.size()];
+        for (int i = 0; i < dueNanos.length; i++) {
+            dueNanos[i] = (long) (TimeUnit.MILLISECONDS.toNanos(ordered.get(i).offsetMillis() - first) / speed);
+        }
+        // One pass lasts the captured span plus one average gap, so wrapping keeps the rate
+        long span = dueNanos[dueNanos.length - 1];
+        long period = span + Math.max(TimeUnit.MILLISECONDS.toNanos(1), span / Math.max(1, dueNanos.length - 1));
+
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        LatencyRecorder latencies = new LatencyRecorder();
+        AtomicLong errors = new AtomicLong();
+        long limit = maxRequests > 0 ? maxRequests : Long.MAX_VALUE;
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        for (long index = 0; index < limit; index++) {
+            int position = (int) (index % dueNanos.length);
+            long due = start + (index / dueNanos.length) * period + dueNanos[position];
+            if (due >= deadline) {
+                break;
+            }
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+            inFlight.acquire();
+            client.sendAsync(httpRequests.get(position), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        latencies.add(System.nanoTime() - due);
+                        if (failure != null || response.statusCode() >= 500) {
+                            errors.incrementAndGet();
+                        }
+                        inFlight.release();
+                    });
+        }
+        // Requests still awaiting a response are measured once it arrives or times out
+        if (!inFlight.tryAcquire(maxInFlight, REQUEST_TIMEOUT.toSeconds() + 5, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Replayed requests did not complete in time");
+        }
+        return ReplayReport.of(latencies.toArray(), errors.get(), Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private HttpRequest toHttpRequest(CapturedRequest captured) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + captured.path()))
+                .timeout(REQUEST_TIMEOUT)
+                .header(REPLAY_HEADER, tag);
+        if (captured.body() != null) {
+            builder.header("Content-Type", "application/json")
+                    .method(captured.method(), HttpRequest.BodyPublishers.ofString(captured.body()));
+        } else {
+            builder.method(captured.method(), HttpRequest.BodyPublishers.noBody());
+        }
+        return builder.build();
+    }
+
+    /**
+     * Latencies recorded by the HTTP client's completion threads
+     */
+    private static final class LatencyRecorder {
+
+        private long[] latencies = new long[1024];
+        private int count;
+
+        synchronized void add(long latencyNanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+        }
+
+        synchronized long[] toArray() {
+            return Arrays.copyOf(latencies, count);
+        }
+    }
+
+    private static long[] getResult(Future<long[]> result) throws InterruptedException {
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Replay worker failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.hahnsoftware.crud.replay;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.env.Environment;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Replays captured traffic against this instance before it reports ready.
+ *
+ * Application runners run after the web server has started but before the readiness
+ * state changes to ACCEPTING_TRAFFIC, so the JIT compiles the hot paths (and pools
+ * and caches fill) before the load balancer sends real requests. A missing capture
+ * file or a failing warm-up never prevents startup.
+ */
+public class WarmUpRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmUpRunner.class);
+
+    private final Environment environment;
+    private final Path file;
+    private final int concurrency;
+    private final Duration duration;
+    private final long maxRequests;
+
+    public WarmUpRunner(Environment environment, Path file, int concurrency, Duration duration, long maxRequests) {
+        this.environment = environment;
+        this.file = file;
+        this.concurrency = concurrency;
+        this.duration = duration;
+        this.maxRequests = maxRequests;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String port = environment.getProperty("local.server.port");
+        if (port == null) {
+            log.warn("Warm-up skipped: no local web server");
+            return;
+        }
+        if (!Files.isReadable(file)) {
+            log.warn("Warm-up skipped: capture file {} not found", file.toAbsolutePath());
+            return;
+        }
+        try {
+            List<CapturedRequest> requests = TrafficCaptureFile.read(file);
+            ReplayReport report = new TrafficReplayer("http://localhost:" + port
+                    + environment.getProperty("server.servlet.context-path", ""), "warm-up")
+                    .replay(requests, concurrency, duration, maxRequests);
+            log.info("Warm-up finished: {}", report.format());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Warm-up failed", e);
+        }
+    }
+}
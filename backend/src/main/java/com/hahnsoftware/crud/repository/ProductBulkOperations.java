@@ -0,0 +1,25 @@
+package com.hahnsoftware.crud.repository;
+
+import com.hahnsoftware.crud.entity.Product;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Set-based operations that bypass per-entity persistence
+ */
+public interface ProductBulkOperations {
+
+    /**
+     * Insert all products with a single multi-row INSERT in the current transaction.
+     * Generated ids and timestamps are set on the given entities.
+     * Names must be unique within the list.
+     */
+    void insertAll(List<Product> products);
+
+    /**
+     * Find the products with the given ids in one query (WHERE id = ANY(?)), in no
+     * particular order. Ids that do not exist are missing from the result.
+     */
+    List<Product> findAllByIdAny(Collection<Long> ids);
+}
@@ -0,0 +1,95 @@
+package com.hahnsoftware.crud.repository;
+
+import com.hahnsoftware.crud.entity.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ProductBulkOperationsImpl implements ProductBulkOperations {
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO products (name, description, price, quantity, category, created_at, updated_at) VALUES ";
+    private static final String ROW_PLACEHOLDERS = "(?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_BY_IDS =
+            "SELECT id, name, description, price, quantity, category, created_at, updated_at FROM products "
+                    + "WHERE id = ANY(?)";
+
+    private static final RowMapper<Product> PRODUCT_ROW_MAPPER = (rs, rowNum) -> {
+        Product product = new Product(rs.getString("name"), rs.getString("description"), rs.getBigDecimal("price"),
+                rs.getInt("quantity"), rs.getString("category"));
+        product.setId(rs.getLong("id"));
+        product.setCreatedAt(rs.getObject("created_at", LocalDateTime.class));
+        product.setUpdatedAt(rs.getObject("updated_at", LocalDateTime.class));
+        return product;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public ProductBulkOperationsImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(List<Product> products) {
+        if (products.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+        List<Object> args = new ArrayList<>(products.size() * 7);
+        Map<String, Product> byName = new HashMap<>();
+        for (Product product : products) {
+            if (byName.put(product.getName(), product) != null) {
+                throw new IllegalArgumentException("Duplicate product name in batch: " + product.getName());
+            }
+            if (args.size() > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDERS);
+            args.add(product.getName());
+            args.add(product.getDescription());
+            args.add(product.getPrice());
+            args.add(product.getQuantity());
+            args.add(product.getCategory());
+            args.add(timestamp);
+            args.add(timestamp);
+        }
+        sql.append(" RETURNING id, name");
+
+        // Match generated ids by name rather than relying on RETURNING row order
+        int[] matched = {0};
+        jdbcTemplate.query(sql.toString(), rs -> {
+            Product product = byName.get(rs.getString("name"));
+            product.setId(rs.getLong("id"));
+            product.setCreatedAt(now);
+            product.setUpdatedAt(now);
+            matched[0]++;
+        }, args.toArray());
+
+        if (matched[0] != products.size()) {
+            throw new IllegalStateException("Inserted " + matched[0] + " of " + products.size() + " products");
+        }
+    }
+
+    @Override
+    public List<Product> findAllByIdAny(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // One array parameter: the same statement for any number of ids
+        return jdbcTemplate.query(SELECT_BY_IDS,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())),
+                PRODUCT_ROW_MAPPER);
+    }
+}
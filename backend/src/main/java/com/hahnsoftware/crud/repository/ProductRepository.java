@@ -1,15 +1,19 @@
 package com.hahnsoftware.crud.repository;
 
+import com.hahnsoftware.crud.dto.CategorySummaryDTO;
 import com.hahnsoftware.crud.entity.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductBulkOperations {
     
     /**
      * Find products by name containing the given string (case-insensitive)
@@ -38,10 +42,11 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     
     /**
      * Custom query to search products by name or description
+     * (UPPER, like the derived IgnoreCase queries, so both use the same trigram indexes)
      */
     @Query("SELECT p FROM Product p WHERE " +
-           "LOWER(p.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
-           "LOWER(p.description) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
+           "UPPER(p.name) LIKE UPPER(CONCAT('%', :searchTerm, '%')) OR " +
+           "UPPER(p.description) LIKE UPPER(CONCAT('%', :searchTerm, '%'))")
     List<Product> searchByNameOrDescription(@Param("searchTerm") String searchTerm);
     
     /**
@@ -54,9 +59,33 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     List<Product> findAllByOrderByCreatedAtDesc();
     
+    /**
+     * Find the most recently updated products
+     */
+    List<Product> findAllByOrderByUpdatedAtDesc(Limit limit);
+    
+    /**
+     * Count products and their stock per category, largest categories first
+     */
+    @Query("SELECT new com.hahnsoftware.crud.dto.CategorySummaryDTO(p.category, COUNT(p), COALESCE(SUM(p.quantity), 0)) " +
+           "FROM Product p GROUP BY p.category ORDER BY COUNT(p) DESC, p.category")
+    List<CategorySummaryDTO> summarizeByCategory();
+    
     /**
      * Check if a product with the given name already exists (case-insensitive)
      */
     boolean existsByNameIgnoreCase(String name);
+    
+    /**
+     * Find the names of existing products among the given upper-cased names (one round trip for a group)
+     */
+    @Query("SELECT p.name FROM Product p WHERE UPPER(p.name) IN :upperNames")
+    List<String> findNamesByUpperNameIn(@Param("upperNames") Collection<String> upperNames);
+    
+    /**
+     * Delete a product by ID in one statement (the inherited deleteById loads the entity first)
+     */
+    @Modifying
+    @Query("DELETE FROM Product p WHERE p.id = :id")
+    void deleteById(@Param("id") Long id);
 }
-
@@ -0,0 +1,37 @@
+package com.hahnsoftware.crud.service;
+
+import com.hahnsoftware.crud.dto.ProductDTO;
+
+/**
+ * Outcome of one create within a group: the created product or the error for that entry
+ */
+public class CreateResult {
+
+    private final ProductDTO product;
+    private final RuntimeException error;
+
+    private CreateResult(ProductDTO product, RuntimeException error) {
+        this.product = product;
+        this.error = error;
+    }
+
+    public static CreateResult created(ProductDTO product) {
+        return new CreateResult(product, null);
+    }
+
+    public static CreateResult failed(RuntimeException error) {
+        return new CreateResult(null, error);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    public ProductDTO getProduct() {
+        return product;
+    }
+
+    public RuntimeException getError() {
+        return error;
+    }
+}
@@ -0,0 +1,217 @@
+package com.hahnsoftware.crud.service;
+
+import com.hahnsoftware.crud.cache.ProductNearCache;
+import com.hahnsoftware.crud.dto.ProductDTO;
+import com.hahnsoftware.crud.event.ProductChangedEvent;
+import com.hahnsoftware.crud.event.ProductsImportedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Request coalescing in front of the read methods of ProductService.
+ *
+ * Identical concurrent reads share one database execution and its result, so a
+ * burst of the same search or category request costs one query per distinct key.
+ * Shared results are returned as unmodifiable lists and must be treated as read-only.
+ * Committed writes detach in-flight executions so later reads never join a query
+ * that started before the write.
+ *
+ * When the near-cache is enabled (products.near-cache.enabled), results are served
+ * from it first, and the single execution for a key fills it.
+ */
+@Service
+public class ProductReadCoalescer {
+
+    private final ProductService productService;
+    private final boolean enabled;
+    private final SingleFlight<ReadKey, Object> singleFlight = new SingleFlight<>();
+    private final MeterRegistry meterRegistry;
+    private final ProductNearCache nearCache;
+
+    @Autowired
+    public ProductReadCoalescer(ProductService productService,
+                                MeterRegistry meterRegistry,
+                                ObjectProvider<ProductNearCache> nearCache,
+                                @Value("${products.coalescing.enabled:true}") boolean enabled) {
+        this.productService = productService;
+        this.meterRegistry = meterRegistry;
+        this.nearCache = nearCache.getIfAvailable();
+        this.enabled = enabled;
+        Gauge.builder("products.coalescing.in_flight", singleFlight, SingleFlight::inFlightCount)
+                .description("Distinct product reads currently executing")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get all products
+     */
+    public List<ProductDTO> getAllProducts() {
+        return coalesceList("all", null, productService::getAllProducts);
+    }
+
+    /**
+     * Get product by ID
+     */
+    @SuppressWarnings("unchecked")
+    public Optional<ProductDTO> getProductById(Long id) {
+        return (Optional<ProductDTO>) coalesce("by_id", id, () -> productService.getProductById(id));
+    }
+
+    /**
+     * Get the products with the given ids, keyed by id; ids that do not exist are missing.
+     * Ids held by the near-cache are served from it and the rest are loaded with one
+     * query, which fills the near-cache for the next lookups.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Long, ProductDTO> getProductsByIds(Collection<Long> ids) {
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        if (nearCache == null) {
+            return productService.getProductsByIds(distinctIds);
+        }
+
+        Map<Long, ProductDTO> products = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : distinctIds) {
+            Object cached = nearCache.getProduct(id);
+            if (cached != null) {
+                ((Optional<ProductDTO>) cached).ifPresent(product -> products.put(id, product));
+            } else {
+                missing.add(id);
+            }
+        }
+        counter("products.near_cache.hits", "by_ids").increment(distinctIds.size() - missing.size());
+        counter("products.near_cache.misses", "by_ids").increment(missing.size());
+        if (missing.isEmpty()) {
+            return products;
+        }
+
+        long ticket = nearCache.beginLoad();
+        Map<Long, ProductDTO> loaded = productService.getProductsByIds(missing);
+        for (Long id : missing) {
+            ProductDTO product = loaded.get(id);
+            // Cached like a single lookup, including "not found"
+            nearCache.putProduct(id, Optional.ofNullable(product), ticket);
+            if (product != null) {
+                products.put(id, product);
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Search products by name or description
+     */
+    public List<ProductDTO> searchProducts(String searchTerm) {
+        return coalesceList("search", searchTerm, () -> productService.searchProducts(searchTerm));
+    }
+
+    /**
+     * Get products by category
+     */
+    public List<ProductDTO> getProductsByCategory(String category) {
+        return coalesceList("category", category, () -> productService.getProductsByCategory(category));
+    }
+
+    /**
+     * Get products with low stock (quantity <= threshold)
+     */
+    public List<ProductDTO> getLowStockProducts(Integer threshold) {
+        return coalesceList("low_stock", threshold, () -> productService.getLowStockProducts(threshold));
+    }
+
+    /**
+     * Stop sharing executions that started before a committed write
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        singleFlight.forgetAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        singleFlight.forgetAll();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ProductDTO> coalesceList(String operation, Object argument, Supplier<List<ProductDTO>> loader) {
+        return (List<ProductDTO>) coalesce(operation, argument, () -> Collections.unmodifiableList(loader.get()));
+    }
+
+    private Object coalesce(String operation, Object argument, Supplier<?> loader) {
+        ReadKey key = new ReadKey(operation, argument);
+        Supplier<Object> source = loader::get;
+        if (nearCache != null) {
+            Object cached = isById(operation) ? nearCache.getProduct((Long) argument) : nearCache.getList(key);
+            if (cached != null) {
+                counter("products.near_cache.hits", operation).increment();
+                return cached;
+            }
+            counter("products.near_cache.misses", operation).increment();
+            source = () -> loadIntoNearCache(key, loader);
+        }
+        if (!enabled) {
+            return source.get();
+        }
+        return singleFlight.execute(key, source, new MetricsListener(operation));
+    }
+
+    private Object loadIntoNearCache(ReadKey key, Supplier<?> loader) {
+        long ticket = nearCache.beginLoad();
+        Object value = loader.get();
+        if (isById(key.operation())) {
+            nearCache.putProduct((Long) key.argument(), value, ticket);
+        } else {
+            nearCache.putList(key, value, ticket);
+        }
+        return value;
+    }
+
+    private static boolean isById(String operation) {
+        return "by_id".equals(operation);
+    }
+
+    private Counter counter(String name, String operation) {
+        return Counter.builder(name)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private record ReadKey(String operation, Object argument) {
+    }
+
+    private class MetricsListener implements SingleFlight.Listener {
+
+        private final String operation;
+
+        MetricsListener(String operation) {
+            this.operation = operation;
+        }
+
+        @Override
+        public void onExecute() {
+            counter("products.coalescing.executions", operation).increment();
+        }
+
+        @Override
+        public void onJoin() {
+            counter("products.coalescing.joined", operation).increment();
+        }
+    }
+}
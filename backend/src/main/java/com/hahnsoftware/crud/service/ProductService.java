@@ -1,25 +1,41 @@
 package com.hahnsoftware.crud.service;
 
+import com.hahnsoftware.crud.dto.CategorySummaryDTO;
 import com.hahnsoftware.crud.dto.ProductDTO;
 import com.hahnsoftware.crud.entity.Product;
+import com.hahnsoftware.crud.event.ProductChangedEvent;
 import com.hahnsoftware.crud.repository.ProductRepository;
+import com.hahnsoftware.crud.trace.RequestTracer;
+import com.hahnsoftware.crud.trace.TracePhase;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
 @Transactional
 public class ProductService {
     
     private final ProductRepository productRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Autowired
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository, ApplicationEventPublisher eventPublisher) {
         this.productRepository = productRepository;
+        this.eventPublisher = eventPublisher;
     }
     
     /**
@@ -27,10 +43,7 @@ public class ProductService {
      */
     @Transactional(readOnly = true)
     public List<ProductDTO> getAllProducts() {
-        return productRepository.findAllByOrderByCreatedAtDesc()
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return convertToDTOs(productRepository.findAllByOrderByCreatedAtDesc());
     }
     
     /**
@@ -42,6 +55,19 @@ public class ProductService {
                 .map(this::convertToDTO);
     }
     
+    /**
+     * Get the products with the given ids in one query, keyed by id.
+     * Ids that do not exist are missing from the map.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, ProductDTO> getProductsByIds(Collection<Long> ids) {
+        Map<Long, ProductDTO> products = new HashMap<>();
+        for (ProductDTO product : convertToDTOs(productRepository.findAllByIdAny(ids))) {
+            products.put(product.getId(), product);
+        }
+        return products;
+    }
+    
     /**
      * Create a new product
      */
@@ -53,7 +79,48 @@ public class ProductService {
         
         Product product = convertToEntity(productDTO);
         Product savedProduct = productRepository.save(product);
-        return convertToDTO(savedProduct);
+        ProductDTO savedDTO = convertToDTO(savedProduct);
+        eventPublisher.publishEvent(ProductChangedEvent.created(savedDTO));
+        return savedDTO;
+    }
+    
+    /**
+     * Create a group of products in one transaction: one uniqueness check for the
+     * whole group, one multi-row insert and one commit. Entries whose name already
+     * exists, or repeats an earlier entry of the group, fail individually with the
+     * same error as {@link #createProduct}; the others are still created.
+     */
+    public List<CreateResult> createProducts(List<ProductDTO> productDTOs) {
+        Set<String> upperNames = new HashSet<>();
+        for (ProductDTO productDTO : productDTOs) {
+            upperNames.add(upperName(productDTO.getName()));
+        }
+        Set<String> taken = new HashSet<>();
+        for (String existingName : productRepository.findNamesByUpperNameIn(upperNames)) {
+            taken.add(upperName(existingName));
+        }
+        
+        List<CreateResult> results = new ArrayList<>(productDTOs.size());
+        Map<Integer, Product> toInsert = new LinkedHashMap<>();
+        for (int i = 0; i < productDTOs.size(); i++) {
+            ProductDTO productDTO = productDTOs.get(i);
+            if (!taken.add(upperName(productDTO.getName()))) {
+                results.add(CreateResult.failed(new IllegalArgumentException(
+                        "Product with name '" + productDTO.getName() + "' already exists")));
+            } else {
+                results.add(null);
+                toInsert.put(i, convertToEntity(productDTO));
+            }
+        }
+        
+        productRepository.insertAll(new ArrayList<>(toInsert.values()));
+        
+        for (Map.Entry<Integer, Product> entry : toInsert.entrySet()) {
+            ProductDTO savedDTO = convertToDTO(entry.getValue());
+            eventPublisher.publishEvent(ProductChangedEvent.created(savedDTO));
+            results.set(entry.getKey(), CreateResult.created(savedDTO));
+        }
+        return results;
     }
     
     /**
@@ -69,15 +136,21 @@ public class ProductService {
             throw new IllegalArgumentException("Product with name '" + productDTO.getName() + "' already exists");
         }
         
+        ProductDTO previous = convertToDTO(existingProduct);
+        
         // Update fields
         existingProduct.setName(productDTO.getName());
         existingProduct.setDescription(productDTO.getDescription());
         existingProduct.setPrice(productDTO.getPrice());
         existingProduct.setQuantity(productDTO.getQuantity());
         existingProduct.setCategory(productDTO.getCategory());
+        // Stamped now rather than at flush, so the published change carries its own version
+        existingProduct.setUpdatedAt(LocalDateTime.now());
         
         Product updatedProduct = productRepository.save(existingProduct);
-        return convertToDTO(updatedProduct);
+        ProductDTO updatedDTO = convertToDTO(updatedProduct);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(updatedDTO, previous));
+        return updatedDTO;
     }
     
     /**
@@ -88,6 +161,7 @@ public class ProductService {
             throw new IllegalArgumentException("Product not found with id: " + id);
         }
         productRepository.deleteById(id);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
     }
     
     /**
@@ -99,10 +173,7 @@ public class ProductService {
             return getAllProducts();
         }
         
-        return productRepository.searchByNameOrDescription(searchTerm.trim())
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return convertToDTOs(productRepository.searchByNameOrDescription(searchTerm.trim()));
     }
     
     /**
@@ -110,10 +181,7 @@ public class ProductService {
      */
     @Transactional(readOnly = true)
     public List<ProductDTO> getProductsByCategory(String category) {
-        return productRepository.findByCategoryContainingIgnoreCase(category)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return convertToDTOs(productRepository.findByCategoryContainingIgnoreCase(category));
     }
     
     /**
@@ -121,16 +189,53 @@ public class ProductService {
      */
     @Transactional(readOnly = true)
     public List<ProductDTO> getLowStockProducts(Integer threshold) {
-        return productRepository.findByQuantityLessThanEqual(threshold)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return convertToDTOs(productRepository.findByQuantityLessThanEqual(threshold));
     }
     
     /**
-     * Convert Product entity to ProductDTO
+     * Get the most recently updated products, newest change first
+     */
+    @Transactional(readOnly = true)
+    public List<ProductDTO> getRecentlyUpdatedProducts(int limit) {
+        return convertToDTOs(productRepository.findAllByOrderByUpdatedAtDesc(Limit.of(limit)));
+    }
+    
+    /**
+     * Get product count and total stock per category, largest categories first
+     */
+    @Transactional(readOnly = true)
+    public List<CategorySummaryDTO> getCategorySummaries() {
+        return productRepository.summarizeByCategory();
+    }
+    
+    private static String upperName(String name) {
+        return name.toUpperCase(Locale.ROOT);
+    }
+    
+    /**
+     * Convert Product entities to ProductDTOs, timed as one step for request traces
+     */
+    private List<ProductDTO> convertToDTOs(List<Product> products) {
+        long start = RequestTracer.start();
+        List<ProductDTO> productDTOs = new ArrayList<>(products.size());
+        for (Product product : products) {
+            productDTOs.add(toDTO(product));
+        }
+        RequestTracer.stop(TracePhase.CONVERSION, start);
+        return productDTOs;
+    }
+    
+    /**
+     * Convert Product entity to ProductDTO, timed for request traces
      */
     private ProductDTO convertToDTO(Product product) {
+        long start = RequestTracer.start();
+        ProductDTO productDTO = toDTO(product);
+        RequestTracer.stop(TracePhase.CONVERSION, start);
+        return productDTO;
+    }
+    
+    private static ProductDTO toDTO(Product product) {
         return new ProductDTO(
                 product.getId(),
                 product.getName(),
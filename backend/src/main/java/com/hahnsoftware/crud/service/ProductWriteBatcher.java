@@ -0,0 +1,214 @@
+package com.hahnsoftware.crud.service;
+
+import com.hahnsoftware.crud.dto.ProductDTO;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Group commit for single product creates.
+ *
+ * When enabled, concurrent calls to {@link #createProduct} are collected for up to
+ * a short window (or until the group is full) and written by one thread through
+ * {@link ProductService#createProducts}: one uniqueness check, one multi-row insert
+ * and one commit per group. Each caller still gets its own product or its own error,
+ * exactly as from {@link ProductService#createProduct}. If the group insert fails as
+ * a whole, its entries are retried one by one so that one bad entry cannot fail
+ * its neighbours. Callers wait at most products.write-batching.timeout-ms for their
+ * group; a timed-out create may still have been committed.
+ */
+@Service
+public class ProductWriteBatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductWriteBatcher.class);
+
+    private final ProductService productService;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final long timeoutMillis;
+    private final BlockingQueue<PendingCreate> queue = new LinkedBlockingQueue<>();
+    private final DistributionSummary batchSizes;
+    private final Thread writer;
+
+    private volatile boolean running = true;
+
+    @Autowired
+    public ProductWriteBatcher(ProductService productService,
+                               MeterRegistry meterRegistry,
+                               @Value("${products.write-batching.enabled:false}") boolean enabled,
+                               @Value("${products.write-batching.window-ms:2}") long windowMillis,
+                               @Value("${products.write-batching.max-batch-size:64}") int maxBatchSize,
+                               @Value("${products.write-batching.timeout-ms:10000}") long timeoutMillis) {
+        this.productService = productService;
+        this.enabled = enabled;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxBatchSize = maxBatchSize;
+        this.timeoutMillis = timeoutMillis;
+        this.batchSizes = DistributionSummary.builder("products.write_batching.batch_size")
+                .description("Creates committed per group")
+                .register(meterRegistry);
+        if (enabled) {
+            writer = new Thread(this::runWriter, "product-write-batcher");
+            writer.setDaemon(true);
+            writer.start();
+        } else {
+            writer = null;
+        }
+    }
+
+    /**
+     * Create a new product, possibly sharing the transaction with concurrent creates
+     */
+    public ProductDTO createProduct(ProductDTO productDTO) {
+        if (!enabled) {
+            return productService.createProduct(productDTO);
+        }
+        if (!running) {
+            throw new IllegalStateException("Write batching is shutting down");
+        }
+
+        PendingCreate pending = new PendingCreate(productDTO);
+        queue.add(pending);
+        // shutdown() may have drained the queue between the check and the add
+        if (!running && queue.remove(pending)) {
+            throw new IllegalStateException("Write batching is shutting down");
+        }
+        try {
+            return pending.result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out waiting for product creation");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for product creation");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.interrupt();
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        PendingCreate pending;
+        while ((pending = queue.poll()) != null) {
+            pending.result.completeExceptionally(new IllegalStateException("Write batching is shutting down"));
+        }
+    }
+
+    private void runWriter() {
+        List<PendingCreate> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                collect(batch);
+            } catch (InterruptedException e) {
+                failAll(batch, new IllegalStateException("Write batching is shutting down"));
+                return;
+            }
+            try {
+                write(batch);
+            } catch (Throwable e) {
+                // Keep the writer alive for later callers; fail only this group
+                log.error("Group create of {} products failed", batch.size(), e);
+                failAll(batch, new IllegalStateException("Product creation failed", e));
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Wait for the first create, then gather more until the window closes or the group is full
+     */
+    private void collect(List<PendingCreate> batch) throws InterruptedException {
+        batch.add(queue.take());
+        long deadline = System.nanoTime() + windowNanos;
+        while (batch.size() < maxBatchSize) {
+            if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                continue;
+            }
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            PendingCreate next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void write(List<PendingCreate> batch) {
+        batchSizes.record(batch.size());
+        List<ProductDTO> productDTOs = new ArrayList<>(batch.size());
+        for (PendingCreate pending : batch) {
+            productDTOs.add(pending.productDTO);
+        }
+
+        List<CreateResult> results;
+        try {
+            results = productService.createProducts(productDTOs);
+        } catch (RuntimeException e) {
+            log.debug("Group create of {} products failed, retrying individually", batch.size(), e);
+            writeIndividually(batch);
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++) {
+            CreateResult result = results.get(i);
+            if (result.isSuccess()) {
+                batch.get(i).result.complete(result.getProduct());
+            } else {
+                batch.get(i).result.completeExceptionally(result.getError());
+            }
+        }
+    }
+
+    private void writeIndividually(List<PendingCreate> batch) {
+        for (PendingCreate pending : batch) {
+            try {
+                pending.result.complete(productService.createProduct(pending.productDTO));
+            } catch (RuntimeException e) {
+                pending.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private static void failAll(List<PendingCreate> batch, RuntimeException error) {
+        for (PendingCreate pending : batch) {
+            pending.result.completeExceptionally(error);
+        }
+    }
+
+    private static class PendingCreate {
+
+        private final ProductDTO productDTO;
+        private final CompletableFuture<ProductDTO> result = new CompletableFuture<>();
+
+        PendingCreate(ProductDTO productDTO) {
+            this.productDTO = productDTO;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.hahnsoftware.crud.service;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into a single execution.
+ *
+ * The first caller for a key (the leader) runs the loader on its own thread;
+ * callers arriving while it is in flight wait for and share its result or failure.
+ * The key is released before the result is published, so a call that starts after
+ * completion always triggers a fresh execution.
+ *
+ * If the leader is interrupted, waiting callers are not failed with the leader's
+ * interruption; they retry and one of them becomes the new leader. A waiting caller
+ * that is interrupted stops waiting without affecting the shared execution.
+ */
+public class SingleFlight<K, V> {
+
+    /**
+     * Marker completing a call whose leader was interrupted
+     */
+    private static final Object ABANDONED = new Object();
+
+    private final ConcurrentMap<K, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Run the loader for the key, or join an execution already in flight
+     */
+    public V execute(K key, Supplier<V> loader) {
+        return execute(key, loader, null);
+    }
+
+    /**
+     * Run the loader for the key, or join an execution already in flight.
+     * The listener, if not null, is told whether this call led or joined.
+     */
+    @SuppressWarnings("unchecked")
+    public V execute(K key, Supplier<V> loader, Listener listener) {
+        while (true) {
+            CompletableFuture<Object> call = new CompletableFuture<>();
+            CompletableFuture<Object> existing = inFlight.putIfAbsent(key, call);
+            if (existing == null) {
+                if (listener != null) {
+                    listener.onExecute();
+                }
+                return lead(key, call, loader);
+            }
+
+            if (listener != null) {
+                listener.onJoin();
+            }
+            Object result = await(existing);
+            if (result != ABANDONED) {
+                return (V) result;
+            }
+        }
+    }
+
+    /**
+     * Detach all in-flight executions: callers arriving from now on start new
+     * executions instead of joining ones that may have read stale data.
+     */
+    public void forgetAll() {
+        inFlight.clear();
+    }
+
+    /**
+     * Number of distinct keys currently being executed
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private V lead(K key, CompletableFuture<Object> call, Supplier<V> loader) {
+        V result;
+        try {
+            result = loader.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, call);
+            if (Thread.currentThread().isInterrupted()) {
+                call.complete(ABANDONED);
+            } else {
+                call.completeExceptionally(e);
+            }
+            throw e;
+        }
+        inFlight.remove(key, call);
+        call.complete(result);
+        return result;
+    }
+
+    private static Object await(CompletableFuture<Object> call) {
+        try {
+            return call.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for a shared execution");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Callback for metrics
+     */
+    public interface Listener {
+
+        void onExecute();
+
+        void onJoin();
+    }
+}
@@ -0,0 +1,87 @@
+package com.hahnsoftware.crud.shard;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.function.BiPredicate;
+
+/**
+ * Global registry of product names (upper-cased) for uniqueness across shards.
+ *
+ * It lives on the primary database, in the product_names table. A name is reserved
+ * before the product is written to its shard and released when it is renamed or
+ * deleted. If a node dies between reserving a name and writing the product, the
+ * reservation is left behind; it is taken over by a later reservation of the same
+ * name once it is older than {@link #STALE_AFTER_SECONDS} and its product does not
+ * hold that name.
+ */
+public class ProductNameRegistry {
+
+    static final int STALE_AFTER_SECONDS = 60;
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductNameRegistry(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void createTable() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS product_names ("
+                + "upper_name VARCHAR(255) PRIMARY KEY, "
+                + "product_id BIGINT NOT NULL, "
+                + "reserved_at TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP)");
+    }
+
+    /**
+     * Reserve a name for a product.
+     *
+     * @param holdsName tells whether a product (by id) currently has the given upper-cased name
+     * @return false if the name belongs to another product
+     */
+    public boolean reserve(String upperName, long productId, BiPredicate<Long, String> holdsName) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            int inserted = jdbcTemplate.update(
+                    "INSERT INTO product_names (upper_name, product_id) VALUES (?, ?) ON CONFLICT (upper_name) DO NOTHING",
+                    upperName, productId);
+            if (inserted == 1) {
+                return true;
+            }
+
+            List<Reservation> holders = jdbcTemplate.query(
+                    "SELECT product_id, reserved_at < LOCALTIMESTAMP - make_interval(secs => ?) AS expired "
+                            + "FROM product_names WHERE upper_name = ?",
+                    (rs, rowNum) -> new Reservation(rs.getLong("product_id"), rs.getBoolean("expired")),
+                    STALE_AFTER_SECONDS, upperName);
+            if (holders.isEmpty()) {
+                // Released meanwhile: try again
+                continue;
+            }
+            Reservation holder = holders.get(0);
+            if (holder.productId() == productId) {
+                return true;
+            }
+            if (!holder.expired() || holdsName.test(holder.productId(), upperName)) {
+                return false;
+            }
+            int takenOver = jdbcTemplate.update(
+                    "UPDATE product_names SET product_id = ?, reserved_at = LOCALTIMESTAMP "
+                            + "WHERE upper_name = ? AND product_id = ?",
+                    productId, upperName, holder.productId());
+            if (takenOver == 1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Release a name, if the product still holds it
+     */
+    public void release(String upperName, long productId) {
+        jdbcTemplate.update("DELETE FROM product_names WHERE upper_name = ? AND product_id = ?", upperName, productId);
+    }
+
+    private record Reservation(long productId, boolean expired) {
+    }
+}
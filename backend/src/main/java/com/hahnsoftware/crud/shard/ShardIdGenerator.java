@@ -0,0 +1,59 @@
+package com.hahnsoftware.crud.shard;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Globally unique 64-bit product ids without a database sequence.
+ *
+ * Layout (most significant first): 41 bits of milliseconds since 2024-01-01 UTC,
+ * 10 bits of node id, 12 bits of per-millisecond sequence. Ids from one node are
+ * strictly increasing and ids from different nodes never collide, as long as every
+ * application instance has its own node id (products.sharding.node-id).
+ *
+ * If more than 4096 ids are needed within one millisecond, or the clock goes
+ * backwards, the generator keeps counting from its last timestamp instead of
+ * waiting; it catches up with the clock once the burst is over.
+ */
+public class ShardIdGenerator {
+
+    static final long EPOCH_MILLIS = 1_704_067_200_000L;
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long MAX_SEQUENCE = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+    private final LongSupplier clock;
+
+    private long lastMillis = -1;
+    private long sequence;
+
+    public ShardIdGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    public synchronized long nextId() {
+        long now = clock.getAsLong();
+        if (now > lastMillis) {
+            lastMillis = now;
+            sequence = 0;
+        } else if (sequence < MAX_SEQUENCE) {
+            sequence++;
+        } else {
+            lastMillis++;
+            sequence = 0;
+        }
+        return ((lastMillis - EPOCH_MILLIS) << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    /**
+     * Node that generated the id
+     */
+    public static int nodeOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE_ID);
+    }
+}
@@ -0,0 +1,52 @@
+package com.hahnsoftware.crud.shard;
+
+/**
+ * Maps product ids to shards with jump consistent hashing (Lamping and Veach).
+ *
+ * Routing depends only on the id and the shard count, so no lookup table is needed.
+ * When shards are added, only about 1/N of the products move, all of them to the new
+ * shards.
+ */
+public class ShardRouter {
+
+    private final int shardCount;
+
+    public ShardRouter(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shardCount = shardCount;
+    }
+
+    public int shardFor(long id) {
+        return jumpConsistentHash(mix(id), shardCount);
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    static int jumpConsistentHash(long key, int buckets) {
+        long bucket = -1;
+        long next = 0;
+        while (next < buckets) {
+            bucket = next;
+            key = key * 2862933555777941757L + 1;
+            next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+
+    /**
+     * Spread sequential ids over all bits (MurmurHash3 finalizer)
+     */
+    private static long mix(long id) {
+        long h = id;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,137 @@
+package com.hahnsoftware.crud.shard;
+
+import com.hahnsoftware.crud.dto.CategorySummaryDTO;
+import com.hahnsoftware.crud.dto.ProductDTO;
+import com.hahnsoftware.crud.event.ProductChangedEvent;
+import com.hahnsoftware.crud.repository.ProductRepository;
+import com.hahnsoftware.crud.service.CreateResult;
+import com.hahnsoftware.crud.service.ProductService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * ProductService backed by {@link ShardedProductStore} instead of the JPA repository.
+ *
+ * Replaces ProductService everywhere when products.sharding.enabled=true, with the
+ * same results, errors and change events. Each shard write commits on its own, so
+ * no transaction of the primary database is opened; change events are delivered
+ * immediately.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "products.sharding.enabled", havingValue = "true")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ShardedProductService extends ProductService {
+
+    private final ShardedProductStore store;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public ShardedProductService(ProductRepository productRepository, ApplicationEventPublisher eventPublisher,
+                                 ShardedProductStore store) {
+        super(productRepository, eventPublisher);
+        this.store = store;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    public List<ProductDTO> getAllProducts() {
+        return store.findAll();
+    }
+
+    @Override
+    public Optional<ProductDTO> getProductById(Long id) {
+        return store.findById(id);
+    }
+
+    @Override
+    public Map<Long, ProductDTO> getProductsByIds(Collection<Long> ids) {
+        Map<Long, ProductDTO> products = new HashMap<>();
+        for (ProductDTO product : store.findByIds(ids)) {
+            products.put(product.getId(), product);
+        }
+        return products;
+    }
+
+    @Override
+    public ProductDTO createProduct(ProductDTO productDTO) {
+        ProductDTO savedDTO = store.insert(productDTO);
+        eventPublisher.publishEvent(ProductChangedEvent.created(savedDTO));
+        return savedDTO;
+    }
+
+    /**
+     * Names are reserved one by one in the registry, so a group is no cheaper than
+     * its single creates: create each entry on its own.
+     */
+    @Override
+    public List<CreateResult> createProducts(List<ProductDTO> productDTOs) {
+        List<CreateResult> results = new ArrayList<>(productDTOs.size());
+        for (ProductDTO productDTO : productDTOs) {
+            try {
+                results.add(CreateResult.created(createProduct(productDTO)));
+            } catch (RuntimeException e) {
+                results.add(CreateResult.failed(e));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public ProductDTO updateProduct(Long id, ProductDTO productDTO) {
+        ProductDTO previous = store.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Product not found with id: " + id));
+        ProductDTO updatedDTO = store.update(previous, productDTO)
+                .orElseThrow(() -> new IllegalArgumentException("Product not found with id: " + id));
+        eventPublisher.publishEvent(ProductChangedEvent.updated(updatedDTO, previous));
+        return updatedDTO;
+    }
+
+    @Override
+    public void deleteProduct(Long id) {
+        if (!store.delete(id)) {
+            throw new IllegalArgumentException("Product not found with id: " + id);
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
+    }
+
+    @Override
+    public List<ProductDTO> searchProducts(String searchTerm) {
+        if (searchTerm == null || searchTerm.trim().isEmpty()) {
+            return getAllProducts();
+        }
+        return store.search(searchTerm.trim());
+    }
+
+    @Override
+    public List<ProductDTO> getProductsByCategory(String category) {
+        return store.findByCategoryContaining(category);
+    }
+
+    @Override
+    public List<ProductDTO> getLowStockProducts(Integer threshold) {
+        return store.findByQuantityAtMost(threshold);
+    }
+
+    @Override
+    public List<ProductDTO> getRecentlyUpdatedProducts(int limit) {
+        return store.findRecentlyUpdated(limit);
+    }
+
+    @Override
+    public List<CategorySummaryDTO> getCategorySummaries() {
+        return store.summarizeByCategory();
+    }
+}
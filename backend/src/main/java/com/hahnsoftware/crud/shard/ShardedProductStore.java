@@ -0,0 +1,367 @@
+package com.hahnsoftware.crud.shard;
+
+import com.hahnsoftware.crud.dto.CategorySummaryDTO;
+import com.hahnsoftware.crud.dto.ProductDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Product storage spread over several PostgreSQL nodes by hash of the product id.
+ *
+ * Ids come from a {@link ShardIdGenerator} and a {@link ShardRouter} maps each id to
+ * its shard, so reads and writes of one product touch exactly one shard. List queries
+ * run on all shards in parallel; each shard returns its rows newest first and the
+ * results are combined with a k-way merge. A list query fails as a whole if any shard
+ * fails or does not answer within the query timeout, rather than returning a silently
+ * incomplete list.
+ *
+ * Names are unique across shards through the {@link ProductNameRegistry}.
+ */
+public class ShardedProductStore implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedProductStore.class);
+
+    private static final String COLUMNS = "id, name, description, price, quantity, category, created_at, updated_at";
+    // NULLS LAST to agree with the NEWEST_FIRST comparator used for the merge
+    private static final String NEWEST_FIRST_ORDER = " ORDER BY created_at DESC NULLS LAST, id DESC";
+
+    static final Comparator<ProductDTO> NEWEST_FIRST =
+            Comparator.comparing(ProductDTO::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(ProductDTO::getId, Comparator.reverseOrder());
+
+    private static final Comparator<ProductDTO> RECENTLY_UPDATED_FIRST =
+            Comparator.comparing(ProductDTO::getUpdatedAt, Comparator.nullsLast(Comparator.reverseOrder()))
+                    .thenComparing(ProductDTO::getId, Comparator.reverseOrder());
+
+    private static final Comparator<CategorySummaryDTO> LARGEST_CATEGORY_FIRST =
+            Comparator.comparingLong(CategorySummaryDTO::getProductCount).reversed()
+                    .thenComparing(CategorySummaryDTO::getCategory, Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private static final RowMapper<ProductDTO> PRODUCT_ROW_MAPPER = (rs, rowNum) -> new ProductDTO(
+            rs.getLong("id"),
+            rs.getString("name"),
+            rs.getString("description"),
+            rs.getBigDecimal("price"),
+            rs.getInt("quantity"),
+            rs.getString("category"),
+            rs.getObject("created_at", LocalDateTime.class),
+            rs.getObject("updated_at", LocalDateTime.class));
+
+    private final List<ProductShard> shards;
+    private final ShardRouter router;
+    private final ShardIdGenerator idGenerator;
+    private final ProductNameRegistry nameRegistry;
+    private final ExecutorService queryExecutor;
+    private final long queryTimeoutNanos;
+
+    public ShardedProductStore(List<ProductShard> shards, ShardIdGenerator idGenerator,
+                               ProductNameRegistry nameRegistry, int queryThreads, long queryTimeoutMillis) {
+        this.shards = List.copyOf(shards);
+        this.router = new ShardRouter(shards.size());
+        this.idGenerator = idGenerator;
+        this.nameRegistry = nameRegistry;
+        this.queryTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queryTimeoutMillis);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.queryExecutor = Executors.newFixedThreadPool(queryThreads, runnable -> {
+            Thread thread = new Thread(runnable, "product-shard-query-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Create the products table on every shard and the name registry
+     */
+    public void start() {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("shard-schema.sql"));
+        for (ProductShard shard : shards) {
+            populator.execute(shard.getDataSource());
+        }
+        nameRegistry.createTable();
+        log.info("Product storage sharded over {} databases", shards.size());
+    }
+
+    @Override
+    public void close() throws Exception {
+        queryExecutor.shutdownNow();
+        for (ProductShard shard : shards) {
+            shard.close();
+        }
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    public ProductShard shardFor(long id) {
+        return shards.get(router.shardFor(id));
+    }
+
+    public Optional<ProductDTO> findById(long id) {
+        List<ProductDTO> products = shardFor(id).getJdbcTemplate().query(
+                "SELECT " + COLUMNS + " FROM products WHERE id = ?", PRODUCT_ROW_MAPPER, id);
+        return products.stream().findFirst();
+    }
+
+    /**
+     * Products with the given ids, with one query on each shard that holds any of them;
+     * in no particular order
+     */
+    public List<ProductDTO> findByIds(Collection<Long> ids) {
+        Map<ProductShard, List<Long>> idsByShard = new LinkedHashMap<>();
+        for (Long id : ids) {
+            idsByShard.computeIfAbsent(shardFor(id), shard -> new ArrayList<>()).add(id);
+        }
+        String sql = "SELECT " + COLUMNS + " FROM products WHERE id = ANY(?)";
+        List<List<ProductDTO>> results = gather(List.copyOf(idsByShard.keySet()), shard -> shard.getJdbcTemplate().query(sql,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", idsByShard.get(shard).toArray())),
+                PRODUCT_ROW_MAPPER));
+        return results.stream().flatMap(List::stream).toList();
+    }
+
+    /**
+     * All products, newest first
+     */
+    public List<ProductDTO> findAll() {
+        return scatterGather("");
+    }
+
+    /**
+     * Products whose name or description contains the term, ignoring case; newest first
+     */
+    public List<ProductDTO> search(String term) {
+        String pattern = "%" + term.toLowerCase(Locale.ROOT) + "%";
+        return scatterGather(" WHERE LOWER(name) LIKE ? OR LOWER(description) LIKE ?", pattern, pattern);
+    }
+
+    /**
+     * Products whose category contains the given string, ignoring case; newest first
+     */
+    public List<ProductDTO> findByCategoryContaining(String category) {
+        return scatterGather(" WHERE LOWER(category) LIKE ?", "%" + escapeLike(category.toLowerCase(Locale.ROOT)) + "%");
+    }
+
+    /**
+     * Products with quantity less than or equal to the threshold; newest first
+     */
+    public List<ProductDTO> findByQuantityAtMost(int threshold) {
+        return scatterGather(" WHERE quantity <= ?", threshold);
+    }
+
+    /**
+     * The most recently updated products: the latest of each shard, merged
+     */
+    public List<ProductDTO> findRecentlyUpdated(int limit) {
+        // NULLS LAST to agree with the RECENTLY_UPDATED_FIRST comparator used for the merge
+        String sql = "SELECT " + COLUMNS + " FROM products ORDER BY updated_at DESC NULLS LAST, id DESC LIMIT ?";
+        List<ProductDTO> merged = SortedMerge.merge(
+                gather(shards, shard -> shard.getJdbcTemplate().query(sql, PRODUCT_ROW_MAPPER, limit)),
+                RECENTLY_UPDATED_FIRST);
+        return merged.subList(0, Math.min(limit, merged.size()));
+    }
+
+    /**
+     * Product count and total stock per category over all shards, largest categories first
+     */
+    public List<CategorySummaryDTO> summarizeByCategory() {
+        String sql = "SELECT category, COUNT(*) AS product_count, COALESCE(SUM(quantity), 0) AS total_quantity "
+                + "FROM products GROUP BY category";
+        List<List<CategorySummaryDTO>> results = gather(shards, shard -> shard.getJdbcTemplate().query(sql,
+                (rs, rowNum) -> new CategorySummaryDTO(rs.getString("category"), rs.getLong("product_count"),
+                        rs.getLong("total_quantity"))));
+        Map<String, CategorySummaryDTO> byCategory = new HashMap<>();
+        for (List<CategorySummaryDTO> shardResult : results) {
+            for (CategorySummaryDTO summary : shardResult) {
+                byCategory.merge(summary.getCategory(), summary, (a, b) -> new CategorySummaryDTO(a.getCategory(),
+                        a.getProductCount() + b.getProductCount(), a.getTotalQuantity() + b.getTotalQuantity()));
+            }
+        }
+        List<CategorySummaryDTO> summaries = new ArrayList<>(byCategory.values());
+        summaries.sort(LARGEST_CATEGORY_FIRST);
+        return summaries;
+    }
+
+    /**
+     * Stream every product, one shard after the other, in no particular order
+     */
+    public void forEach(Consumer<ProductDTO> consumer) {
+        for (ProductShard shard : shards) {
+            // Own template: stream rows with a cursor
+            JdbcTemplate scanTemplate = new JdbcTemplate(shard.getDataSource());
+            scanTemplate.setFetchSize(10_000);
+            shard.getTransactionTemplate().executeWithoutResult(status -> {
+                scanTemplate.query("SELECT " + COLUMNS + " FROM products", rs -> {
+                    consumer.accept(PRODUCT_ROW_MAPPER.mapRow(rs, 0));
+                });
+            });
+        }
+    }
+
+    /**
+     * Insert a new product with a generated id
+     *
+     * @throws IllegalArgumentException if another product has the same name (ignoring case)
+     */
+    public ProductDTO insert(ProductDTO product) {
+        long id = idGenerator.nextId();
+        String upperName = upperName(product.getName());
+        if (!nameRegistry.reserve(upperName, id, this::holdsName)) {
+            throw new IllegalArgumentException("Product with name '" + product.getName() + "' already exists");
+        }
+
+        LocalDateTime now = now();
+        try {
+            shardFor(id).getJdbcTemplate().update(
+                    "INSERT INTO products (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                    id, product.getName(), product.getDescription(), product.getPrice(), product.getQuantity(),
+                    product.getCategory(), Timestamp.valueOf(now), Timestamp.valueOf(now));
+        } catch (RuntimeException e) {
+            nameRegistry.release(upperName, id);
+            throw e;
+        }
+        return new ProductDTO(id, product.getName(), product.getDescription(), product.getPrice(),
+                product.getQuantity(), product.getCategory(), now, now);
+    }
+
+    /**
+     * Overwrite a product's fields
+     *
+     * @return the updated product, or empty if it no longer exists
+     * @throws IllegalArgumentException if renamed to the name of another product
+     */
+    public Optional<ProductDTO> update(ProductDTO existing, ProductDTO changes) {
+        long id = existing.getId();
+        String oldUpperName = upperName(existing.getName());
+        String newUpperName = upperName(changes.getName());
+        boolean renamed = !oldUpperName.equals(newUpperName);
+        if (renamed && !nameRegistry.reserve(newUpperName, id, this::holdsName)) {
+            throw new IllegalArgumentException("Product with name '" + changes.getName() + "' already exists");
+        }
+
+        LocalDateTime now = now();
+        int updated;
+        try {
+            updated = shardFor(id).getJdbcTemplate().update(
+                    "UPDATE products SET name = ?, description = ?, price = ?, quantity = ?, category = ?, updated_at = ? "
+                            + "WHERE id = ?",
+                    changes.getName(), changes.getDescription(), changes.getPrice(), changes.getQuantity(),
+                    changes.getCategory(), Timestamp.valueOf(now), id);
+        } catch (RuntimeException e) {
+            if (renamed) {
+                nameRegistry.release(newUpperName, id);
+            }
+            throw e;
+        }
+        if (updated == 0) {
+            if (renamed) {
+                nameRegistry.release(newUpperName, id);
+            }
+            return Optional.empty();
+        }
+        if (renamed) {
+            nameRegistry.release(oldUpperName, id);
+        }
+        return Optional.of(new ProductDTO(id, changes.getName(), changes.getDescription(), changes.getPrice(),
+                changes.getQuantity(), changes.getCategory(), existing.getCreatedAt(), now));
+    }
+
+    /**
+     * Delete a product
+     *
+     * @return false if it did not exist
+     */
+    public boolean delete(long id) {
+        List<String> names = shardFor(id).getJdbcTemplate().query(
+                "DELETE FROM products WHERE id = ? RETURNING name", (rs, rowNum) -> rs.getString("name"), id);
+        if (names.isEmpty()) {
+            return false;
+        }
+        nameRegistry.release(upperName(names.get(0)), id);
+        return true;
+    }
+
+    private List<ProductDTO> scatterGather(String where, Object... args) {
+        String sql = "SELECT " + COLUMNS + " FROM products" + where + NEWEST_FIRST_ORDER;
+        return SortedMerge.merge(gather(shards, shard -> shard.getJdbcTemplate().query(sql, PRODUCT_ROW_MAPPER, args)),
+                NEWEST_FIRST);
+    }
+
+    /**
+     * Run a query on the given shards in parallel and wait for all of them
+     */
+    private <T> List<List<T>> gather(List<ProductShard> targets, Function<ProductShard, List<T>> query) {
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>(targets.size());
+        for (ProductShard shard : targets) {
+            futures.add(CompletableFuture.supplyAsync(() -> query.apply(shard), queryExecutor));
+        }
+
+        long deadline = System.nanoTime() + queryTimeoutNanos;
+        List<List<T>> results = new ArrayList<>(targets.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                results.add(futures.get(i).get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (ExecutionException e) {
+                cancel(futures);
+                throw new IllegalStateException("Query failed on " + targets.get(i) + ": " + e.getCause().getMessage(),
+                        e.getCause());
+            } catch (TimeoutException e) {
+                cancel(futures);
+                throw new IllegalStateException("Query timed out on " + targets.get(i));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancel(futures);
+                throw new IllegalStateException("Interrupted while querying " + targets.get(i));
+            }
+        }
+        return results;
+    }
+
+    private boolean holdsName(Long productId, String upperName) {
+        return findById(productId)
+                .map(product -> upperName(product.getName()).equals(upperName))
+                .orElse(false);
+    }
+
+    private static void cancel(List<? extends CompletableFuture<?>> futures) {
+        futures.forEach(future -> future.cancel(true));
+    }
+
+    private static LocalDateTime now() {
+        // PostgreSQL keeps microseconds: return exactly what is stored
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private static String upperName(String name) {
+        return name.toUpperCase(Locale.ROOT);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,62 @@
+package com.hahnsoftware.crud.shard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * K-way merge of lists that are each sorted by the same comparator
+ */
+final class SortedMerge {
+
+    private SortedMerge() {
+    }
+
+    static <T> List<T> merge(List<List<T>> sortedLists, Comparator<? super T> comparator) {
+        int total = 0;
+        for (List<T> list : sortedLists) {
+            total += list.size();
+        }
+        List<T> result = new ArrayList<>(total);
+        if (sortedLists.size() == 1) {
+            result.addAll(sortedLists.get(0));
+            return result;
+        }
+
+        // Heap of cursors, one per non-empty list, ordered by their current element
+        PriorityQueue<Cursor<T>> heap = new PriorityQueue<>(Math.max(1, sortedLists.size()),
+                (a, b) -> comparator.compare(a.current(), b.current()));
+        for (List<T> list : sortedLists) {
+            if (!list.isEmpty()) {
+                heap.add(new Cursor<>(list));
+            }
+        }
+        while (!heap.isEmpty()) {
+            Cursor<T> cursor = heap.poll();
+            result.add(cursor.current());
+            if (cursor.advance()) {
+                heap.add(cursor);
+            }
+        }
+        return result;
+    }
+
+    private static final class Cursor<T> {
+
+        private final List<T> list;
+        private int position;
+
+        Cursor(List<T> list) {
+            this.list = list;
+        }
+
+        T current() {
+            return list.get(position);
+        }
+
+        boolean advance() {
+            return ++position < list.size();
+        }
+    }
+}
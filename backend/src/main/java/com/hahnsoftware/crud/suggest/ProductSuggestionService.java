@@ -0,0 +1,183 @@
+package com.hahnsoftware.crud.suggest;
+
+import com.hahnsoftware.crud.dto.ProductDTO;
+import com.hahnsoftware.crud.dto.ProductSuggestionDTO;
+import com.hahnsoftware.crud.event.ProductChangedEvent;
+import com.hahnsoftware.crud.event.ProductsImportedEvent;
+import com.hahnsoftware.crud.shard.ShardedProductStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Typeahead suggestions served from a {@link SuggestionIndex}, without database access.
+ *
+ * The index is loaded once at startup and then kept current from ProductService
+ * writes; products changed by a bulk import are re-read in the background.
+ * Popularity is the number of times a product was opened by id; hits are counted
+ * lock-free and folded into the index periodically.
+ */
+@Service
+@Lazy(false)
+public class ProductSuggestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSuggestionService.class);
+
+    private final SuggestionIndex index = new SuggestionIndex();
+    private final Map<Long, LongAdder> pendingHits = new ConcurrentHashMap<>();
+    private final Set<Long> deletedDuringLoad = ConcurrentHashMap.newKeySet();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardedProductStore shardedStore;
+    private final int maxLimit;
+
+    private volatile boolean loading = true;
+
+    @Autowired
+    public ProductSuggestionService(DataSource dataSource,
+                                    TransactionTemplate transactionTemplate,
+                                    MeterRegistry meterRegistry,
+                                    ObjectProvider<ShardedProductStore> shardedStore,
+                                    @Value("${products.suggest.max-limit:50}") int maxLimit) {
+        // Own template: the initial load streams rows with a cursor
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(10_000);
+        this.transactionTemplate = transactionTemplate;
+        this.shardedStore = shardedStore.getIfAvailable();
+        this.maxLimit = maxLimit;
+        Gauge.builder("products.suggest.indexed", index, SuggestionIndex::size)
+                .description("Products in the typeahead index")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Top products whose name (or a word of it) or category starts with the prefix
+     */
+    public List<ProductSuggestionDTO> suggest(String prefix, int limit) {
+        return index.suggest(prefix, Math.min(limit, maxLimit));
+    }
+
+    /**
+     * Count a product being opened, for popularity ranking
+     */
+    public void recordSelection(Long id) {
+        pendingHits.computeIfAbsent(id, key -> new LongAdder()).increment();
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    /**
+     * Load the index in the background so startup is not delayed
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        Thread loader = new Thread(this::load, "product-suggest-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getType() == ProductChangedEvent.Type.DELETED) {
+            if (loading) {
+                deletedDuringLoad.add(event.getProductId());
+            }
+            index.remove(event.getProductId());
+            return;
+        }
+        ProductDTO product = event.getProduct();
+        index.put(product.getId(), product.getName(), product.getCategory());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        Thread loader = new Thread(() -> reloadChangedSince(event.getChangedSince()), "product-suggest-import");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @Scheduled(fixedDelayString = "${products.suggest.popularity-flush-ms:10000}")
+    public void flushPopularity() {
+        int capacity = pendingHits.size();
+        long[] ids = new long[capacity];
+        long[] deltas = new long[capacity];
+        int count = 0;
+        for (Long id : pendingHits.keySet()) {
+            if (count == capacity) {
+                break;
+            }
+            LongAdder hits = pendingHits.remove(id);
+            if (hits != null) {
+                ids[count] = id;
+                deltas[count] = hits.sum();
+                count++;
+            }
+        }
+        index.addWeights(ids, deltas, count);
+    }
+
+    private void load() {
+        long start = System.nanoTime();
+        try {
+            if (shardedStore != null) {
+                shardedStore.forEach(product -> {
+                    if (!deletedDuringLoad.contains(product.getId())) {
+                        index.putIfAbsent(product.getId(), product.getName(), product.getCategory());
+                    }
+                });
+            } else {
+                transactionTemplate.executeWithoutResult(status -> {
+                    jdbcTemplate.query("SELECT id, name, category FROM products", rs -> {
+                        long id = rs.getLong("id");
+                        if (!deletedDuringLoad.contains(id)) {
+                            // Writes seen during the load are newer than the scanned row
+                            index.putIfAbsent(id, rs.getString("name"), rs.getString("category"));
+                        }
+                    });
+                });
+            }
+            log.info("Loaded {} products into the suggestion index in {} ms",
+                    index.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            log.error("Failed to load the suggestion index", e);
+        } finally {
+            loading = false;
+            deletedDuringLoad.clear();
+        }
+    }
+
+    private void reloadChangedSince(LocalDateTime changedSince) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.query("SELECT id, name, category FROM products WHERE updated_at >= ?", rs -> {
+                    index.put(rs.getLong("id"), rs.getString("name"), rs.getString("category"));
+                }, Timestamp.valueOf(changedSince));
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to reload imported products into the suggestion index", e);
+        }
+    }
+}
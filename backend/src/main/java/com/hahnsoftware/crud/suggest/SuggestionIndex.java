@@ -0,0 +1,564 @@
+package com.hahnsoftware.crud.suggest;
+
+import com.hahnsoftware.crud.dto.ProductSuggestionDTO;
+import com.hahnsoftware.crud.util.LongIntMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory prefix index over product names and categories, ranked by weight.
+ *
+ * Terms live in a radix tree (edges carry whole substrings, so shared prefixes are
+ * stored once). Each node knows the highest weight in its subtree, and terminal
+ * nodes keep their products sorted by weight, so a top-k lookup is a best-first walk
+ * that stops after k products regardless of how many match the prefix.
+ *
+ * Product data is held in parallel arrays indexed by an internal slot, with a
+ * primitive id-to-slot map, to keep the per-product overhead small.
+ *
+ * Slots within a node are kept in a total order (weight descending, then slot), so
+ * a slot is located by binary search. A popularity bump only moves the product
+ * forward within each of its terminal nodes and raises the maxima on the paths;
+ * the tree itself is left untouched.
+ *
+ * Indexed terms per product: the full name, the name starting at each of its next
+ * few words (so "mouse" finds "Wireless Mouse"), and the category. Terms are
+ * lower-cased and truncated to {@link #MAX_TERM_LENGTH} characters.
+ */
+public class SuggestionIndex {
+
+    static final int MAX_TERM_LENGTH = 64;
+    private static final int MAX_WORD_SUFFIXES = 3;
+    // Weight updates applied per write-lock hold, so readers are not starved by a large flush
+    static final int WEIGHT_BATCH_SIZE = 256;
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("");
+    private final LongIntMap idToSlot = new LongIntMap();
+    private final Map<String, String> categoryPool = new HashMap<>();
+
+    // Slot storage, guarded by lock
+    private long[] ids = new long[1024];
+    private String[] names = new String[1024];
+    private String[] categories = new String[1024];
+    private long[] weights = new long[1024];
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int slotCount;
+
+    /**
+     * Add a product or update its name and category, keeping its weight
+     */
+    public void put(long id, String name, String category) {
+        lock.writeLock().lock();
+        try {
+            int slot = idToSlot.get(id);
+            if (slot >= 0) {
+                if (name.equals(names[slot]) && equalsNullable(category, categories[slot])) {
+                    return;
+                }
+                removeTerms(slot);
+            } else {
+                slot = allocateSlot();
+                ids[slot] = id;
+                weights[slot] = 0;
+                idToSlot.put(id, slot);
+            }
+            names[slot] = name;
+            categories[slot] = category == null ? null : categoryPool.computeIfAbsent(category, c -> c);
+            insertTerms(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Add a product only if it is not indexed yet
+     */
+    public void putIfAbsent(long id, String name, String category) {
+        lock.writeLock().lock();
+        try {
+            if (idToSlot.get(id) < 0) {
+                put(id, name, category);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            int slot = idToSlot.remove(id);
+            if (slot < 0) {
+                return;
+            }
+            removeTerms(slot);
+            names[slot] = null;
+            categories[slot] = null;
+            releaseSlot(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Increase the popularity weight of a product
+     */
+    public void addWeight(long id, long delta) {
+        addWeights(new long[] {id}, new long[] {delta}, 1);
+    }
+
+    /**
+     * Increase the weights of several products, taking the write lock once per
+     * {@link #WEIGHT_BATCH_SIZE} updates
+     */
+    public void addWeights(long[] ids, long[] deltas, int count) {
+        for (int from = 0; from < count; from += WEIGHT_BATCH_SIZE) {
+            int to = Math.min(count, from + WEIGHT_BATCH_SIZE);
+            lock.writeLock().lock();
+            try {
+                for (int i = from; i < to; i++) {
+                    applyWeight(ids[i], deltas[i]);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Top-k products with a term starting with the prefix, highest weight first
+     */
+    public List<ProductSuggestionDTO> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            Node start = findSubtree(normalized);
+            if (start == null) {
+                return Collections.emptyList();
+            }
+
+            List<ProductSuggestionDTO> results = new ArrayList<>(limit);
+            Set<Long> seen = new HashSet<>();
+            PriorityQueue<Candidate> queue = new PriorityQueue<>();
+            queue.add(new Candidate(start, -1, start.maxWeight));
+            while (!queue.isEmpty() && results.size() < limit) {
+                Candidate candidate = queue.poll();
+                Node node = candidate.node;
+                if (candidate.position < 0) {
+                    if (node.slotCount > 0) {
+                        queue.add(new Candidate(node, 0, weights[node.slots[0]]));
+                    }
+                    for (Node child : node.children) {
+                        queue.add(new Candidate(child, -1, child.maxWeight));
+                    }
+                    continue;
+                }
+
+                int slot = node.slots[candidate.position];
+                if (seen.add(ids[slot])) {
+                    results.add(new ProductSuggestionDTO(ids[slot], names[slot]));
+                }
+                int next = candidate.position + 1;
+                if (next < node.slotCount) {
+                    queue.add(new Candidate(node, next, weights[node.slots[next]]));
+                }
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return idToSlot.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = text.trim().toLowerCase(Locale.ROOT);
+        return normalized.length() > MAX_TERM_LENGTH ? normalized.substring(0, MAX_TERM_LENGTH) : normalized;
+    }
+
+    private List<String> termsOf(int slot) {
+        List<String> terms = new ArrayList<>(MAX_WORD_SUFFIXES + 2);
+        String name = names[slot].trim().toLowerCase(Locale.ROOT);
+        addTerm(terms, name);
+        int from = 0;
+        for (int i = 0; i < MAX_WORD_SUFFIXES; i++) {
+            int space = name.indexOf(' ', from);
+            if (space < 0) {
+                break;
+            }
+            from = space + 1;
+            addTerm(terms, name.substring(from));
+        }
+        addTerm(terms, categories[slot]);
+        return terms;
+    }
+
+    private static void addTerm(List<String> terms, String text) {
+        String term = normalize(text);
+        if (!term.isEmpty() && !terms.contains(term)) {
+            terms.add(term);
+        }
+    }
+
+    private void applyWeight(long id, long delta) {
+        int slot = idToSlot.get(id);
+        if (slot < 0 || delta == 0) {
+            return;
+        }
+        if (delta < 0) {
+            // Lowering a weight can shrink subtree maxima, so take the slow path
+            removeTerms(slot);
+            weights[slot] += delta;
+            insertTerms(slot);
+            return;
+        }
+        long oldWeight = weights[slot];
+        weights[slot] = oldWeight + delta;
+        for (String term : termsOf(slot)) {
+            promote(term, slot, oldWeight);
+        }
+    }
+
+    private void insertTerms(int slot) {
+        for (String term : termsOf(slot)) {
+            insert(term, slot);
+        }
+    }
+
+    private void removeTerms(int slot) {
+        for (String term : termsOf(slot)) {
+            remove(term, slot);
+        }
+    }
+
+    private void insert(String term, int slot) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < term.length()) {
+            int index = node.childIndex(term.charAt(i));
+            if (index < 0) {
+                Node leaf = new Node(term.substring(i));
+                node.addChild(leaf);
+                node = leaf;
+                path.add(node);
+                break;
+            }
+
+            Node child = node.children[index];
+            int common = commonPrefixLength(child.label, term, i);
+            if (common < child.label.length()) {
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.children = new Node[] {child};
+                middle.maxWeight = child.maxWeight;
+                node.children[index] = middle;
+                child = middle;
+            }
+            node = child;
+            path.add(node);
+            i += common;
+        }
+
+        node.addSlot(slot, weights);
+        long weight = weights[slot];
+        for (Node onPath : path) {
+            onPath.maxWeight = Math.max(onPath.maxWeight, weight);
+        }
+    }
+
+    private void remove(String term, int slot) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < term.length()) {
+            int index = node.childIndex(term.charAt(i));
+            if (index < 0) {
+                return;
+            }
+            Node child = node.children[index];
+            if (!term.startsWith(child.label, i)) {
+                return;
+            }
+            node = child;
+            path.add(node);
+            i += child.label.length();
+        }
+        if (!node.removeSlot(slot, weights)) {
+            return;
+        }
+
+        // Prune and merge bottom-up, then refresh the subtree maxima along the path
+        for (int depth = path.size() - 1; depth > 0; depth--) {
+            Node current = path.get(depth);
+            Node parent = path.get(depth - 1);
+            if (current.slotCount == 0 && current.children.length == 0) {
+                parent.removeChild(current);
+                continue;
+            }
+            if (current.slotCount == 0 && current.children.length == 1) {
+                Node only = current.children[0];
+                current.label = current.label + only.label;
+                current.children = only.children;
+                current.slots = only.slots;
+                current.slotCount = only.slotCount;
+            }
+            current.recomputeMaxWeight(weights);
+        }
+        root.recomputeMaxWeight(weights);
+    }
+
+    /**
+     * Move a slot whose weight just increased forward in the term's node, raising
+     * the maxima on the way down
+     */
+    private void promote(String term, int slot, long oldWeight) {
+        long weight = weights[slot];
+        Node node = root;
+        node.maxWeight = Math.max(node.maxWeight, weight);
+        int i = 0;
+        while (i < term.length()) {
+            int index = node.childIndex(term.charAt(i));
+            if (index < 0) {
+                return;
+            }
+            Node child = node.children[index];
+            if (!term.startsWith(child.label, i)) {
+                return;
+            }
+            node = child;
+            node.maxWeight = Math.max(node.maxWeight, weight);
+            i += child.label.length();
+        }
+        node.moveUp(slot, oldWeight, weights);
+    }
+
+    private Node findSubtree(String prefix) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            int index = node.childIndex(prefix.charAt(i));
+            if (index < 0) {
+                return null;
+            }
+            Node child = node.children[index];
+            int length = Math.min(child.label.length(), prefix.length() - i);
+            if (!prefix.regionMatches(i, child.label, 0, length)) {
+                return null;
+            }
+            node = child;
+            i += length;
+        }
+        return node;
+    }
+
+    private static int commonPrefixLength(String label, String term, int offset) {
+        int max = Math.min(label.length(), term.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == term.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotCount == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+        }
+        return slotCount++;
+    }
+
+    private void releaseSlot(int slot) {
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private static boolean equalsNullable(String a, String b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static final class Node {
+
+        private String label;
+        private Node[] children = NO_CHILDREN;
+        private int[] slots;
+        private int slotCount;
+        private long maxWeight = -1;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        int childIndex(char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char c = children[mid].label.charAt(0);
+                if (c < first) {
+                    low = mid + 1;
+                } else if (c > first) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        void addChild(Node child) {
+            int insertAt = -(childIndex(child.label.charAt(0)) + 1);
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, insertAt);
+            grown[insertAt] = child;
+            System.arraycopy(children, insertAt, grown, insertAt + 1, children.length - insertAt);
+            children = grown;
+        }
+
+        void removeChild(Node child) {
+            int index = childIndex(child.label.charAt(0));
+            Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, index);
+            System.arraycopy(children, index + 1, shrunk, index, children.length - index - 1);
+            children = shrunk.length == 0 ? NO_CHILDREN : shrunk;
+        }
+
+        /**
+         * Insert keeping slots sorted by weight, highest first
+         */
+        void addSlot(int slot, long[] weights) {
+            if (slots == null) {
+                slots = new int[1];
+            } else if (slotCount == slots.length) {
+                slots = Arrays.copyOf(slots, slotCount + Math.max(1, slotCount >> 1));
+            }
+            int position = -(indexOf(slot, weights[slot], slotCount, weights) + 1);
+            System.arraycopy(slots, position, slots, position + 1, slotCount - position);
+            slots[position] = slot;
+            slotCount++;
+        }
+
+        boolean removeSlot(int slot, long[] weights) {
+            int position = indexOf(slot, weights[slot], slotCount, weights);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(slots, position + 1, slots, position, slotCount - position - 1);
+            slotCount--;
+            if (slotCount == 0) {
+                slots = null;
+            }
+            return true;
+        }
+
+        /**
+         * Re-position a slot after its weight grew from oldWeight; only the entries
+         * it overtakes are shifted
+         */
+        void moveUp(int slot, long oldWeight, long[] weights) {
+            int position = indexOf(slot, oldWeight, slotCount, weights);
+            if (position < 0) {
+                return;
+            }
+            int target = -(indexOf(slot, weights[slot], position, weights) + 1);
+            System.arraycopy(slots, target, slots, target + 1, position - target);
+            slots[target] = slot;
+        }
+
+        /**
+         * Binary search among the first {@code to} slots for a slot of the given
+         * weight; returns -(insertion point + 1) when it is not there
+         */
+        private int indexOf(int slot, long weight, int to, long[] weights) {
+            int low = 0;
+            int high = to - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int other = slots[mid];
+                int byRank = compareRank(weights[other], other, weight, slot);
+                if (byRank < 0) {
+                    low = mid + 1;
+                } else if (byRank > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private static int compareRank(long weightA, int slotA, long weightB, int slotB) {
+            int byWeight = Long.compare(weightB, weightA);
+            return byWeight != 0 ? byWeight : Integer.compare(slotA, slotB);
+        }
+
+        void recomputeMaxWeight(long[] weights) {
+            long max = slotCount > 0 ? weights[slots[0]] : -1;
+            for (Node child : children) {
+                max = Math.max(max, child.maxWeight);
+            }
+            maxWeight = max;
+        }
+    }
+
+    private static final class Candidate implements Comparable<Candidate> {
+
+        private final Node node;
+        private final int position;
+        private final long score;
+
+        Candidate(Node node, int position, long score) {
+            this.node = node;
+            this.position = position;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            int byScore = Long.compare(other.score, score);
+            if (byScore != 0) {
+                return byScore;
+            }
+            // Expand products before subtrees of equal weight
+            return Boolean.compare(position < 0, other.position < 0);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.hahnsoftware.crud.trace;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Times repository calls of sampled requests as hydration: the time of the call
+ * minus its connection acquisition and statement execution, which is what the
+ * persistence layer spends building queries and turning rows into entities.
+ */
+public class RepositoryTimingInterceptor implements MethodInterceptor {
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        RequestTrace trace = RequestTracer.current();
+        if (trace == null) {
+            return invocation.proceed();
+        }
+        long start = System.nanoTime();
+        long databaseNanos = trace.databaseNanos();
+        try {
+            return invocation.proceed();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            trace.add(TracePhase.HYDRATION, Math.max(0, elapsed - (trace.databaseNanos() - databaseNanos)));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.hahnsoftware.crud.trace;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Time spent per phase by one sampled request. Confined to the request thread.
+ */
+public class RequestTrace {
+
+    private static final TracePhase[] PHASES = TracePhase.values();
+
+    private final Instant startedAt;
+    private final long startNanos;
+    private final long[] nanos = new long[PHASES.length];
+    private final int[] counts = new int[PHASES.length];
+
+    public RequestTrace(Instant startedAt, long startNanos) {
+        this.startedAt = startedAt;
+        this.startNanos = startNanos;
+    }
+
+    public void add(TracePhase phase, long elapsedNanos) {
+        nanos[phase.ordinal()] += elapsedNanos;
+        counts[phase.ordinal()]++;
+    }
+
+    /**
+     * Time spent in the database so far (connection acquisition and statements)
+     */
+    long databaseNanos() {
+        return nanos[TracePhase.CONNECTION.ordinal()] + nanos[TracePhase.SQL.ordinal()];
+    }
+
+    /**
+     * Server-Timing header value for the phases so far, with "app" as the time since the request started
+     */
+    public String serverTiming(long nowNanos) {
+        StringBuilder header = new StringBuilder();
+        for (TracePhase phase : PHASES) {
+            if (counts[phase.ordinal()] > 0) {
+                appendMetric(header, phase.getKey(), nanos[phase.ordinal()]);
+            }
+        }
+        appendMetric(header, "app", nowNanos - startNanos);
+        return header.toString();
+    }
+
+    public TraceRecord finish(String method, String path, int status, long endNanos) {
+        List<TraceRecord.Phase> phases = new ArrayList<>(PHASES.length);
+        for (TracePhase phase : PHASES) {
+            if (counts[phase.ordinal()] > 0) {
+                phases.add(new TraceRecord.Phase(phase.getKey(), nanos[phase.ordinal()] / 1_000, counts[phase.ordinal()]));
+            }
+        }
+        return new TraceRecord(startedAt, method, path, status, (endNanos - startNanos) / 1_000, phases);
+    }
+
+    private static void appendMetric(StringBuilder header, String key, long elapsedNanos) {
+        if (header.length() > 0) {
+            header.append(", ");
+        }
+        header.append(key).append(";dur=").append(String.format(Locale.ROOT, "%.3f", elapsedNanos / 1_000_000.0));
+    }
+}
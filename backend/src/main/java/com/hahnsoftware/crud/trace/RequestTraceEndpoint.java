@@ -0,0 +1,28 @@
+package com.hahnsoftware.crud.trace;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * Sampled request traces, newest first
+ * GET /actuator/requesttraces?limit={limit}&minDurationMs={minDurationMs}
+ */
+@Endpoint(id = "requesttraces")
+public class RequestTraceEndpoint {
+
+    private final TraceRingBuffer traces;
+
+    public RequestTraceEndpoint(TraceRingBuffer traces) {
+        this.traces = traces;
+    }
+
+    @ReadOperation
+    public List<TraceRecord> traces(@Nullable Integer limit, @Nullable Long minDurationMs) {
+        int max = limit == null ? 100 : Math.max(0, limit);
+        long minDurationMicros = minDurationMs == null ? 0 : minDurationMs * 1_000;
+        return traces.recent(max, minDurationMicros);
+    }
+}
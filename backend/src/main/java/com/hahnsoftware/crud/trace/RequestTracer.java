@@ -0,0 +1,61 @@
+package com.hahnsoftware.crud.trace;
+
+/**
+ * Entry point for the timers placed around request phases.
+ *
+ * Timers are static calls so they can sit in any layer without wiring. When tracing
+ * is not enabled they cost one volatile read; for requests that are not sampled, one
+ * ThreadLocal lookup more.
+ *
+ * <pre>
+ * long start = RequestTracer.start();
+ * ... work ...
+ * RequestTracer.stop(TracePhase.CONVERSION, start);
+ * </pre>
+ */
+public final class RequestTracer {
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+    private static volatile boolean enabled;
+
+    private RequestTracer() {
+    }
+
+    static void setEnabled(boolean enabled) {
+        RequestTracer.enabled = enabled;
+    }
+
+    /**
+     * Start a timer: the current time if the request is sampled, otherwise 0
+     */
+    public static long start() {
+        return enabled && CURRENT.get() != null ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Add the time since {@link #start()} to a phase of the current trace
+     */
+    public static void stop(TracePhase phase, long start) {
+        if (start != 0L) {
+            RequestTrace trace = CURRENT.get();
+            if (trace != null) {
+                trace.add(phase, System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * The trace of the current request, or null if it is not sampled
+     */
+    public static RequestTrace current() {
+        return enabled ? CURRENT.get() : null;
+    }
+
+    static void begin(RequestTrace trace) {
+        CURRENT.set(trace);
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,72 @@
+package com.hahnsoftware.crud.trace;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples product API requests for tracing. A sampled request carries a Server-Timing
+ * header (written just before the JSON body, see {@link TracingJacksonConverter}) and
+ * its completed trace is kept in the {@link TraceRingBuffer}.
+ */
+public class RequestTracingFilter extends OncePerRequestFilter {
+
+    static final String SERVER_TIMING = "Server-Timing";
+    private static final String TRACED_PATH = "/api/products";
+
+    private final TraceRingBuffer traces;
+    private final double sampleRate;
+
+    public RequestTracingFilter(TraceRingBuffer traces, double sampleRate) {
+        this.traces = traces;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    protected void initFilterBean() {
+        RequestTracer.setEnabled(sampleRate > 0);
+    }
+
+    @Override
+    public void destroy() {
+        RequestTracer.setEnabled(false);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return sampleRate <= 0
+                || !request.getRequestURI().substring(request.getContextPath().length()).startsWith(TRACED_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        RequestTrace trace = new RequestTrace(Instant.now(), System.nanoTime());
+        RequestTracer.begin(trace);
+        try {
+            filterChain.doFilter(request, response);
+            if (!response.isCommitted() && !response.containsHeader(SERVER_TIMING)) {
+                addServerTiming(response, trace);
+            }
+        } finally {
+            RequestTracer.end();
+            traces.add(trace.finish(request.getMethod(), request.getRequestURI(), response.getStatus(), System.nanoTime()));
+        }
+    }
+
+    static void addServerTiming(HttpServletResponse response, RequestTrace trace) {
+        response.setHeader(SERVER_TIMING, trace.serverTiming(System.nanoTime()));
+        response.setHeader("Timing-Allow-Origin", "*");
+    }
+}
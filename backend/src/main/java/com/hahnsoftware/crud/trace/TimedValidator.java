@@ -0,0 +1,57 @@
+package com.hahnsoftware.crud.trace;
+
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+
+/**
+ * Bean validation of request bodies, timed
+ */
+public class TimedValidator implements SmartValidator {
+
+    private final SmartValidator delegate;
+
+    public TimedValidator(SmartValidator delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return delegate.supports(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        long start = RequestTracer.start();
+        try {
+            delegate.validate(target, errors);
+        } finally {
+            RequestTracer.stop(TracePhase.VALIDATION, start);
+        }
+    }
+
+    @Override
+    public void validate(Object target, Errors errors, Object... validationHints) {
+        long start = RequestTracer.start();
+        try {
+            delegate.validate(target, errors, validationHints);
+        } finally {
+            RequestTracer.stop(TracePhase.VALIDATION, start);
+        }
+    }
+
+    @Override
+    public void validateValue(Class<?> targetType, String fieldName, Object value, Errors errors,
+                              Object... validationHints) {
+        long start = RequestTracer.start();
+        try {
+            delegate.validateValue(targetType, fieldName, value, errors, validationHints);
+        } finally {
+            RequestTracer.stop(TracePhase.VALIDATION, start);
+        }
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> type) {
+        return delegate.unwrap(type);
+    }
+}
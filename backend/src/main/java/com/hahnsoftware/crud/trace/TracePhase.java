@@ -0,0 +1,23 @@
+package com.hahnsoftware.crud.trace;
+
+/**
+ * Stages of a request that are timed separately; the key is the Server-Timing metric name
+ */
+public enum TracePhase {
+    CONNECTION("db-conn"),
+    SQL("sql"),
+    HYDRATION("hydrate"),
+    CONVERSION("dto"),
+    VALIDATION("validate"),
+    SERIALIZATION("json");
+
+    private final String key;
+
+    TracePhase(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,14 @@
+package com.hahnsoftware.crud.trace;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Completed trace of a sampled request; durations in microseconds
+ */
+public record TraceRecord(Instant startedAt, String method, String path, int status, long durationMicros,
+                          List<Phase> phases) {
+
+    public record Phase(String name, long durationMicros, int count) {
+    }
+}
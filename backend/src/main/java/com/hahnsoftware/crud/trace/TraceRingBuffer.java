@@ -0,0 +1,54 @@
+package com.hahnsoftware.crud.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size buffer of the latest traces. Writers claim a slot with one atomic
+ * increment and never block; the oldest traces are overwritten.
+ */
+public class TraceRingBuffer {
+
+    private final AtomicReferenceArray<Slot> slots;
+    private final int mask;
+    private final AtomicLong next = new AtomicLong();
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public TraceRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    public void add(TraceRecord trace) {
+        long sequence = next.getAndIncrement();
+        slots.set((int) (sequence & mask), new Slot(sequence, trace));
+    }
+
+    /**
+     * The latest traces lasting at least minDurationMicros, newest first
+     */
+    public List<TraceRecord> recent(int limit, long minDurationMicros) {
+        List<TraceRecord> traces = new ArrayList<>(Math.min(limit, slots.length()));
+        long end = next.get();
+        for (long sequence = end - 1; sequence >= Math.max(0, end - slots.length()) && traces.size() < limit; sequence--) {
+            Slot slot = slots.get((int) (sequence & mask));
+            // Skip slots not written yet or already overwritten by a newer trace
+            if (slot != null && slot.sequence() == sequence && slot.trace().durationMicros() >= minDurationMicros) {
+                traces.add(slot.trace());
+            }
+        }
+        return traces;
+    }
+
+    public int capacity() {
+        return slots.length();
+    }
+
+    private record Slot(long sequence, TraceRecord trace) {
+    }
+}
@@ -0,0 +1,79 @@
+package com.hahnsoftware.crud.trace;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DataSource that times connection acquisition and statement execution for sampled requests.
+ *
+ * Only connections obtained during a sampled request are wrapped; every other caller
+ * gets the pool's connection as is, so unsampled requests pay no proxy or reflection
+ * cost per statement.
+ */
+public class TracingDataSource extends DelegatingDataSource {
+
+    public TracingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = RequestTracer.start();
+        Connection connection = super.getConnection();
+        return traced(connection, start);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = RequestTracer.start();
+        Connection connection = super.getConnection(username, password);
+        return traced(connection, start);
+    }
+
+    private static Connection traced(Connection connection, long start) {
+        if (start == 0L) {
+            // Not in a sampled request
+            return connection;
+        }
+        RequestTracer.stop(TracePhase.CONNECTION, start);
+        return wrapConnection(connection);
+    }
+
+    private static Connection wrapConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    return result instanceof Statement statement ? wrapStatement(statement, method.getReturnType()) : result;
+                });
+    }
+
+    private static Object wrapStatement(Statement statement, Class<?> type) {
+        return Proxy.newProxyInstance(TracingDataSource.class.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (!method.getName().startsWith("execute")) {
+                        return invoke(statement, method, args);
+                    }
+                    long start = RequestTracer.start();
+                    try {
+                        return invoke(statement, method, args);
+                    } finally {
+                        RequestTracer.stop(TracePhase.SQL, start);
+                    }
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.hahnsoftware.crud.trace;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * JSON converter that times serialization. It also writes the Server-Timing header,
+ * as the last point before the body commits the response; serialization itself is
+ * therefore only in the buffered trace.
+ */
+public class TracingJacksonConverter extends MappingJackson2HttpMessageConverter {
+
+    public TracingJacksonConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        RequestTrace trace = RequestTracer.current();
+        if (trace == null) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        outputMessage.getHeaders().set(RequestTracingFilter.SERVER_TIMING, trace.serverTiming(System.nanoTime()));
+        outputMessage.getHeaders().set("Timing-Allow-Origin", "*");
+        long start = System.nanoTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            trace.add(TracePhase.SERIALIZATION, System.nanoTime() - start);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 -- Database: hahn_crud_db
 -- Create database if it doesn't exist
-CREATE DATABASE hahn_crud_db;
+SELECT 'CREATE DATABASE hahn_crud_db'
+WHERE NOT EXISTS (SELECT FROM pg_database WHERE datname = 'hahn_crud_db')\gexec
 
 -- Use the database
 \c hahn_crud_db;
@@ -21,6 +22,30 @@ CREATE TABLE IF NOT EXISTS products (
 CREATE INDEX IF NOT EXISTS idx_products_name ON products(name);
 CREATE INDEX IF NOT EXISTS idx_products_category ON products(category);
 
+-- Indexes for the case-insensitive queries of ProductRepository: equality and IN on
+-- UPPER(...) use the expression indexes, "contains" searches (LIKE '%term%') the trigram ones
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_products_upper_name ON products(UPPER(name));
+CREATE INDEX IF NOT EXISTS idx_products_upper_category ON products(UPPER(category));
+CREATE INDEX IF NOT EXISTS idx_products_quantity ON products(quantity);
+CREATE INDEX IF NOT EXISTS idx_products_updated_at ON products(updated_at DESC);
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm ON products USING gin (UPPER(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_products_description_trgm ON products USING gin (UPPER(description) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_products_category_trgm ON products USING gin (UPPER(category) gin_trgm_ops);
+
+-- Version numbers for near-cache invalidation messages (LISTEN/NOTIFY)
+CREATE SEQUENCE IF NOT EXISTS product_invalidation_version;
+
+-- Product names across all shards when products are sharded (products.sharding.enabled)
+CREATE TABLE IF NOT EXISTS product_names (
+    upper_name VARCHAR(255) PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    reserved_at TIMESTAMP NOT NULL DEFAULT LOCALTIMESTAMP
+);
+
+-- The stock movement ledger tables are created at startup from stock-ledger-schema.sql
+-- (products.stock-ledger.enabled)
+
 -- Insert sample data
 INSERT INTO products (name, description, price, quantity, category) VALUES
 ('Laptop Pro 15', 'High-performance laptop with 16GB RAM and 512GB SSD', 1299.99, 25, 'Electronics'),
@@ -0,0 +1,20 @@
+-- Products table of one shard (applied to every shard at startup when products.sharding.enabled=true).
+-- Ids are generated by the application (ShardIdGenerator), so there is no sequence;
+-- name uniqueness across shards is enforced by product_names on the primary database.
+CREATE TABLE IF NOT EXISTS products (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    description TEXT,
+    price DECIMAL(10,2) NOT NULL,
+    quantity INTEGER NOT NULL DEFAULT 0,
+    category VARCHAR(100),
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- Every scatter-gather query returns rows in this order for the k-way merge
+CREATE INDEX IF NOT EXISTS idx_products_newest_first ON products(created_at DESC NULLS LAST, id DESC);
+CREATE INDEX IF NOT EXISTS idx_products_category ON products(category);
+CREATE INDEX IF NOT EXISTS idx_products_quantity ON products(quantity);
+-- Order of findRecentlyUpdated
+CREATE INDEX IF NOT EXISTS idx_products_recently_updated ON products(updated_at DESC NULLS LAST, id DESC);
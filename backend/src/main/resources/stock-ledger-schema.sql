@@ -0,0 +1,33 @@
+-- Stock movement ledger (applied at startup when products.stock-ledger.enabled=true).
+-- Append-only: one row per quantity change, partitioned by month (stock_movements_pYYYYMM,
+-- created ahead of time by StockLedgerMaintenance); the default partition only catches
+-- rows outside the prepared months.
+CREATE TABLE IF NOT EXISTS stock_movements (
+    id BIGSERIAL,
+    product_id BIGINT NOT NULL,
+    occurred_at TIMESTAMP NOT NULL,
+    -- Writing transaction: a snapshot round covers the transactions that had finished when it was taken
+    txid BIGINT NOT NULL DEFAULT txid_current(),
+    delta INTEGER NOT NULL,
+    quantity INTEGER NOT NULL,
+    reason VARCHAR(16) NOT NULL
+) PARTITION BY RANGE (occurred_at);
+CREATE TABLE IF NOT EXISTS stock_movements_default PARTITION OF stock_movements DEFAULT;
+CREATE INDEX IF NOT EXISTS idx_stock_movements_product_time ON stock_movements(product_id, occurred_at, id);
+CREATE INDEX IF NOT EXISTS idx_stock_movements_product_txid ON stock_movements(product_id, txid);
+CREATE INDEX IF NOT EXISTS idx_stock_movements_txid ON stock_movements(txid);
+
+-- Quantity of every product that moved, as of the end of each snapshot round: the quantity
+-- at any time is the product's latest snapshot plus the movements of transactions at or
+-- above the latest round's horizon (every transaction below it had finished)
+CREATE TABLE IF NOT EXISTS stock_snapshots (
+    product_id BIGINT NOT NULL,
+    taken_at TIMESTAMP NOT NULL,
+    quantity INTEGER NOT NULL,
+    PRIMARY KEY (product_id, taken_at)
+);
+CREATE TABLE IF NOT EXISTS stock_snapshot_rounds (
+    taken_at TIMESTAMP PRIMARY KEY,
+    txid_horizon BIGINT NOT NULL,
+    products INTEGER NOT NULL
+);
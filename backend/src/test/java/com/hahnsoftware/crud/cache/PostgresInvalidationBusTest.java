@@ -0,0 +1,191 @@
+package com.hahnsoftware.crud.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two near-cache nodes sharing one local PostgreSQL (requires Docker)
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class PostgresInvalidationBusTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:14-alpine");
+
+    private ProductNearCache cacheA;
+    private ProductNearCache cacheB;
+    private PostgresInvalidationBus nodeA;
+    private PostgresInvalidationBus nodeB;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        cacheA = new ProductNearCache(TimeUnit.MINUTES.toNanos(1), 1000, System::nanoTime);
+        cacheB = new ProductNearCache(TimeUnit.MINUTES.toNanos(1), 1000, System::nanoTime);
+        nodeA = new PostgresInvalidationBus(cacheA, jdbcTemplate,
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword(), 200);
+        nodeB = new PostgresInvalidationBus(cacheB, jdbcTemplate,
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword(), 200);
+        nodeA.start();
+        nodeB.start();
+        waitUntil(() -> nodeA.isListening() && nodeB.isListening());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        nodeA.stop();
+        nodeB.stop();
+    }
+
+    @Test
+    void publish_ShouldInvalidateProductOnOtherNode() throws InterruptedException {
+        // Given
+        cacheB.putProduct(1L, "cached on B", cacheB.beginLoad());
+        cacheB.putProduct(2L, "other product", cacheB.beginLoad());
+
+        // When
+        nodeA.publish(1L);
+
+        // Then
+        waitUntil(() -> cacheB.getProduct(1L) == null);
+        assertEquals("other product", cacheB.getProduct(2L));
+        assertTrue(cacheB.getLastVersion() > 0);
+    }
+
+    @Test
+    void handle_WhenMessagesAreMissing_ShouldFlushCache() throws InterruptedException {
+        // Given
+        notify("remote|1|P|10|100");
+        waitUntil(() -> cacheB.getLastVersion() == 100);
+        cacheB.putProduct(2L, "cached on B", cacheB.beginLoad());
+
+        // When
+        notify("remote|3|P|11|102");
+
+        // Then
+        waitUntil(() -> cacheB.getProduct(2L) == null);
+    }
+
+    @Test
+    void handle_WhenHeartbeatIsAhead_ShouldFlushCache() throws InterruptedException {
+        // Given
+        notify("remote|1|P|10|100");
+        waitUntil(() -> cacheB.getLastVersion() == 100);
+        cacheB.putProduct(2L, "cached on B", cacheB.beginLoad());
+
+        // When
+        notify("remote|2|H");
+
+        // Then
+        waitUntil(() -> cacheB.getProduct(2L) == null);
+    }
+
+    @Test
+    void publish_ShouldReachListenersOnOtherNodeOnly() throws InterruptedException {
+        // Given
+        Set<Long> invalidatedOnA = ConcurrentHashMap.newKeySet();
+        Set<Long> invalidatedOnB = ConcurrentHashMap.newKeySet();
+        AtomicInteger flushesOnB = new AtomicInteger();
+        nodeA.addListener(listener(invalidatedOnA, new AtomicInteger()));
+        nodeB.addListener(listener(invalidatedOnB, flushesOnB));
+
+        // When
+        nodeA.publish(7L);
+        nodeA.publishFlush();
+
+        // Then
+        waitUntil(() -> invalidatedOnB.contains(7L) && flushesOnB.get() == 1);
+        assertTrue(invalidatedOnA.isEmpty());
+    }
+
+    @Test
+    void publish_ShouldInvalidateLocallyBeforeNotifying() {
+        // Given
+        cacheA.putProduct(1L, "cached on A", cacheA.beginLoad());
+
+        // When
+        nodeA.publish(1L);
+
+        // Then
+        assertNull(cacheA.getProduct(1L));
+    }
+
+    @Test
+    void publish_WithManyConcurrentWriters_ShouldNotSkipSequenceNumbers() throws InterruptedException {
+        // Given
+        Thread[] writers = new Thread[8];
+        for (int i = 0; i < writers.length; i++) {
+            cacheB.putProduct(100L + i, "cached on B", cacheB.beginLoad());
+        }
+        cacheB.putProduct(2L, "untouched", cacheB.beginLoad());
+
+        // When
+        for (int i = 0; i < writers.length; i++) {
+            long productId = 100L + i;
+            writers[i] = new Thread(() -> {
+                for (int j = 0; j < 50; j++) {
+                    nodeA.publish(productId);
+                }
+            });
+            writers[i].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        // Then
+        waitUntil(() -> {
+            for (int i = 0; i < writers.length; i++) {
+                if (cacheB.getProduct(100L + i) != null) {
+                    return false;
+                }
+            }
+            return true;
+        });
+        assertEquals("untouched", cacheB.getProduct(2L));
+    }
+
+    private static InvalidationListener listener(Set<Long> invalidated, AtomicInteger flushes) {
+        return new InvalidationListener() {
+            @Override
+            public void onInvalidated(long productId) {
+                invalidated.add(productId);
+            }
+
+            @Override
+            public void onFlush() {
+                flushes.incrementAndGet();
+            }
+        };
+    }
+
+    private void notify(String payload) {
+        jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", PostgresInvalidationBus.CHANNEL, payload);
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not reached in time");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.hahnsoftware.crud.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductNearCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final ProductNearCache cache = new ProductNearCache(1_000, 100, clock::get);
+
+    @Test
+    void putProduct_WithCurrentTicket_ShouldBeServedUntilInvalidated() {
+        // Given
+        cache.putProduct(1L, "product", cache.beginLoad());
+        cache.putList("all", List.of("product"), cache.beginLoad());
+
+        // When
+        cache.invalidate(2L, 7);
+
+        // Then
+        assertEquals("product", cache.getProduct(1L));
+        assertNull(cache.getList("all"));
+        assertEquals(7, cache.getLastVersion());
+    }
+
+    @Test
+    void putProduct_WhenInvalidatedDuringLoad_ShouldNotCache() {
+        // Given
+        long ticket = cache.beginLoad();
+
+        // When
+        cache.invalidate(1L, 1);
+        cache.putProduct(1L, "stale", ticket);
+        cache.putProduct(2L, "unaffected", ticket);
+
+        // Then
+        assertNull(cache.getProduct(1L));
+        assertEquals("unaffected", cache.getProduct(2L));
+    }
+
+    @Test
+    void putList_WhenAnythingChangedDuringLoad_ShouldNotCache() {
+        // Given
+        long ticket = cache.beginLoad();
+
+        // When
+        cache.invalidate(5L, 1);
+        cache.putList("all", List.of(), ticket);
+
+        // Then
+        assertNull(cache.getList("all"));
+    }
+
+    @Test
+    void flush_ShouldDropEntriesAndRefuseLoadsInFlight() {
+        // Given
+        long ticket = cache.beginLoad();
+        cache.putProduct(1L, "product", ticket);
+
+        // When
+        cache.flush();
+        cache.putProduct(2L, "in flight", ticket);
+
+        // Then
+        assertNull(cache.getProduct(1L));
+        assertNull(cache.getProduct(2L));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void getProduct_AfterTtl_ShouldMiss() {
+        // Given
+        cache.putProduct(1L, "product", cache.beginLoad());
+
+        // When
+        clock.addAndGet(1_001);
+
+        // Then
+        assertNull(cache.getProduct(1L));
+    }
+}
@@ -0,0 +1,214 @@
+package com.hahnsoftware.crud.catalog;
+
+import com.hahnsoftware.crud.dto.ProductDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123_456_000);
+
+    private final CatalogSnapshot snapshot = new CatalogSnapshot.Builder(4)
+            .add(product(3L, "Desk", "19.99", 5, "Furniture", T0.plusMinutes(3)))
+            .add(product(2L, "Laptop", "1299.50", 20, "Electronics", T0.plusMinutes(2)))
+            .add(product(1L, "Phone", "799.00", 2, "Electronics", T0.plusMinutes(1)))
+            .build();
+
+    @Test
+    void list_WithAllQuery_ShouldReturnNewestFirstWithValuesIntact() {
+        // When
+        List<ProductDTO> products = snapshot.list(CatalogQuery.all());
+
+        // Then
+        assertEquals(List.of(3L, 2L, 1L), products.stream().map(ProductDTO::getId).toList());
+        ProductDTO laptop = products.get(1);
+        assertEquals("Laptop", laptop.getName());
+        assertEquals(0, new BigDecimal("1299.50").compareTo(laptop.getPrice()));
+        assertEquals(20, laptop.getQuantity());
+        assertEquals("Electronics", laptop.getCategory());
+        assertEquals(T0.plusMinutes(2), laptop.getCreatedAt());
+    }
+
+    @Test
+    void list_WithCategoryAndQuantityFilter_ShouldMatchCategoryIgnoringCase() {
+        // When
+        List<ProductDTO> products = snapshot.list(
+                new CatalogQuery("electro", 10, CatalogQuery.SortField.CREATED_AT, true, 0, 10));
+
+        // Then
+        assertEquals(List.of(1L), products.stream().map(ProductDTO::getId).toList());
+    }
+
+    @Test
+    void list_WithSortAndPaging_ShouldReturnRequestedPage() {
+        // When
+        List<ProductDTO> products = snapshot.list(
+                new CatalogQuery(null, null, CatalogQuery.SortField.PRICE, false, 1, 1));
+
+        // Then
+        assertEquals(List.of(1L), products.stream().map(ProductDTO::getId).toList());
+    }
+
+    @Test
+    void patch_WithCreateUpdateAndDelete_ShouldReturnNewSnapshotAndKeepOriginal() {
+        // Given
+        Map<Long, ProductDTO> changes = new HashMap<>();
+        changes.put(4L, product(4L, "Chair", "49.00", 7, "Garden", T0.plusMinutes(4)));
+        changes.put(2L, product(2L, "Laptop Pro", "1499.00", 18, "Electronics", T0.plusMinutes(2)));
+        changes.put(3L, null);
+
+        // When
+        CatalogSnapshot patched = snapshot.patch(changes);
+
+        // Then
+        List<ProductDTO> products = patched.list(CatalogQuery.all());
+        assertEquals(List.of(4L, 2L, 1L), products.stream().map(ProductDTO::getId).toList());
+        assertEquals("Laptop Pro", products.get(1).getName());
+        assertEquals(1, patched.list(CatalogQuery.byCategory("garden")).size());
+        assertEquals(3, snapshot.size());
+        assertEquals("Laptop", snapshot.list(CatalogQuery.byCategory("electronics")).get(0).getName());
+    }
+
+    @Test
+    void patch_AcrossManyChunks_ShouldMatchRebuiltSnapshot() {
+        // Given
+        int count = CatalogSnapshot.CHUNK_SIZE * 3 + 17;
+        List<ProductDTO> expected = new ArrayList<>();
+        CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder(count);
+        for (long id = count; id >= 1; id--) {
+            ProductDTO product = product(id, "Item " + id, "1.00", (int) id, "Bulk", T0.plusSeconds(id));
+            builder.add(product);
+            expected.add(product);
+        }
+        CatalogSnapshot large = builder.build();
+
+        Map<Long, ProductDTO> changes = new HashMap<>();
+        for (long id = 1; id <= count; id += 7) {
+            changes.put(id, null);
+        }
+        for (long id = 3; id <= count; id += 11) {
+            if (!changes.containsKey(id)) {
+                changes.put(id, product(id, "Renamed " + id, "2.50", 1, "Bulk", T0.plusSeconds(id)));
+            }
+        }
+        for (long id = count + 1; id <= count + CatalogSnapshot.CHUNK_SIZE + 5; id++) {
+            changes.put(id, product(id, "New " + id, "3.00", 2, "Fresh", T0.plusSeconds(id)));
+        }
+
+        // When
+        CatalogSnapshot patched = large.patch(changes);
+
+        // Then
+        List<ProductDTO> merged = new ArrayList<>();
+        for (long id = count + CatalogSnapshot.CHUNK_SIZE + 5; id > count; id--) {
+            merged.add(changes.get(id));
+        }
+        for (ProductDTO product : expected) {
+            if (!changes.containsKey(product.getId())) {
+                merged.add(product);
+            } else if (changes.get(product.getId()) != null) {
+                merged.add(changes.get(product.getId()));
+            }
+        }
+        List<ProductDTO> actual = patched.list(CatalogQuery.all());
+        assertEquals(merged.size(), patched.size());
+        assertEquals(merged.stream().map(ProductDTO::getId).toList(), actual.stream().map(ProductDTO::getId).toList());
+        assertEquals(merged.stream().map(ProductDTO::getName).toList(), actual.stream().map(ProductDTO::getName).toList());
+        assertEquals(count, large.list(CatalogQuery.all()).size());
+    }
+
+    @Test
+    void patch_WhenSnapshotWasAlreadyPatched_ShouldStillApplyToItsOwnRows() {
+        // Given
+        snapshot.patch(Map.of(1L, product(1L, "Phone X", "899.00", 3, "Electronics", T0.plusMinutes(1))));
+        Map<Long, ProductDTO> changes = new HashMap<>();
+        changes.put(2L, null);
+
+        // When
+        CatalogSnapshot patched = snapshot.patch(changes);
+        CatalogSnapshot patchedAgain = patched.patch(Map.of(1L, product(1L, "Phone Y", "1.00", 1, null, T0.plusMinutes(1), T0.plusMinutes(9))));
+
+        // Then
+        assertEquals(List.of(3L, 1L), patched.list(CatalogQuery.all()).stream().map(ProductDTO::getId).toList());
+        assertEquals("Phone", patched.list(CatalogQuery.all()).get(1).getName());
+        assertEquals("Phone Y", patchedAgain.list(CatalogQuery.all()).get(1).getName());
+        assertNull(patchedAgain.list(CatalogQuery.all()).get(1).getCategory());
+    }
+
+    @Test
+    void patch_WhenUpdateIsOlderThanRow_ShouldKeepRow() {
+        // Given
+        CatalogSnapshot updated = snapshot.patch(Map.of(
+                1L, product(1L, "Phone X", "899.00", 3, "Electronics", T0.plusMinutes(1), T0.plusMinutes(10))));
+
+        // When
+        CatalogSnapshot patched = updated.patch(Map.of(
+                1L, product(1L, "Phone Old", "799.00", 2, "Electronics", T0.plusMinutes(1), T0.plusMinutes(5))));
+
+        // Then
+        ProductDTO phone = patched.list(CatalogQuery.all()).get(2);
+        assertEquals("Phone X", phone.getName());
+        assertEquals(T0.plusMinutes(10), phone.getUpdatedAt());
+    }
+
+    @Test
+    void list_WithEverySortField_ShouldMatchStableSortOfNewestFirstRows() {
+        // Given
+        int count = CatalogSnapshot.CHUNK_SIZE + 123;
+        List<ProductDTO> newestFirst = new ArrayList<>();
+        CatalogSnapshot.Builder builder = new CatalogSnapshot.Builder(count);
+        for (long id = count; id >= 1; id--) {
+            ProductDTO product = product(id, (id % 3 == 0 ? "item " : "Item ") + (id % 50),
+                    (id % 40) + ".25", (int) (id % 13), "Bulk", T0.plusSeconds(id / 3));
+            builder.add(product);
+            newestFirst.add(product);
+        }
+        CatalogSnapshot large = builder.build();
+        Map<CatalogQuery.SortField, Comparator<ProductDTO>> orders = Map.of(
+                CatalogQuery.SortField.NAME, Comparator.comparing(ProductDTO::getName, String.CASE_INSENSITIVE_ORDER),
+                CatalogQuery.SortField.PRICE, Comparator.comparing(ProductDTO::getPrice),
+                CatalogQuery.SortField.QUANTITY, Comparator.comparing(ProductDTO::getQuantity),
+                CatalogQuery.SortField.CREATED_AT, Comparator.comparing(ProductDTO::getCreatedAt));
+
+        for (Map.Entry<CatalogQuery.SortField, Comparator<ProductDTO>> order : orders.entrySet()) {
+            for (boolean descending : new boolean[]{false, true}) {
+                // When
+                List<ProductDTO> actual = large.list(
+                        new CatalogQuery(null, null, order.getKey(), descending, 0, Integer.MAX_VALUE));
+
+                // Then
+                List<ProductDTO> expected = new ArrayList<>(newestFirst);
+                expected.sort(descending ? order.getValue().reversed() : order.getValue());
+                assertEquals(expected.stream().map(ProductDTO::getId).toList(),
+                        actual.stream().map(ProductDTO::getId).toList(), order.getKey() + " descending=" + descending);
+            }
+        }
+    }
+
+    @Test
+    void sortFieldFromParameter_WithUnknownField_ShouldThrowException() {
+        // Then
+        assertEquals(CatalogQuery.SortField.CREATED_AT, CatalogQuery.SortField.fromParameter("createdAt"));
+        assertEquals(CatalogQuery.SortField.PRICE, CatalogQuery.SortField.fromParameter("price"));
+        assertThrows(IllegalArgumentException.class, () -> CatalogQuery.SortField.fromParameter("color"));
+    }
+
+    private static ProductDTO product(Long id, String name, String price, int quantity, String category,
+                                      LocalDateTime createdAt) {
+        return product(id, name, price, quantity, category, createdAt, createdAt);
+    }
+
+    private static ProductDTO product(Long id, String name, String price, int quantity, String category,
+                                      LocalDateTime createdAt, LocalDateTime updatedAt) {
+        return new ProductDTO(id, name, "Description", new BigDecimal(price), quantity, category, createdAt, updatedAt);
+    }
+}
@@ -0,0 +1,53 @@
+package com.hahnsoftware.crud.config;
+
+import com.hahnsoftware.crud.config.FastStartConfig.GatedFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FastStartConfigTest {
+
+    private static final List<GatedFeature> FEATURES = List.of(
+            new GatedFeature("test.on-by-default.enabled", true, String.class),
+            new GatedFeature("test.off-by-default.enabled", false, Integer.class));
+
+    @Test
+    void mismatches_WhenRuntimeMatchesBuild_ShouldBeEmpty() {
+        // Given
+        MockEnvironment environment = new MockEnvironment().withProperty("test.off-by-default.enabled", "true");
+
+        // When
+        List<String> mismatches = FastStartConfig.mismatches(environment, FEATURES,
+                type -> type == String.class || type == Integer.class);
+
+        // Then
+        assertTrue(mismatches.isEmpty(), mismatches::toString);
+    }
+
+    @Test
+    void mismatches_WhenRuntimeEnablesFeatureMissingFromBuild_ShouldReportIt() {
+        // Given
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("test.off-by-default.enabled", "true")
+                .withProperty("test.on-by-default.enabled", "false");
+
+        // When
+        List<String> mismatches = FastStartConfig.mismatches(environment, FEATURES, type -> type == String.class);
+
+        // Then
+        assertEquals(List.of("test.on-by-default.enabled=false (built with true)",
+                "test.off-by-default.enabled=true (built with false)"), mismatches);
+    }
+
+    @Test
+    void gatedFeatures_ShouldHaveDistinctProperties() {
+        // When
+        long distinct = FastStartConfig.GATED_FEATURES.stream().map(GatedFeature::property).distinct().count();
+
+        // Then
+        assertEquals(FastStartConfig.GATED_FEATURES.size(), distinct);
+    }
+}
@@ -0,0 +1,32 @@
+package com.hahnsoftware.crud.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardingConfigTest {
+
+    @Test
+    void parseNodeId_WithValueInRange_ShouldReturnIt() {
+        // Then
+        assertEquals(0, ShardingConfig.parseNodeId("0"));
+        assertEquals(1023, ShardingConfig.parseNodeId(" 1023 "));
+    }
+
+    @Test
+    void parseNodeId_WhenMissing_ShouldFailStartup() {
+        // When
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> ShardingConfig.parseNodeId(""));
+
+        // Then
+        assertTrue(error.getMessage().contains("products.sharding.node-id"));
+    }
+
+    @Test
+    void parseNodeId_WithValueOutOfRangeOrNotANumber_ShouldFailStartup() {
+        // Then
+        assertThrows(IllegalStateException.class, () -> ShardingConfig.parseNodeId("-1"));
+        assertThrows(IllegalStateException.class, () -> ShardingConfig.parseNodeId("1024"));
+        assertThrows(IllegalStateException.class, () -> ShardingConfig.parseNodeId("node-a"));
+    }
+}
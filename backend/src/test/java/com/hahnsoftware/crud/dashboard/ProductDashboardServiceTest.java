@@ -0,0 +1,131 @@
+package com.hahnsoftware.crud.dashboard;
+
+import com.hahnsoftware.crud.catalog.CatalogReadModel;
+import com.hahnsoftware.crud.dto.CategorySummaryDTO;
+import com.hahnsoftware.crud.dto.ProductDTO;
+import com.hahnsoftware.crud.service.ProductReadCoalescer;
+import com.hahnsoftware.crud.service.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProductDashboardServiceTest {
+
+    private static final long PART_TIMEOUT_MS = 2000;
+
+    private ProductService productService;
+    private ProductReadCoalescer productReadCoalescer;
+    private CatalogReadModel catalogReadModel;
+    private PlatformTransactionManager transactionManager;
+    private SimpleMeterRegistry meterRegistry;
+    private ProductDashboardService dashboardService;
+
+    @BeforeEach
+    void setUp() {
+        productService = mock(ProductService.class);
+        productReadCoalescer = mock(ProductReadCoalescer.class);
+        catalogReadModel = mock(CatalogReadModel.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        meterRegistry = new SimpleMeterRegistry();
+        dashboardService = dashboardService(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dashboardService.stop();
+    }
+
+    @Test
+    void getDashboard_ShouldRunAllPartsConcurrently() {
+        // Given
+        CyclicBarrier allPartsStarted = new CyclicBarrier(4);
+        ProductDTO product = new ProductDTO();
+        product.setId(1L);
+        when(productReadCoalescer.getAllProducts()).thenAnswer(inv -> await(allPartsStarted, List.of(product)));
+        when(productReadCoalescer.getLowStockProducts(10)).thenAnswer(inv -> await(allPartsStarted, List.of(product)));
+        when(productService.getCategorySummaries())
+                .thenAnswer(inv -> await(allPartsStarted, List.of(new CategorySummaryDTO("Tools", 1, 5))));
+        when(productService.getRecentlyUpdatedProducts(5)).thenAnswer(inv -> await(allPartsStarted, List.of(product)));
+
+        // When
+        ProductDashboardService.Dashboard dashboard = dashboardService.getDashboard(10, 5);
+
+        // Then
+        assertFalse(dashboard.isPartial(), dashboard.errors()::toString);
+        assertEquals(List.of(ProductDashboardService.PRODUCTS, ProductDashboardService.LOW_STOCK,
+                ProductDashboardService.CATEGORIES, ProductDashboardService.RECENT_CHANGES),
+                List.copyOf(dashboard.parts().keySet()));
+        assertEquals(List.of(product), dashboard.parts().get(ProductDashboardService.RECENT_CHANGES));
+        verify(transactionManager, times(4)).getTransaction(any());
+    }
+
+    @Test
+    void getDashboard_WhenPartFailsOrTimesOut_ShouldReturnOtherParts() {
+        // Given
+        dashboardService.stop();
+        dashboardService = new ProductDashboardService(productService, productReadCoalescer, catalogReadModel,
+                transactionManager, meterRegistry, 4, 8, 300, false);
+        when(productReadCoalescer.getAllProducts()).thenReturn(List.of());
+        when(productReadCoalescer.getLowStockProducts(10)).thenThrow(new IllegalStateException("boom"));
+        when(productService.getCategorySummaries()).thenAnswer(inv -> {
+            Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            return List.of();
+        });
+        when(productService.getRecentlyUpdatedProducts(10)).thenReturn(List.of());
+
+        // When
+        ProductDashboardService.Dashboard dashboard = dashboardService.getDashboard(10, 10);
+
+        // Then
+        assertTrue(dashboard.isPartial());
+        assertFalse(dashboard.isEmpty());
+        assertEquals(List.of(), dashboard.parts().get(ProductDashboardService.PRODUCTS));
+        assertEquals(List.of(), dashboard.parts().get(ProductDashboardService.RECENT_CHANGES));
+        assertNull(dashboard.parts().get(ProductDashboardService.LOW_STOCK));
+        assertNull(dashboard.parts().get(ProductDashboardService.CATEGORIES));
+        assertTrue(dashboard.errors().get(ProductDashboardService.LOW_STOCK).contains("boom"));
+        assertTrue(dashboard.errors().get(ProductDashboardService.CATEGORIES).startsWith("Timed out"));
+        assertEquals(1.0, meterRegistry.get("products.dashboard.part_failures").tag("reason", "timeout").counter().count());
+    }
+
+    @Test
+    void getDashboard_WhenSharded_ShouldNotOpenPrimaryTransactions() {
+        // Given
+        dashboardService.stop();
+        dashboardService = dashboardService(true);
+        when(productReadCoalescer.getAllProducts()).thenReturn(List.of());
+        when(productReadCoalescer.getLowStockProducts(10)).thenReturn(List.of());
+        when(productService.getCategorySummaries()).thenReturn(List.of());
+        when(productService.getRecentlyUpdatedProducts(10)).thenReturn(List.of());
+
+        // When
+        ProductDashboardService.Dashboard dashboard = dashboardService.getDashboard(10, 10);
+
+        // Then
+        assertFalse(dashboard.isPartial(), dashboard.errors()::toString);
+        verifyNoInteractions(transactionManager);
+    }
+
+    private ProductDashboardService dashboardService(boolean sharded) {
+        return new ProductDashboardService(productService, productReadCoalescer, catalogReadModel,
+                transactionManager, meterRegistry, 4, 8, PART_TIMEOUT_MS, sharded);
+    }
+
+    /**
+     * Wait until every part has started: fails unless the parts run concurrently
+     */
+    private static <T> T await(CyclicBarrier barrier, T result) throws Exception {
+        barrier.await(PART_TIMEOUT_MS / 2, TimeUnit.MILLISECONDS);
+        return result;
+    }
+}
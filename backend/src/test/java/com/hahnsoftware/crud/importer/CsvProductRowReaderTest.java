@@ -0,0 +1,96 @@
+package com.hahnsoftware.crud.importer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvProductRowReaderTest {
+
+    @Test
+    void next_WithQuotedFields_ShouldReadCommasQuotesAndLineBreaks() throws IOException {
+        // Given
+        String csv = "Name,Price,Quantity,Description,Category\r\n"
+                + "\"Desk, oak\",199.90,4,\"Says \"\"solid\"\"\nand sturdy\",Furniture\r\n"
+                + "Lamp,15,0,,\n";
+
+        // When
+        List<ImportRow> rows = readAll(csv);
+
+        // Then
+        assertEquals(2, rows.size());
+        ImportRow desk = rows.get(0);
+        assertFalse(desk.isRejected());
+        assertEquals(2, desk.getLineNumber());
+        assertEquals("Desk, oak", desk.getProduct().getName());
+        assertEquals(new BigDecimal("199.90"), desk.getProduct().getPrice());
+        assertEquals(4, desk.getProduct().getQuantity());
+        assertEquals("Says \"solid\"\nand sturdy", desk.getProduct().getDescription());
+        assertEquals("Furniture", desk.getProduct().getCategory());
+
+        ImportRow lamp = rows.get(1);
+        assertEquals(4, lamp.getLineNumber());
+        assertNull(lamp.getProduct().getDescription());
+        assertNull(lamp.getProduct().getCategory());
+    }
+
+    @Test
+    void next_WithMalformedRecords_ShouldRejectThemAndContinue() throws IOException {
+        // Given
+        String csv = "name,price,quantity\n"
+                + "Chair,abc,1\n"
+                + "Table,10\n"
+                + "\n"
+                + "Shelf,20,2\n";
+
+        // When
+        List<ImportRow> rows = readAll(csv);
+
+        // Then
+        assertEquals(3, rows.size());
+        assertEquals("Invalid price: abc", rows.get(0).getError());
+        assertEquals("Expected 3 columns but found 2", rows.get(1).getError());
+        assertEquals(5, rows.get(2).getLineNumber());
+        assertEquals("Shelf", rows.get(2).getProduct().getName());
+    }
+
+    @Test
+    void next_WithOverlongRecord_ShouldRejectItAndResumeAtNextLine() throws IOException {
+        // Given
+        String csv = "name,price,quantity\n"
+                + "\"Stray quote," + "x".repeat(CsvProductRowReader.MAX_RECORD_CHARS) + "\n"
+                + "Stool,5,1\n";
+
+        // When
+        List<ImportRow> rows = readAll(csv);
+
+        // Then
+        assertEquals(2, rows.size());
+        assertTrue(rows.get(0).isRejected());
+        assertEquals("Stool", rows.get(1).getProduct().getName());
+    }
+
+    @Test
+    void next_WithoutRequiredColumns_ShouldThrowException() {
+        // Given
+        CsvProductRowReader reader = new CsvProductRowReader(new StringReader("name,category\nDesk,Furniture\n"));
+
+        // Then
+        assertThrows(IllegalArgumentException.class, reader::next);
+    }
+
+    private static List<ImportRow> readAll(String csv) throws IOException {
+        CsvProductRowReader reader = new CsvProductRowReader(new StringReader(csv));
+        List<ImportRow> rows = new ArrayList<>();
+        ImportRow row;
+        while ((row = reader.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,65 @@
+package com.hahnsoftware.crud.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NdjsonProductRowReaderTest {
+
+    @Test
+    void next_WithValidAndInvalidLines_ShouldRejectOnlyTheInvalidOnes() throws IOException {
+        // Given
+        String ndjson = "{\"name\":\"Desk\",\"price\":199.90,\"quantity\":4}\r\n"
+                + "\n"
+                + "{not json}\n"
+                + "null\n"
+                + "{\"name\":\"Lamp\",\"price\":15,\"quantity\":0,\"category\":\"Lighting\"}";
+
+        // When
+        List<ImportRow> rows = readAll(ndjson);
+
+        // Then
+        assertEquals(4, rows.size());
+        assertEquals("Desk", rows.get(0).getProduct().getName());
+        assertEquals(new BigDecimal("199.90"), rows.get(0).getProduct().getPrice());
+        assertEquals(3, rows.get(1).getLineNumber());
+        assertTrue(rows.get(1).getError().startsWith("Invalid JSON"));
+        assertEquals("Expected a product object", rows.get(2).getError());
+        assertEquals(5, rows.get(3).getLineNumber());
+        assertEquals("Lighting", rows.get(3).getProduct().getCategory());
+    }
+
+    @Test
+    void next_WithOverlongLine_ShouldRejectItAndResumeAtNextLine() throws IOException {
+        // Given
+        String ndjson = "{\"name\":\"" + "x".repeat(NdjsonProductRowReader.MAX_LINE_CHARS * 5) + "\"}\n"
+                + "{\"name\":\"Stool\",\"price\":5,\"quantity\":1}\n";
+
+        // When
+        List<ImportRow> rows = readAll(ndjson);
+
+        // Then
+        assertEquals(2, rows.size());
+        assertEquals("Line exceeds " + NdjsonProductRowReader.MAX_LINE_CHARS + " characters", rows.get(0).getError());
+        assertEquals(2, rows.get(1).getLineNumber());
+        assertEquals("Stool", rows.get(1).getProduct().getName());
+    }
+
+    private static List<ImportRow> readAll(String ndjson) throws IOException {
+        NdjsonProductRowReader reader = new NdjsonProductRowReader(new StringReader(ndjson),
+                new ObjectMapper().findAndRegisterModules().reader());
+        List<ImportRow> rows = new ArrayList<>();
+        ImportRow row;
+        while ((row = reader.next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,75 @@
+package com.hahnsoftware.crud.ledger;
+
+import com.hahnsoftware.crud.dto.ProductDTO;
+import com.hahnsoftware.crud.event.ProductChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PendingMovementTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 18, 12, 0);
+
+    @Test
+    void of_WhenProductCreated_ShouldCarryInitialQuantity() {
+        // When
+        PendingMovement movement = PendingMovement.of(ProductChangedEvent.created(product(7L, 25)), NOW);
+
+        // Then
+        assertEquals(StockMovementReason.CREATED, movement.reason());
+        assertEquals(7L, movement.productId());
+        assertEquals(25, movement.quantity());
+    }
+
+    @Test
+    void of_WhenProductCreatedWithoutStock_ShouldNotMove() {
+        // When & Then
+        assertNull(PendingMovement.of(ProductChangedEvent.created(product(7L, 0)), NOW));
+    }
+
+    @Test
+    void of_WhenQuantityUpdated_ShouldCarryNewQuantity() {
+        // When
+        PendingMovement movement = PendingMovement.of(
+                ProductChangedEvent.updated(product(7L, 18), product(7L, 25)), NOW);
+
+        // Then
+        assertEquals(StockMovementReason.UPDATED, movement.reason());
+        assertEquals(18, movement.quantity());
+        assertEquals(NOW, movement.occurredAt());
+    }
+
+    @Test
+    void of_WhenPreviousQuantityIsUnchanged_ShouldStillLeaveResolutionToWriter() {
+        // Given
+        ProductDTO renamed = product(7L, 25);
+        renamed.setName("Renamed");
+
+        // When
+        PendingMovement movement = PendingMovement.of(ProductChangedEvent.updated(renamed, product(7L, 25)), NOW);
+
+        // Then
+        assertEquals(StockMovementReason.UPDATED, movement.reason());
+        assertEquals(25, movement.quantity());
+    }
+
+    @Test
+    void of_WhenDeleted_ShouldCarryNoStock() {
+        // When
+        PendingMovement deletion = PendingMovement.of(ProductChangedEvent.deleted(7L), NOW);
+
+        // Then
+        assertEquals(StockMovementReason.DELETED, deletion.reason());
+        assertEquals(7L, deletion.productId());
+        assertEquals(0, deletion.quantity());
+    }
+
+    private static ProductDTO product(Long id, int quantity) {
+        ProductDTO product = new ProductDTO("Widget", "A widget", new BigDecimal("9.99"), quantity, "Tools");
+        product.setId(id);
+        return product;
+    }
+}
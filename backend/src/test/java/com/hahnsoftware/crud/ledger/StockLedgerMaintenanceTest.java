@@ -0,0 +1,43 @@
+package com.hahnsoftware.crud.ledger;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.YearMonth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockLedgerMaintenanceTest {
+
+    @Test
+    void partitionName_ShouldRoundTripThroughPartitionMonth() {
+        // Given
+        YearMonth month = YearMonth.of(2026, 3);
+
+        // When
+        String name = StockLedgerMaintenance.partitionName(month);
+
+        // Then
+        assertEquals("stock_movements_p202603", name);
+        assertEquals(month, StockLedgerMaintenance.partitionMonth(name));
+    }
+
+    @Test
+    void partitionMonth_WhenNotAMonthlyPartition_ShouldReturnNull() {
+        // When & Then
+        assertNull(StockLedgerMaintenance.partitionMonth("stock_movements_default"));
+        assertNull(StockLedgerMaintenance.partitionMonth("stock_movements_p202613"));
+        assertNull(StockLedgerMaintenance.partitionMonth("products"));
+    }
+
+    @Test
+    void isExpired_ShouldKeepCurrentAndRetainedMonths() {
+        // Given
+        YearMonth current = YearMonth.of(2026, 10);
+
+        // When & Then
+        assertFalse(StockLedgerMaintenance.isExpired(current, current, 2));
+        assertFalse(StockLedgerMaintenance.isExpired(YearMonth.of(2026, 8), current, 2));
+        assertTrue(StockLedgerMaintenance.isExpired(YearMonth.of(2026, 7), current, 2));
+        assertTrue(StockLedgerMaintenance.isExpired(YearMonth.of(2025, 12), current, 2));
+    }
+}
@@ -0,0 +1,281 @@
+package com.hahnsoftware.crud.ledger;
+
+import com.hahnsoftware.crud.dto.ProductDTO;
+import com.hahnsoftware.crud.dto.StockLevelDTO;
+import com.hahnsoftware.crud.dto.StockMovementDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hahnsoftware.crud.event.ProductChangedEvent;
+import com.hahnsoftware.crud.importer.ImportFormat;
+import com.hahnsoftware.crud.importer.ImportJob;
+import com.hahnsoftware.crud.importer.ProductImportService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Stock ledger writes, snapshot rounds and replay against a local PostgreSQL (requires Docker)
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class StockLedgerTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:14-alpine");
+
+    private static final LocalDateTime FAR_PAST = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private static final LocalDateTime FAR_FUTURE = LocalDateTime.of(2100, 1, 1, 0, 0);
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private StockLedgerMaintenance maintenance;
+    private StockLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS stock_movements, stock_snapshots, stock_snapshot_rounds, products CASCADE");
+        jdbcTemplate.execute("CREATE TABLE products (id BIGSERIAL PRIMARY KEY, name VARCHAR(255) NOT NULL, "
+                + "description TEXT, price DECIMAL(10,2) NOT NULL, quantity INTEGER NOT NULL DEFAULT 0, "
+                + "category VARCHAR(100), created_at TIMESTAMP, updated_at TIMESTAMP)");
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        meterRegistry = new SimpleMeterRegistry();
+
+        maintenance = new StockLedgerMaintenance(jdbcTemplate, transactionTemplate, meterRegistry, true, 0, false);
+        ledger = new StockLedger(jdbcTemplate, transactionTemplate, maintenance, meterRegistry, true, 5, 100, 1000);
+        ledger.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ledger.shutdown();
+    }
+
+    @Test
+    void start_ShouldPartitionMovementsByMonth() {
+        // When
+        List<String> partitions = jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i "
+                + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'stock_movements'::regclass", String.class);
+
+        // Then
+        assertTrue(partitions.contains(StockLedgerMaintenance.partitionName(YearMonth.now())));
+        assertTrue(partitions.contains(StockLedgerMaintenance.partitionName(YearMonth.now().plusMonths(1))));
+    }
+
+    @Test
+    void onProductChanged_ShouldAppendEveryQuantityChange() throws InterruptedException {
+        // When
+        change(ProductChangedEvent.created(product(1L, 10)));
+        change(ProductChangedEvent.updated(product(1L, 7), product(1L, 10)));
+        change(ProductChangedEvent.updated(product(1L, 7), product(1L, 7)));
+        change(ProductChangedEvent.updated(product(1L, 12), product(1L, 7)));
+        change(ProductChangedEvent.deleted(1L));
+
+        // Then
+        waitUntil(() -> history(1L).size() == 4);
+        List<StockMovementDTO> history = history(1L);
+        assertEquals(List.of(10, -3, 5, -12), history.stream().map(StockMovementDTO::getDelta).toList());
+        assertEquals(List.of(10, 7, 12, 0), history.stream().map(StockMovementDTO::getQuantity).toList());
+        assertEquals("DELETED", history.get(3).getReason());
+    }
+
+    @Test
+    void onProductChanged_WhenPreviousQuantityIsStale_ShouldResolveAgainstLedger() throws InterruptedException {
+        // Given
+        change(ProductChangedEvent.created(product(7L, 10)));
+        // Two writers read 10: the first stores 15, the second (a rename) writes back 10
+        change(ProductChangedEvent.updated(product(7L, 15), product(7L, 10)));
+
+        // When
+        change(ProductChangedEvent.updated(product(7L, 10), product(7L, 10)));
+
+        // Then
+        waitUntil(() -> history(7L).size() == 3);
+        assertEquals(List.of(10, 5, -5), history(7L).stream().map(StockMovementDTO::getDelta).toList());
+        assertEquals(10, ledger.getStockAt(7L, LocalDateTime.now()).getQuantity());
+    }
+
+    @Test
+    void takeSnapshot_ShouldReconcileLostMovements() throws InterruptedException {
+        // Given
+        jdbcTemplate.update("INSERT INTO products (id, name, price, quantity) VALUES (8, 'Widget 8', 9.99, 9)");
+        change(ProductChangedEvent.created(product(9L, 4)));
+        waitUntil(() -> history(9L).size() == 1);
+        jdbcTemplate.update("DELETE FROM products WHERE id = 9");
+
+        // When
+        maintenance.takeSnapshot();
+
+        // Then
+        assertEquals(9, ledger.getStockAt(8L, LocalDateTime.now()).getQuantity());
+        assertEquals("RECONCILED", history(8L).get(0).getReason());
+        assertEquals(0, ledger.getStockAt(9L, LocalDateTime.now()).getQuantity());
+        assertEquals(2.0, meterRegistry.get("products.stock_ledger.reconciled").counter().count());
+    }
+
+    @Test
+    void getStockAt_ShouldReplayMovementsSinceLatestSnapshotRound() throws InterruptedException {
+        // Given
+        change(ProductChangedEvent.created(product(2L, 10)));
+        change(ProductChangedEvent.updated(product(2L, 4), product(2L, 10)));
+        waitUntil(() -> history(2L).size() == 2);
+        LocalDateTime beforeRound = history(2L).get(0).getOccurredAt();
+        assertEquals(1, maintenance.takeSnapshot());
+        LocalDateTime round = maintenance.latestRound(null).takenAt();
+        change(ProductChangedEvent.updated(product(2L, 9), product(2L, 4)));
+        waitUntil(() -> history(2L).size() == 3);
+
+        // When
+        StockLevelDTO now = ledger.getStockAt(2L, LocalDateTime.now());
+        StockLevelDTO atRound = ledger.getStockAt(2L, round);
+        StockLevelDTO early = ledger.getStockAt(2L, beforeRound);
+
+        // Then
+        assertEquals(9, now.getQuantity());
+        assertEquals(round, now.getSnapshotAt());
+        assertEquals(1, now.getReplayedMovements());
+        assertEquals(4, atRound.getQuantity());
+        assertEquals(0, atRound.getReplayedMovements());
+        assertEquals(10, early.getQuantity());
+        assertNull(early.getSnapshotAt());
+    }
+
+    @Test
+    void takeSnapshot_ShouldOnlySnapshotProductsThatMoved() throws InterruptedException {
+        // Given
+        change(ProductChangedEvent.created(product(3L, 5)));
+        change(ProductChangedEvent.created(product(4L, 6)));
+        waitUntil(() -> history(4L).size() == 1);
+        assertEquals(2, maintenance.takeSnapshot());
+        change(ProductChangedEvent.updated(product(3L, 8), product(3L, 5)));
+        waitUntil(() -> history(3L).size() == 2);
+
+        // When
+        int snapshotted = maintenance.takeSnapshot();
+
+        // Then
+        assertEquals(1, snapshotted);
+        assertEquals(8, ledger.getStockAt(3L, LocalDateTime.now()).getQuantity());
+        assertEquals(6, ledger.getStockAt(4L, LocalDateTime.now()).getQuantity());
+        assertEquals(0, maintenance.takeSnapshot());
+    }
+
+    @Test
+    void takeSnapshot_WhenMovementCommitsAfterRound_ShouldCoverItInNextRound() throws InterruptedException {
+        // Given
+        LocalDateTime occurredAt = LocalDateTime.now().minusMinutes(5);
+        maintenance.takeSnapshot();
+        change(ProductChangedEvent.created(product(5L, 10)));
+        waitUntil(() -> history(5L).size() == 1);
+        jdbcTemplate.update("UPDATE stock_movements SET occurred_at = ? WHERE product_id = 5", occurredAt);
+
+        // When
+        int snapshotted = maintenance.takeSnapshot();
+
+        // Then
+        assertEquals(1, snapshotted);
+        assertEquals(10, ledger.getStockAt(5L, LocalDateTime.now()).getQuantity());
+        assertEquals(0, ledger.getStockAt(5L, LocalDateTime.now()).getReplayedMovements());
+    }
+
+    @Test
+    void onProductChanged_WhenWriteFails_ShouldRetryBatch() throws InterruptedException {
+        // Given
+        jdbcTemplate.execute("ALTER TABLE stock_movements RENAME TO stock_movements_offline");
+        change(ProductChangedEvent.created(product(6L, 3)));
+        waitUntil(() -> meterRegistry.get("products.stock_ledger.failed_writes").counter().count() >= 1);
+
+        // When
+        jdbcTemplate.execute("ALTER TABLE stock_movements_offline RENAME TO stock_movements");
+
+        // Then
+        waitUntil(() -> history(6L).size() == 1);
+        assertEquals(3, history(6L).get(0).getDelta());
+        assertEquals(0.0, meterRegistry.get("products.stock_ledger.dropped").counter().count());
+    }
+
+    @Test
+    void importProducts_ShouldMoveImportedProductsByTheirChange() throws InterruptedException {
+        // Given
+        jdbcTemplate.update("INSERT INTO products (name, price, quantity) VALUES ('Hammer', 9.99, 10), ('Wrench', 4.50, 7)");
+        ProductImportService importService = new ProductImportService(dataSource, jdbcTemplate, transactionTemplate,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(), event -> { },
+                meterRegistry, 1, 10, 10, false, true);
+        String csv = "name,price,quantity\nHammer,9.99,15\nWrench,4.50,7\nSaw,19.00,3\nFile,2.00,0\n";
+
+        // When
+        ImportJob job = importService.importProducts(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                ImportFormat.CSV, "stock.csv").join();
+        waitUntil(job::isFinished);
+        assertEquals(ImportJob.Status.COMPLETED, job.getStatus());
+        jdbcTemplate.update("UPDATE products SET quantity = 99");
+
+        // Then
+        List<StockMovementDTO> hammer = history(productId("Hammer"));
+        assertEquals(1, hammer.size());
+        assertEquals(5, hammer.get(0).getDelta());
+        assertEquals(15, hammer.get(0).getQuantity());
+        assertEquals("IMPORTED", hammer.get(0).getReason());
+        assertTrue(history(productId("Wrench")).isEmpty());
+        assertEquals(3, history(productId("Saw")).get(0).getDelta());
+        assertTrue(history(productId("File")).isEmpty());
+    }
+
+    /**
+     * Apply a product write to the products table, then report it to the ledger
+     */
+    private void change(ProductChangedEvent event) {
+        ProductDTO product = event.getProduct();
+        if (product == null) {
+            jdbcTemplate.update("DELETE FROM products WHERE id = ?", event.getProductId());
+        } else {
+            jdbcTemplate.update("INSERT INTO products (id, name, price, quantity) VALUES (?, ?, ?, ?) "
+                            + "ON CONFLICT (id) DO UPDATE SET quantity = EXCLUDED.quantity",
+                    product.getId(), product.getName(), product.getPrice(), product.getQuantity());
+        }
+        ledger.onProductChanged(event);
+    }
+
+    private List<StockMovementDTO> history(long productId) {
+        return ledger.getHistory(productId, FAR_PAST, FAR_FUTURE, 100);
+    }
+
+    private long productId(String name) {
+        return jdbcTemplate.queryForObject("SELECT id FROM products WHERE name = ?", Long.class, name);
+    }
+
+    private static ProductDTO product(Long id, int quantity) {
+        ProductDTO product = new ProductDTO("Widget " + id, "A widget", new BigDecimal("9.99"), quantity, "Tools");
+        product.setId(id);
+        return product;
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met in time");
+            Thread.sleep(20);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.hahnsoftware.crud.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(200);
+
+    @Test
+    void tryAcquire_WhenLimitReached_ShouldReject() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 2, 1, 10);
+
+        // When
+        int first = limiter.tryAcquire();
+        int second = limiter.tryAcquire();
+        int third = limiter.tryAcquire();
+
+        // Then
+        assertEquals(1, first);
+        assertEquals(2, second);
+        assertEquals(-1, third);
+        limiter.release(first, FAST, false);
+        assertTrue(limiter.tryAcquire() > 0);
+    }
+
+    @Test
+    void release_WhenSaturatedWithStableLatency_ShouldIncreaseLimit() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 10, 1, 100);
+
+        // When
+        runSaturated(limiter, FAST, 50);
+
+        // Then
+        assertTrue(limiter.getLimit() > 10);
+    }
+
+    @Test
+    void release_WhenLatencyRises_ShouldDecreaseLimit() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 50, 1, 100);
+        runSaturated(limiter, FAST, 20);
+        int limitBeforeSlowdown = limiter.getLimit();
+
+        // When
+        runSaturated(limiter, SLOW, 20);
+
+        // Then
+        assertTrue(limiter.getLimit() < limitBeforeSlowdown);
+    }
+
+    @Test
+    void release_WhenRequestsFail_ShouldBackOffToMinimum() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 50, 5, 100);
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            int inFlight = limiter.tryAcquire();
+            limiter.release(inFlight, FAST, true);
+        }
+
+        // Then
+        assertEquals(5, limiter.getLimit());
+    }
+
+    @Test
+    void release_WhenNotSaturated_ShouldKeepLimit() {
+        // Given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("test", 40, 1, 100);
+
+        // When
+        for (int i = 0; i < 500; i++) {
+            int inFlight = limiter.tryAcquire();
+            limiter.release(inFlight, FAST, false);
+        }
+
+        // Then
+        assertEquals(40, limiter.getLimit());
+    }
+
+    /**
+     * Fill the limiter up to its current limit, then release everything, for the given rounds
+     */
+    private static void runSaturated(AdaptiveConcurrencyLimiter limiter, long rttNanos, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = limiter.getLimit();
+            int[] slots = new int[acquired];
+            for (int i = 0; i < acquired; i++) {
+                slots[i] = limiter.tryAcquire();
+            }
+            for (int slot : slots) {
+                limiter.release(slot, rttNanos, false);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.hahnsoftware.crud.limit;
+
+import com.hahnsoftware.crud.config.CorsConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitFilterTest {
+
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(new SimpleMeterRegistry(),
+            new CorsConfig().corsConfigurationSource(), 1, 1, 1, 1, 1, 1, 2);
+
+    @Test
+    void doFilter_WhenOverLimit_ShouldRejectWithCorsHeaders() throws Exception {
+        // Given
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+
+        // When: a second read arrives while the only slot is taken
+        filter.doFilter(request(), new MockHttpServletResponse(),
+                (request, response) -> filter.doFilter(request(), rejected, (req, res) -> fail("Should be rejected")));
+
+        // Then
+        assertEquals(503, rejected.getStatus());
+        assertEquals("2", rejected.getHeader("Retry-After"));
+        assertEquals("http://localhost:3000", rejected.getHeader("Access-Control-Allow-Origin"));
+        assertTrue(rejected.getHeader("Access-Control-Expose-Headers").contains("Retry-After"));
+        assertTrue(rejected.getContentAsString().contains("overloaded"));
+    }
+
+    @Test
+    void doFilter_WhenUnderLimit_ShouldPassRequestOn() throws Exception {
+        // Given
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        boolean[] passed = new boolean[1];
+
+        // When
+        filter.doFilter(request(), response, (req, res) -> passed[0] = true);
+
+        // Then
+        assertTrue(passed[0]);
+        assertEquals(200, response.getStatus());
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.addHeader("Origin", "http://localhost:3000");
+        return request;
+    }
+}
@@ -0,0 +1,113 @@
+package com.hahnsoftware.crud.replay;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrafficCaptureFileTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void encode_ShouldRoundTripThroughParse() {
+        // Given
+        CapturedRequest lookup = new CapturedRequest(1500, "POST", "/api/products/lookup", 200, 870,
+                "{\"ids\":[1,2,\t3]}");
+        CapturedRequest search = new CapturedRequest(20, "GET", "/api/products/search?q=usb%20hub", 200, 1200, null);
+
+        // When & Then
+        assertEquals(lookup, CapturedRequest.parse(lookup.encode()));
+        assertEquals(search, CapturedRequest.parse(search.encode()));
+    }
+
+    @Test
+    void parse_WhenLineIsMalformed_ShouldThrowException() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> CapturedRequest.parse("1\tGET\t/api/products"));
+        assertThrows(IllegalArgumentException.class, () -> CapturedRequest.parse("x\tGET\t/api/products\t200\t1\t-"));
+    }
+
+    @Test
+    void read_ShouldReturnRequestsOfEveryCaptureSession() throws Exception {
+        // Given
+        Path file = tempDir.resolve("capture.tsv.gz");
+        capture(file, new CapturedRequest(0, "GET", "/api/products", 200, 500, null));
+        capture(file, new CapturedRequest(0, "GET", "/api/products/7", 404, 300, null));
+
+        // When
+        List<CapturedRequest> requests = TrafficCaptureFile.read(file);
+
+        // Then
+        assertEquals(List.of("/api/products", "/api/products/7"), requests.stream().map(CapturedRequest::path).toList());
+    }
+
+    @Test
+    void capture_WhenMaxBytesReached_ShouldStopCapturing() throws Exception {
+        // Given
+        Path file = tempDir.resolve("small.tsv.gz");
+        TrafficCaptureWriter writer = new TrafficCaptureWriter(file, 10, 100);
+        writer.start();
+
+        // When
+        writer.capture(new CapturedRequest(0, "GET", "/api/products", 200, 500, null));
+        writer.capture(new CapturedRequest(1, "GET", "/api/products", 200, 500, null));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (writer.isCapturing() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        writer.close();
+
+        // Then
+        assertFalse(writer.isCapturing());
+        assertEquals(1, TrafficCaptureFile.read(file).size());
+    }
+
+    @Test
+    void isReplayable_ShouldOnlyAcceptReads() {
+        // When & Then
+        assertTrue(TrafficCaptureFilter.isReplayable("GET", "/api/products/low-stock?threshold=5"));
+        assertTrue(TrafficCaptureFilter.isReplayable("POST", "/api/products/lookup"));
+        assertFalse(TrafficCaptureFilter.isReplayable("POST", "/api/products"));
+        assertFalse(TrafficCaptureFilter.isReplayable("PUT", "/api/products/1"));
+        assertFalse(TrafficCaptureFilter.isReplayable("DELETE", "/api/products/1"));
+    }
+
+    @Test
+    void redact_ShouldMaskFreeTextAndKeepStructuralParameters() {
+        // When & Then
+        assertEquals("/api/products/search?q=xxx+xxx0", TrafficCaptureFilter.redact("/api/products/search", "q=usb%20hub2"));
+        assertEquals("/api/products/suggest?prefix=xxx-x&limit=5",
+                TrafficCaptureFilter.redact("/api/products/suggest", "prefix=j%C3%B6n%40x&limit=5"));
+        assertEquals("/api/products/catalog?category=xxxxxx&sort=price&offset=50",
+                TrafficCaptureFilter.redact("/api/products/catalog", "category=garden&sort=price&offset=50"));
+        assertEquals("/api/products/category/xxxxxx%20xxxx",
+                TrafficCaptureFilter.redact("/api/products/category/Garden%20Toys", null));
+        assertEquals("/api/products?ids=1,2,3", TrafficCaptureFilter.redact("/api/products", "ids=1,2,3"));
+        assertEquals("/api/products/7", TrafficCaptureFilter.redact("/api/products/7", null));
+    }
+
+    @Test
+    void lookupIds_ShouldKeepOnlyNumericIds() {
+        // Given
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        // When & Then
+        assertEquals("{\"ids\":[1,2]}", TrafficCaptureFilter.lookupIds(objectMapper,
+                "{\"ids\":[1,\"alice@example.com\",2],\"note\":\"secret\"}".getBytes(StandardCharsets.UTF_8)));
+        assertEquals("{}", TrafficCaptureFilter.lookupIds(objectMapper, "not json".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static void capture(Path file, CapturedRequest request) throws InterruptedException {
+        TrafficCaptureWriter writer = new TrafficCaptureWriter(file, 1_000_000, 100);
+        writer.start();
+        writer.capture(request);
+        writer.close();
+    }
+}
@@ -0,0 +1,142 @@
+package com.hahnsoftware.crud.replay;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrafficReplayerTest {
+
+    private static final long SLOW_RESPONSE_MILLIS = 200;
+
+    private HttpServer server;
+    private final Queue<String> received = new ConcurrentLinkedQueue<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            if (exchange.getRequestURI().getPath().endsWith("/slow")) {
+                // One dispatcher thread: slow requests queue behind each other
+                try {
+                    Thread.sleep(SLOW_RESPONSE_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            received.add(exchange.getRequestMethod() + " " + exchange.getRequestURI() + " " + body + " "
+                    + exchange.getRequestHeaders().getFirst(TrafficReplayer.REPLAY_HEADER));
+            int status = exchange.getRequestURI().getPath().endsWith("/fail") ? 500
+                    : exchange.getRequestURI().getPath().endsWith("/missing") ? 404 : 200;
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void replay_ShouldSendCapturedRequestsInOrderUntilLimit() throws InterruptedException {
+        // Given
+        List<CapturedRequest> requests = List.of(
+                new CapturedRequest(0, "GET", "/api/products?ids=1,2", 200, 100, null),
+                new CapturedRequest(5, "POST", "/api/products/lookup", 200, 100, "{\"ids\":[3]}"));
+
+        // When
+        ReplayReport report = replayer().replay(requests, 1, Duration.ofSeconds(10), 4);
+
+        // Then
+        assertEquals(4, report.requests());
+        assertEquals(0, report.errors());
+        assertEquals(List.of(
+                "GET /api/products?ids=1,2  test",
+                "POST /api/products/lookup {\"ids\":[3]} test",
+                "GET /api/products?ids=1,2  test",
+                "POST /api/products/lookup {\"ids\":[3]} test"), List.copyOf(received));
+        assertTrue(report.p50Micros() <= report.p99Micros());
+        assertTrue(report.p99Micros() <= report.maxMicros());
+    }
+
+    @Test
+    void replay_ShouldCountOnlyServerErrorsAsErrors() throws InterruptedException {
+        // Given
+        List<CapturedRequest> requests = List.of(
+                new CapturedRequest(0, "GET", "/api/products/fail", 500, 100, null),
+                new CapturedRequest(0, "GET", "/api/products/missing", 404, 100, null));
+
+        // When
+        ReplayReport report = replayer().replay(requests, 2, Duration.ofSeconds(10), 10);
+
+        // Then
+        assertEquals(10, report.requests());
+        assertEquals(5, report.errors());
+    }
+
+    @Test
+    void replayPaced_ShouldSendInOffsetOrderAtScaledPace() throws InterruptedException {
+        // Given
+        List<CapturedRequest> requests = List.of(
+                new CapturedRequest(400, "GET", "/api/products/2", 200, 100, null),
+                new CapturedRequest(0, "GET", "/api/products/1", 200, 100, null));
+
+        // When
+        ReplayReport report = replayer().replayPaced(requests, 2, 4, Duration.ofSeconds(10), 2);
+
+        // Then
+        assertEquals(2, report.requests());
+        assertEquals(0, report.errors());
+        assertEquals(List.of("GET /api/products/1  test", "GET /api/products/2  test"), List.copyOf(received));
+        assertTrue(report.elapsed().toMillis() >= 200, "Second request sent before its offset");
+    }
+
+    @Test
+    void replayPaced_WhenResponsesQueue_ShouldMeasureFromIntendedSendTime() throws InterruptedException {
+        // Given
+        List<CapturedRequest> requests = List.of(
+                new CapturedRequest(0, "GET", "/api/products/slow", 200, 100, null),
+                new CapturedRequest(10, "GET", "/api/products/slow", 200, 100, null),
+                new CapturedRequest(20, "GET", "/api/products/slow", 200, 100, null));
+
+        // When
+        ReplayReport report = replayer().replayPaced(requests, 1, 1, Duration.ofSeconds(10), 3);
+
+        // Then
+        assertEquals(3, report.requests());
+        // The last request waited for two slow responses before it could even be sent
+        assertTrue(report.maxMicros() >= (3 * SLOW_RESPONSE_MILLIS - 50) * 1000,
+                "Latency excludes time spent waiting to be sent: " + report.maxMicros() + " µs");
+    }
+
+    @Test
+    void percentileMicros_ShouldUseNearestRank() {
+        // Given
+        long[] sortedNanos = new long[100];
+        for (int i = 0; i < sortedNanos.length; i++) {
+            sortedNanos[i] = (i + 1) * 1_000L;
+        }
+
+        // When & Then
+        assertEquals(50, ReplayReport.percentileMicros(sortedNanos, 0.50));
+        assertEquals(99, ReplayReport.percentileMicros(sortedNanos, 0.99));
+        assertEquals(0, ReplayReport.percentileMicros(new long[0], 0.99));
+    }
+
+    private TrafficReplayer replayer() {
+        return new TrafficReplayer("http://localhost:" + server.getAddress().getPort() + "/", "test");
+    }
+}
@@ -0,0 +1,444 @@
+package com.hahnsoftware.crud.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hahnsoftware.crud.dto.ProductDTO;
+import com.hahnsoftware.crud.repository.RecordingDataSource.RecordedStatement;
+import com.hahnsoftware.crud.service.ProductService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Query plans and statement counts of every ProductRepository and ProductService query,
+ * against schema.sql on a local PostgreSQL seeded with 200k products (requires Docker).
+ *
+ * Each query runs through the real repository; the statements it sent are then
+ * re-run with EXPLAIN (ANALYZE, BUFFERS) and checked for the expected index, no
+ * sequential scan of products, and budgets for rows read and buffers touched.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(showSql = false, properties = "spring.jpa.hibernate.ddl-auto=none")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ProductService.class, ProductQueryPlanTest.RecordingConfig.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductQueryPlanTest {
+
+    private static final int PRODUCT_COUNT = 200_000;
+    private static final long POINT_BUFFER_BUDGET = 16;
+    private static final long WRITE_BUFFER_BUDGET = 128;
+    private static final Set<String> SCAN_NODES = Set.of("Seq Scan", "Index Scan", "Index Only Scan", "Bitmap Heap Scan");
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:14-alpine");
+
+    private static long tablePages;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private RecordingDataSource recordingDataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TestConfiguration
+    static class RecordingConfig {
+        @Bean
+        static BeanPostProcessor recordingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof RecordingDataSource)
+                            ? new RecordingDataSource(dataSource)
+                            : bean;
+                }
+            };
+        }
+    }
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+    }
+
+    @BeforeAll
+    static void createAndSeedSchema() throws Exception {
+        // schema.sql is a psql script: drop its CREATE DATABASE and \c lines
+        String schema = new ClassPathResource("schema.sql").getContentAsString(StandardCharsets.UTF_8).lines()
+                .filter(line -> !line.startsWith("\\") && !line.endsWith("\\gexec")
+                        && !line.startsWith("SELECT 'CREATE DATABASE"))
+                .collect(Collectors.joining("\n"));
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute(schema);
+            statement.execute("INSERT INTO products (name, description, price, quantity, category, created_at, updated_at) "
+                    + "SELECT 'Product ' || i, 'Sample description ' || md5(i::text), (i % 500) + 0.99, "
+                    + "CASE WHEN i % 1000 = 0 THEN (i / 1000) % 5 ELSE 10 + i % 1000 END, 'Dept ' || (i % 2000), "
+                    + "LOCALTIMESTAMP - i * INTERVAL '1 second', LOCALTIMESTAMP - i * INTERVAL '1 second' "
+                    + "FROM generate_series(1, " + PRODUCT_COUNT + ") AS i");
+            statement.execute("VACUUM ANALYZE products");
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT pg_relation_size('products') / current_setting('block_size')::int")) {
+                rs.next();
+                tablePages = rs.getLong(1);
+            }
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        recordingDataSource.clear();
+    }
+
+    @Test
+    void getProductById_ShouldUsePrimaryKeyInOneStatement() throws Exception {
+        // Given
+        long id = idOf("Product 4242");
+
+        // When
+        List<RecordedStatement> statements = record(() -> productService.getProductById(id));
+
+        // Then
+        assertEquals(1, statements.size());
+        assertIndexScan(statements.get(0), "products_pkey", 1, POINT_BUFFER_BUDGET);
+    }
+
+    @Test
+    void getProductsByIds_ShouldUsePrimaryKeyInOneStatement() throws Exception {
+        // Given
+        List<Long> ids = List.of(idOf("Product 11"), idOf("Product 22"), idOf("Product 33"), -1L);
+
+        // When
+        List<RecordedStatement> statements = record(() -> productService.getProductsByIds(ids));
+
+        // Then
+        assertEquals(1, statements.size());
+        assertIndexScan(statements.get(0), "products_pkey", 3, POINT_BUFFER_BUDGET * 4);
+    }
+
+    @Test
+    void searchProducts_ShouldUseNameAndDescriptionTrigramIndexes() throws Exception {
+        // When
+        List<RecordedStatement> statements = record(() -> productService.searchProducts("product 1234"));
+
+        // Then
+        assertEquals(1, statements.size());
+        JsonNode plan = assertIndexScan(statements.get(0), "idx_products_name_trgm", 200, selectiveBufferBudget());
+        assertTrue(indexesUsed(plan).contains("idx_products_description_trgm"), plan::toString);
+    }
+
+    @Test
+    void getProductsByCategory_ShouldUseCategoryTrigramIndex() throws Exception {
+        // When
+        List<RecordedStatement> statements = record(() -> productService.getProductsByCategory("dept 1234"));
+
+        // Then
+        assertEquals(1, statements.size());
+        assertIndexScan(statements.get(0), "idx_products_category_trgm", 200, selectiveBufferBudget());
+    }
+
+    @Test
+    void getLowStockProducts_ShouldUseQuantityIndex() throws Exception {
+        // When
+        List<RecordedStatement> statements = record(() -> productService.getLowStockProducts(5));
+
+        // Then
+        assertEquals(1, statements.size());
+        assertIndexScan(statements.get(0), "idx_products_quantity", 300, selectiveBufferBudget());
+    }
+
+    @Test
+    void getAllProducts_ShouldReadEachProductOnceInOneStatement() throws Exception {
+        // When
+        List<RecordedStatement> statements = record(() -> productService.getAllProducts());
+
+        // Then
+        assertEquals(1, statements.size());
+        assertFullScan(statements.get(0));
+    }
+
+    @Test
+    void getRecentlyUpdatedProducts_ShouldReadOnlyTheNewestThroughUpdatedAtIndex() throws Exception {
+        // When
+        List<RecordedStatement> statements = record(() -> productService.getRecentlyUpdatedProducts(10));
+
+        // Then
+        assertEquals(1, statements.size());
+        assertIndexScan(statements.get(0), "idx_products_updated_at", 10, POINT_BUFFER_BUDGET * 2);
+    }
+
+    @Test
+    void getCategorySummaries_ShouldReadEachProductOnceInOneStatement() throws Exception {
+        // When
+        List<RecordedStatement> statements = record(() -> productService.getCategorySummaries());
+
+        // Then
+        assertEquals(1, statements.size());
+        assertFullScan(statements.get(0));
+    }
+
+    @Test
+    void createProduct_ShouldCheckNameThroughUpperNameIndexAndInsertOnce() throws Exception {
+        // When
+        List<RecordedStatement> statements = record(() -> productService.createProduct(
+                new ProductDTO("Plan Check Single", null, new BigDecimal("9.99"), 3, "Dept 1")));
+
+        // Then
+        assertEquals(2, statements.size(), "name check and insert");
+        assertIndexScan(statements.get(0), "idx_products_upper_name", 1, POINT_BUFFER_BUDGET);
+        assertWrite(statements.get(1));
+    }
+
+    @Test
+    void createProducts_ShouldCheckAllNamesAndInsertInTwoStatements() throws Exception {
+        // When
+        List<RecordedStatement> statements = record(() -> productService.createProducts(List.of(
+                new ProductDTO("Plan Check Group 1", null, new BigDecimal("1.00"), 1, "Dept 1"),
+                new ProductDTO("Plan Check Group 2", null, new BigDecimal("2.00"), 2, "Dept 2"),
+                new ProductDTO("Product 77", null, new BigDecimal("3.00"), 3, "Dept 3"))));
+
+        // Then
+        assertEquals(2, statements.size(), "one name check and one multi-row insert for the group");
+        assertIndexScan(statements.get(0), "idx_products_upper_name", 3, POINT_BUFFER_BUDGET * 3);
+        assertWrite(statements.get(1));
+    }
+
+    @Test
+    void updateProduct_WhenRenamed_ShouldLoadCheckNameAndUpdate() throws Exception {
+        // Given
+        long id = idOf("Product 777");
+
+        // When
+        List<RecordedStatement> statements = record(() -> productService.updateProduct(id,
+                new ProductDTO("Product 777 Renamed", "Renamed", new BigDecimal("7.77"), 7, "Dept 7")));
+
+        // Then
+        assertEquals(3, statements.size(), "load, name check and update");
+        assertIndexScan(statements.get(0), "products_pkey", 1, POINT_BUFFER_BUDGET);
+        assertIndexScan(statements.get(1), "idx_products_upper_name", 1, POINT_BUFFER_BUDGET);
+        assertWrite(statements.get(2));
+    }
+
+    @Test
+    void updateProduct_WhenNameUnchanged_ShouldNotCheckName() throws Exception {
+        // Given
+        long id = idOf("Product 888");
+
+        // When
+        List<RecordedStatement> statements = record(() -> productService.updateProduct(id,
+                new ProductDTO("PRODUCT 888", "Same name", new BigDecimal("8.88"), 8, "Dept 8")));
+
+        // Then
+        assertEquals(2, statements.size(), "load and update");
+        assertIndexScan(statements.get(0), "products_pkey", 1, POINT_BUFFER_BUDGET);
+        assertWrite(statements.get(1));
+    }
+
+    @Test
+    void deleteProduct_ShouldCheckAndDeleteByPrimaryKeyInTwoStatements() throws Exception {
+        // Given
+        long id = productService.createProduct(
+                new ProductDTO("Plan Check Delete", null, new BigDecimal("1.00"), 1, "Dept 1")).getId();
+        recordingDataSource.clear();
+
+        // When
+        List<RecordedStatement> statements = record(() -> productService.deleteProduct(id));
+
+        // Then
+        assertEquals(2, statements.size(), "existence check and delete, without loading the entity");
+        assertIndexScan(statements.get(0), "products_pkey", 1, POINT_BUFFER_BUDGET);
+        assertIndexScan(statements.get(1), "products_pkey", 1, WRITE_BUFFER_BUDGET);
+    }
+
+    @Test
+    void findByNameContainingIgnoreCase_ShouldUseNameTrigramIndex() throws Exception {
+        // When
+        List<RecordedStatement> statements = record(() -> productRepository.findByNameContainingIgnoreCase("product 1234"));
+
+        // Then
+        assertEquals(1, statements.size());
+        assertIndexScan(statements.get(0), "idx_products_name_trgm", 200, selectiveBufferBudget());
+    }
+
+    @Test
+    void findByCategoryIgnoreCase_ShouldUseUpperCategoryIndex() throws Exception {
+        // When
+        List<RecordedStatement> statements = record(() -> productRepository.findByCategoryIgnoreCase("dept 1234"));
+
+        // Then
+        assertEquals(1, statements.size());
+        assertIndexScan(statements.get(0), "idx_products_upper_category", 200, selectiveBufferBudget());
+    }
+
+    @Test
+    void findByQuantityGreaterThan_ShouldUseQuantityIndex() throws Exception {
+        // When
+        List<RecordedStatement> statements = record(() -> productRepository.findByQuantityGreaterThan(1000));
+
+        // Then
+        assertEquals(1, statements.size());
+        assertIndexScan(statements.get(0), "idx_products_quantity", 2_000, selectiveBufferBudget());
+    }
+
+    @Test
+    void existsByNameIgnoreCase_ShouldUseUpperNameIndex() throws Exception {
+        // When
+        List<RecordedStatement> statements = record(() -> productRepository.existsByNameIgnoreCase("product 4242"));
+
+        // Then
+        assertEquals(1, statements.size());
+        assertIndexScan(statements.get(0), "idx_products_upper_name", 1, POINT_BUFFER_BUDGET);
+    }
+
+    @Test
+    void findAllByOrderByNameAsc_ShouldReadEachProductOnce() throws Exception {
+        // When
+        List<RecordedStatement> statements = record(() -> productRepository.findAllByOrderByNameAsc());
+
+        // Then
+        assertEquals(1, statements.size());
+        assertFullScan(statements.get(0));
+    }
+
+    /**
+     * Selective queries read a small fraction of what a sequential scan reads
+     */
+    private static long selectiveBufferBudget() {
+        return tablePages / 10;
+    }
+
+    private List<RecordedStatement> record(Runnable call) {
+        recordingDataSource.clear();
+        call.run();
+        return recordingDataSource.getStatements();
+    }
+
+    private long idOf(String name) {
+        return jdbcTemplate.queryForObject("SELECT id FROM products WHERE name = ?", Long.class, name);
+    }
+
+    private JsonNode assertIndexScan(RecordedStatement statement, String index, long maxRowsRead, long maxBuffers)
+            throws Exception {
+        JsonNode plan = explain(statement);
+        String description = statement.sql() + "\n" + plan.toPrettyString();
+        assertTrue(indexesUsed(plan).contains(index), () -> "Expected index " + index + ": " + description);
+        assertFalse(nodes(plan).stream().anyMatch(node -> node.path("Node Type").asText().equals("Seq Scan")
+                && node.path("Relation Name").asText().equals("products")), () -> "Sequential scan: " + description);
+        assertTrue(rowsRead(plan) <= maxRowsRead, () -> "Read more than " + maxRowsRead + " rows: " + description);
+        assertTrue(buffers(plan) <= maxBuffers, () -> "Touched more than " + maxBuffers + " buffers: " + description);
+        return plan;
+    }
+
+    private void assertFullScan(RecordedStatement statement) throws Exception {
+        JsonNode plan = explain(statement);
+        long rowCount = jdbcTemplate.queryForObject("SELECT count(*) FROM products", Long.class);
+        assertTrue(rowsRead(plan) <= rowCount, () -> "Read rows more than once: " + plan.toPrettyString());
+    }
+
+    private void assertWrite(RecordedStatement statement) throws Exception {
+        JsonNode plan = explain(statement);
+        assertTrue(rowsRead(plan) <= 1, () -> "Write read other rows: " + plan.toPrettyString());
+        assertTrue(buffers(plan) <= WRITE_BUFFER_BUDGET,
+                () -> "Touched more than " + WRITE_BUFFER_BUDGET + " buffers: " + plan.toPrettyString());
+    }
+
+    /**
+     * Re-run a recorded statement under EXPLAIN ANALYZE, rolled back so writes leave no trace
+     */
+    private JsonNode explain(RecordedStatement statement) throws Exception {
+        try (Connection connection = connect()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement explain = connection.prepareStatement(
+                    "EXPLAIN (ANALYZE, BUFFERS, FORMAT JSON) " + statement.sql())) {
+                for (int i = 0; i < statement.parameters().size(); i++) {
+                    explain.setObject(i + 1, statement.parameters().get(i));
+                }
+                try (ResultSet rs = explain.executeQuery()) {
+                    rs.next();
+                    return objectMapper.readTree(rs.getString(1)).get(0).get("Plan");
+                }
+            } finally {
+                connection.rollback();
+            }
+        }
+    }
+
+    private static List<JsonNode> nodes(JsonNode plan) {
+        List<JsonNode> nodes = new ArrayList<>();
+        collect(plan, nodes);
+        return nodes;
+    }
+
+    private static void collect(JsonNode node, List<JsonNode> nodes) {
+        nodes.add(node);
+        node.path("Plans").forEach(child -> collect(child, nodes));
+    }
+
+    private static Set<String> indexesUsed(JsonNode plan) {
+        return nodes(plan).stream()
+                .filter(node -> node.has("Index Name"))
+                .map(node -> node.get("Index Name").asText())
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Rows the scans of products produced or discarded, over all loops
+     */
+    private static long rowsRead(JsonNode plan) {
+        return nodes(plan).stream()
+                .filter(node -> SCAN_NODES.contains(node.path("Node Type").asText())
+                        && node.path("Relation Name").asText().equals("products"))
+                .mapToLong(node -> (node.path("Actual Rows").asLong()
+                        + node.path("Rows Removed by Filter").asLong()
+                        + node.path("Rows Removed by Index Recheck").asLong())
+                        * Math.max(1, node.path("Actual Loops").asLong()))
+                .sum();
+    }
+
+    private static long buffers(JsonNode plan) {
+        return plan.path("Shared Hit Blocks").asLong() + plan.path("Shared Read Blocks").asLong();
+    }
+
+    private static Connection connect() throws Exception {
+        return DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+    }
+}
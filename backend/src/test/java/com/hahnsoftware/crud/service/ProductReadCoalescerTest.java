@@ -0,0 +1,110 @@
+package com.hahnsoftware.crud.service;
+
+import com.hahnsoftware.crud.cache.ProductNearCache;
+import com.hahnsoftware.crud.dto.ProductDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProductReadCoalescerTest {
+
+    private ProductService productService;
+    private ProductNearCache nearCache;
+    private MeterRegistry meterRegistry;
+    private ProductReadCoalescer coalescer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        productService = mock(ProductService.class);
+        nearCache = new ProductNearCache(TimeUnit.MINUTES.toNanos(1), 1000, System::nanoTime);
+        meterRegistry = new SimpleMeterRegistry();
+        ObjectProvider<ProductNearCache> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(nearCache);
+        coalescer = new ProductReadCoalescer(productService, meterRegistry, provider, true);
+    }
+
+    @Test
+    void getProductsByIds_WithCachedAndMissingIds_ShouldLoadOnlyTheMissingOnesOnce() {
+        // Given
+        nearCache.putProduct(1L, Optional.of(product(1L)), nearCache.beginLoad());
+        when(productService.getProductsByIds(any())).thenReturn(Map.of(2L, product(2L)));
+
+        // When
+        Map<Long, ProductDTO> products = coalescer.getProductsByIds(List.of(2L, 1L, 3L, 2L, 1L));
+
+        // Then
+        verify(productService).getProductsByIds(List.of(2L, 3L));
+        assertEquals(Set.of(1L, 2L), products.keySet());
+        assertEquals(1.0, counter("products.near_cache.hits"));
+        assertEquals(2.0, counter("products.near_cache.misses"));
+    }
+
+    @Test
+    void getProductsByIds_WhenIdWasNotFound_ShouldCacheTheMiss() {
+        // Given
+        when(productService.getProductsByIds(any())).thenReturn(Map.of(2L, product(2L)));
+        coalescer.getProductsByIds(List.of(2L, 3L));
+
+        // When
+        Map<Long, ProductDTO> products = coalescer.getProductsByIds(List.of(3L, 2L));
+
+        // Then
+        verify(productService, times(1)).getProductsByIds(any());
+        assertEquals(Set.of(2L), products.keySet());
+        assertEquals(Optional.empty(), nearCache.getProduct(3L));
+    }
+
+    @Test
+    void getProductsByIds_WhenProductChangesDuringLoad_ShouldNotCacheStaleResult() {
+        // Given
+        when(productService.getProductsByIds(any())).thenAnswer(invocation -> {
+            nearCache.invalidate(2L, 1);
+            return Map.of(2L, product(2L));
+        });
+
+        // When
+        Map<Long, ProductDTO> products = coalescer.getProductsByIds(List.of(2L));
+
+        // Then
+        assertEquals(Set.of(2L), products.keySet());
+        assertNull(nearCache.getProduct(2L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getProductsByIds_WithoutNearCache_ShouldLoadDistinctIdsInRequestOrder() {
+        // Given
+        ObjectProvider<ProductNearCache> provider = mock(ObjectProvider.class);
+        coalescer = new ProductReadCoalescer(productService, meterRegistry, provider, true);
+        when(productService.getProductsByIds(any())).thenReturn(Map.of(3L, product(3L)));
+
+        // When
+        Map<Long, ProductDTO> products = coalescer.getProductsByIds(List.of(3L, 1L, 3L));
+
+        // Then
+        verify(productService).getProductsByIds(argThat(ids -> List.copyOf(ids).equals(List.of(3L, 1L))));
+        assertEquals(Set.of(3L), products.keySet());
+    }
+
+    private double counter(String name) {
+        return meterRegistry.counter(name, "operation", "by_ids").count();
+    }
+
+    private static ProductDTO product(Long id) {
+        return new ProductDTO(id, "Product " + id, "Description", new BigDecimal("9.99"), 5, "Tools", null, null);
+    }
+}
@@ -9,11 +9,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -26,6 +28,9 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ProductService productService;
 
@@ -83,6 +88,21 @@ class ProductServiceTest {
         verify(productRepository).findById(1L);
     }
 
+    @Test
+    void getProductsByIds_ShouldReturnFoundProductsKeyedById() {
+        // Given
+        when(productRepository.findAllByIdAny(List.of(1L, 2L))).thenReturn(List.of(testProduct));
+
+        // When
+        Map<Long, ProductDTO> result = productService.getProductsByIds(List.of(1L, 2L));
+
+        // Then
+        assertEquals(1, result.size());
+        assertEquals(testProduct.getName(), result.get(1L).getName());
+        assertFalse(result.containsKey(2L));
+        verify(productRepository).findAllByIdAny(List.of(1L, 2L));
+    }
+
     @Test
     void getProductById_WhenProductDoesNotExist_ShouldReturnEmpty() {
         // Given
@@ -128,6 +148,53 @@ class ProductServiceTest {
         verify(productRepository, never()).save(any(Product.class));
     }
 
+    @Test
+    void createProducts_WithUniqueNames_ShouldInsertGroupOnce() {
+        // Given
+        ProductDTO second = new ProductDTO("Second Product", null, new BigDecimal("5.00"), 3, null);
+        when(productRepository.findNamesByUpperNameIn(anyCollection())).thenReturn(List.of());
+        doAnswer(invocation -> {
+            List<Product> products = invocation.getArgument(0);
+            long id = 1;
+            for (Product product : products) {
+                product.setId(id++);
+            }
+            return null;
+        }).when(productRepository).insertAll(anyList());
+
+        // When
+        List<CreateResult> results = productService.createProducts(List.of(testProductDTO, second));
+
+        // Then
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+        assertEquals(1L, results.get(0).getProduct().getId());
+        assertEquals("Second Product", results.get(1).getProduct().getName());
+        verify(productRepository, times(1)).findNamesByUpperNameIn(anyCollection());
+        verify(productRepository, times(1)).insertAll(anyList());
+        verify(productRepository, never()).save(any(Product.class));
+    }
+
+    @Test
+    void createProducts_WithTakenAndRepeatedNames_ShouldFailOnlyThoseEntries() {
+        // Given
+        ProductDTO taken = new ProductDTO("Existing Product", null, new BigDecimal("5.00"), 3, null);
+        ProductDTO repeated = new ProductDTO("test product", null, new BigDecimal("5.00"), 3, null);
+        when(productRepository.findNamesByUpperNameIn(anyCollection())).thenReturn(List.of("Existing Product"));
+
+        // When
+        List<CreateResult> results = productService.createProducts(List.of(testProductDTO, taken, repeated));
+
+        // Then
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertFalse(results.get(2).isSuccess());
+        assertTrue(results.get(1).getError().getMessage().contains("already exists"));
+        assertTrue(results.get(2).getError().getMessage().contains("already exists"));
+        verify(productRepository).insertAll(argThat(products -> products.size() == 1));
+    }
+
     @Test
     void updateProduct_WhenProductExists_ShouldUpdateProduct() {
         // Given
@@ -0,0 +1,86 @@
+package com.hahnsoftware.crud.service;
+
+import com.hahnsoftware.crud.dto.ProductDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ProductWriteBatcherTest {
+
+    private ProductService productService;
+    private ProductWriteBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        productService = mock(ProductService.class);
+        batcher = new ProductWriteBatcher(productService, new SimpleMeterRegistry(), true, 1, 64, 500);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        batcher.shutdown();
+    }
+
+    @Test
+    void createProduct_WhenGroupThrowsError_ShouldFailCallerAndKeepWriterAlive() {
+        // Given
+        ProductDTO created = product("Created");
+        when(productService.createProducts(anyList()))
+                .thenThrow(new AssertionError("boom"))
+                .thenReturn(List.of(CreateResult.created(created)));
+
+        // When
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> batcher.createProduct(product("First")));
+        ProductDTO result = batcher.createProduct(product("Second"));
+
+        // Then
+        assertEquals("Product creation failed", error.getMessage());
+        assertSame(created, result);
+    }
+
+    @Test
+    void createProduct_WhenGroupDoesNotFinish_ShouldTimeOut() {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        when(productService.createProducts(anyList())).thenAnswer(invocation -> {
+            release.await();
+            return List.of(CreateResult.created(product("Late")));
+        });
+
+        // When
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> batcher.createProduct(product("Slow")));
+        release.countDown();
+
+        // Then
+        assertEquals("Timed out waiting for product creation", error.getMessage());
+    }
+
+    @Test
+    void createProduct_WhenShutDown_ShouldReject() throws InterruptedException {
+        // Given
+        batcher.shutdown();
+
+        // When
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> batcher.createProduct(product("Late")));
+
+        // Then
+        assertEquals("Write batching is shutting down", error.getMessage());
+        verifyNoInteractions(productService);
+    }
+
+    private static ProductDTO product(String name) {
+        return new ProductDTO(name, "Description", new BigDecimal("9.99"), 1, "Tools");
+    }
+}
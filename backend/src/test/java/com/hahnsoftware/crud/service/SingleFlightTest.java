@@ -0,0 +1,158 @@
+package com.hahnsoftware.crud.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void execute_WithConcurrentIdenticalCalls_ShouldRunLoaderOnce() throws Exception {
+        // Given
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger joined = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("key", () -> {
+                executions.incrementAndGet();
+                await(release);
+                return "value";
+            }, new CountingListener(joined))));
+        }
+        waitUntil(() -> joined.get() == 7);
+        release.countDown();
+
+        // Then
+        for (Future<String> result : results) {
+            assertEquals("value", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, executions.get());
+        assertEquals(0, singleFlight.inFlightCount());
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_WhenLoaderFails_ShouldShareFailureAndRetryAfterwards() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger joined = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // When
+        Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+            await(release);
+            throw new IllegalStateException("database down");
+        }));
+        waitUntil(() -> singleFlight.inFlightCount() == 1);
+        Future<String> follower = executor.submit(() ->
+                singleFlight.execute("key", () -> "unexpected", new CountingListener(joined)));
+        waitUntil(() -> joined.get() == 1);
+        release.countDown();
+
+        // Then
+        Exception leaderFailure = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        Exception followerFailure = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertEquals("database down", leaderFailure.getCause().getMessage());
+        assertEquals("database down", followerFailure.getCause().getMessage());
+        assertEquals("fresh", singleFlight.execute("key", () -> "fresh"));
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_WhenLeaderIsInterrupted_ShouldLetFollowerRetry() throws Exception {
+        // Given
+        AtomicInteger joined = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // When
+        Future<String> leader = executor.submit(() -> singleFlight.execute("key", () -> {
+            try {
+                Thread.sleep(10_000);
+                return "unexpected";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted", e);
+            }
+        }));
+        waitUntil(() -> singleFlight.inFlightCount() == 1);
+        Future<String> follower = executor.submit(() ->
+                singleFlight.execute("key", () -> "retried", new CountingListener(joined)));
+        waitUntil(() -> joined.get() == 1);
+        leader.cancel(true);
+
+        // Then
+        assertEquals("retried", follower.get(5, TimeUnit.SECONDS));
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_AfterForgetAll_ShouldStartNewExecution() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<String> stale = executor.submit(() -> singleFlight.execute("key", () -> {
+            await(release);
+            return "stale";
+        }));
+        waitUntil(() -> singleFlight.inFlightCount() == 1);
+
+        // When
+        singleFlight.forgetAll();
+        String result = singleFlight.execute("key", () -> "fresh");
+        release.countDown();
+
+        // Then
+        assertEquals("fresh", result);
+        assertEquals("stale", stale.get(5, TimeUnit.SECONDS));
+        executor.shutdownNow();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not reached in time");
+            Thread.sleep(1);
+        }
+    }
+
+    private static class CountingListener implements SingleFlight.Listener {
+
+        private final AtomicInteger joined;
+
+        CountingListener(AtomicInteger joined) {
+            this.joined = joined;
+        }
+
+        @Override
+        public void onExecute() {
+        }
+
+        @Override
+        public void onJoin() {
+            joined.incrementAndGet();
+        }
+    }
+}
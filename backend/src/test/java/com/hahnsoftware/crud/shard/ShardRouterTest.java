@@ -0,0 +1,102 @@
+package com.hahnsoftware.crud.shard;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRouterTest {
+
+    @Test
+    void nextId_WhenSequenceOverflowsWithinOneMillisecond_ShouldStayUniqueAndIncreasing() {
+        // Given
+        AtomicLong clock = new AtomicLong(ShardIdGenerator.EPOCH_MILLIS + 1_000);
+        ShardIdGenerator generator = new ShardIdGenerator(7, clock::get);
+
+        // When
+        long previous = 0;
+        Set<Long> ids = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextId();
+
+            // Then
+            assertTrue(id > previous);
+            assertEquals(7, ShardIdGenerator.nodeOf(id));
+            assertTrue(ids.add(id));
+            previous = id;
+        }
+    }
+
+    @Test
+    void nextId_WhenClockMovesBackwards_ShouldStillIncrease() {
+        // Given
+        AtomicLong clock = new AtomicLong(ShardIdGenerator.EPOCH_MILLIS + 10_000);
+        ShardIdGenerator generator = new ShardIdGenerator(1, clock::get);
+        long first = generator.nextId();
+
+        // When
+        clock.addAndGet(-5_000);
+        long second = generator.nextId();
+
+        // Then
+        assertTrue(second > first);
+    }
+
+    @Test
+    void constructor_WithNodeIdOutOfRange_ShouldThrowException() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> new ShardIdGenerator(ShardIdGenerator.MAX_NODE_ID + 1, System::currentTimeMillis));
+        assertThrows(IllegalArgumentException.class, () -> new ShardIdGenerator(-1, System::currentTimeMillis));
+    }
+
+    @Test
+    void shardFor_WithGeneratedIds_ShouldSpreadEvenlyOverShards() {
+        // Given
+        ShardRouter router = new ShardRouter(4);
+        ShardIdGenerator generator = new ShardIdGenerator(3, () -> ShardIdGenerator.EPOCH_MILLIS + 42);
+        int[] counts = new int[4];
+
+        // When
+        for (int i = 0; i < 40_000; i++) {
+            counts[router.shardFor(generator.nextId())]++;
+        }
+
+        // Then
+        for (int count : counts) {
+            assertTrue(count > 9_000 && count < 11_000, "Uneven distribution: " + count);
+        }
+    }
+
+    @Test
+    void jumpConsistentHash_WhenAddingAShard_ShouldOnlyMoveKeysToTheNewShard() {
+        // When & Then
+        int moved = 0;
+        for (long key = 0; key < 10_000; key++) {
+            int before = ShardRouter.jumpConsistentHash(key, 4);
+            int after = ShardRouter.jumpConsistentHash(key, 5);
+            if (before != after) {
+                assertEquals(4, after);
+                moved++;
+            }
+        }
+        assertTrue(moved > 1_500 && moved < 2_500, "Moved keys: " + moved);
+    }
+
+    @Test
+    void merge_WithSortedLists_ShouldReturnOneSortedList() {
+        // Given
+        List<List<Integer>> lists = List.of(List.of(9, 5, 1), List.of(), List.of(8, 5, 2), List.of(7));
+
+        // When
+        List<Integer> merged = SortedMerge.merge(lists, Comparator.reverseOrder());
+
+        // Then
+        assertEquals(List.of(9, 8, 7, 5, 5, 2, 1), merged);
+    }
+}
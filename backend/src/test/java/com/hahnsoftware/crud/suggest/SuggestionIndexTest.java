@@ -0,0 +1,171 @@
+package com.hahnsoftware.crud.suggest;
+
+import com.hahnsoftware.crud.dto.ProductSuggestionDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestionIndexTest {
+
+    private SuggestionIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new SuggestionIndex();
+        index.put(1L, "Laptop Pro 15", "Electronics");
+        index.put(2L, "Wireless Mouse", "Accessories");
+        index.put(3L, "Laptop Stand", "Accessories");
+        index.put(4L, "Monitor 27\"", "Electronics");
+    }
+
+    @Test
+    void suggest_WithNamePrefix_ShouldReturnMatchingProducts() {
+        // When
+        List<Long> ids = ids(index.suggest("lap", 10));
+
+        // Then
+        assertEquals(2, ids.size());
+        assertTrue(ids.containsAll(List.of(1L, 3L)));
+    }
+
+    @Test
+    void suggest_WithLaterWordOrCategoryPrefix_ShouldMatch() {
+        // Then
+        assertEquals(List.of(2L), ids(index.suggest("MOU", 10)));
+        assertTrue(ids(index.suggest("elec", 10)).containsAll(List.of(1L, 4L)));
+    }
+
+    @Test
+    void suggest_ShouldRankByWeightAndRespectLimit() {
+        // Given
+        index.addWeight(3L, 5);
+        index.addWeight(1L, 2);
+
+        // When
+        List<Long> ids = ids(index.suggest("l", 1));
+
+        // Then
+        assertEquals(List.of(3L), ids);
+        assertEquals(List.of(3L, 1L), ids(index.suggest("la", 10)));
+    }
+
+    @Test
+    void suggest_ShouldNotReturnSameProductTwice() {
+        // Given
+        index.put(5L, "Accessory Kit", "Accessories");
+
+        // When
+        List<Long> ids = ids(index.suggest("accessor", 10));
+
+        // Then
+        assertEquals(ids.stream().distinct().count(), ids.size());
+        assertTrue(ids.contains(5L));
+    }
+
+    @Test
+    void put_WithRenamedProduct_ShouldReplaceOldTerms() {
+        // When
+        index.put(2L, "Trackball", "Accessories");
+
+        // Then
+        assertTrue(index.suggest("wire", 10).isEmpty());
+        assertEquals("Trackball", index.suggest("track", 10).get(0).getName());
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void remove_ShouldDropProductAndKeepSiblings() {
+        // When
+        index.remove(1L);
+
+        // Then
+        assertEquals(List.of(3L), ids(index.suggest("laptop", 10)));
+        assertEquals(List.of(4L), ids(index.suggest("electronics", 10)));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void suggest_WithUnknownOrBlankPrefix_ShouldReturnEmpty() {
+        // Then
+        assertTrue(index.suggest("zzz", 10).isEmpty());
+        assertTrue(index.suggest("  ", 10).isEmpty());
+        assertTrue(index.suggest(null, 10).isEmpty());
+    }
+
+    @Test
+    void put_WithManyProducts_ShouldGrowAndStayConsistent() {
+        // Given
+        for (long id = 100; id < 5100; id++) {
+            index.put(id, "Item " + id, "Bulk");
+        }
+        for (long id = 100; id < 5100; id += 2) {
+            index.remove(id);
+        }
+
+        // When
+        List<ProductSuggestionDTO> suggestions = index.suggest("item 51", 100);
+
+        // Then
+        assertEquals(2504, index.size());
+        assertFalse(suggestions.isEmpty());
+        assertTrue(suggestions.stream().allMatch(s -> s.getId() % 2 == 1));
+    }
+
+    @Test
+    void addWeights_WithManyEqualWeights_ShouldKeepRankingConsistent() {
+        // Given
+        int count = 3 * SuggestionIndex.WEIGHT_BATCH_SIZE;
+        long[] ids = new long[count];
+        long[] deltas = new long[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = 1000 + i;
+            deltas[i] = i % 7;
+            index.put(ids[i], "Gadget " + i, "Gadgets");
+        }
+
+        // When
+        index.addWeights(ids, deltas, count);
+        index.addWeight(1000L, 100);
+
+        // Then
+        List<Long> top = ids(index.suggest("gadget", 4));
+        assertEquals(1000L, top.get(0));
+        assertTrue(top.subList(1, 4).stream().allMatch(id -> (id - 1000) % 7 == 6));
+        assertEquals(List.of(1000L), ids(index.suggest("gadget 0", 10)));
+    }
+
+    @Test
+    void addWeight_WithNegativeDelta_ShouldLowerRanking() {
+        // Given
+        index.addWeight(1L, 5);
+        index.addWeight(3L, 3);
+
+        // When
+        index.addWeight(1L, -4);
+
+        // Then
+        assertEquals(List.of(3L, 1L), ids(index.suggest("laptop", 10)));
+    }
+
+    @Test
+    void remove_AfterWeightChange_ShouldFindSlot() {
+        // Given
+        index.addWeight(1L, 5);
+        index.addWeight(3L, 5);
+
+        // When
+        index.remove(1L);
+
+        // Then
+        assertEquals(List.of(3L), ids(index.suggest("laptop", 10)));
+        assertEquals(List.of(4L), ids(index.suggest("electronics", 10)));
+    }
+
+    private static List<Long> ids(List<ProductSuggestionDTO> suggestions) {
+        return suggestions.stream().map(ProductSuggestionDTO::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,47 @@
+package com.hahnsoftware.crud.trace;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestTraceTest {
+
+    private static final Instant STARTED_AT = Instant.parse("2024-01-01T12:00:00Z");
+
+    @Test
+    void serverTiming_ShouldListRecordedPhasesInOrderAndTotalAppTime() {
+        // Given
+        RequestTrace trace = new RequestTrace(STARTED_AT, 1_000_000);
+        trace.add(TracePhase.SERIALIZATION, 250_000);
+        trace.add(TracePhase.SQL, 1_500_000);
+        trace.add(TracePhase.SQL, 500_000);
+
+        // When
+        String header = trace.serverTiming(6_000_000);
+
+        // Then
+        assertEquals("sql;dur=2.000, json;dur=0.250, app;dur=5.000", header);
+    }
+
+    @Test
+    void finish_ShouldReportPhasesInMicrosWithCounts() {
+        // Given
+        RequestTrace trace = new RequestTrace(STARTED_AT, 0);
+        trace.add(TracePhase.CONNECTION, 40_000);
+        trace.add(TracePhase.SQL, 900_000);
+        trace.add(TracePhase.SQL, 100_000);
+
+        // When
+        TraceRecord record = trace.finish("GET", "/api/products/1", 200, 3_000_000);
+
+        // Then
+        assertEquals(STARTED_AT, record.startedAt());
+        assertEquals(3_000, record.durationMicros());
+        assertEquals(List.of(new TraceRecord.Phase("db-conn", 40, 1), new TraceRecord.Phase("sql", 1_000, 2)),
+                record.phases());
+        assertEquals(1_040_000, trace.databaseNanos());
+    }
+}
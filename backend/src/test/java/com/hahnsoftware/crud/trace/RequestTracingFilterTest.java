@@ -0,0 +1,69 @@
+package com.hahnsoftware.crud.trace;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestTracingFilterTest {
+
+    private final TraceRingBuffer traces = new TraceRingBuffer(8);
+
+    @AfterEach
+    void tearDown() {
+        RequestTracer.setEnabled(false);
+    }
+
+    @Test
+    void doFilter_WhenSampled_ShouldAddServerTimingAndRecordTrace() throws Exception {
+        // Given
+        RequestTracingFilter filter = filter(1.0);
+        AtomicReference<RequestTrace> seen = new AtomicReference<>();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/products/1"), response, (request, servletResponse) -> {
+            seen.set(RequestTracer.current());
+            RequestTracer.stop(TracePhase.SQL, RequestTracer.start());
+        });
+
+        // Then
+        assertNotNull(seen.get());
+        assertNull(RequestTracer.current());
+        assertTrue(response.getHeader(RequestTracingFilter.SERVER_TIMING).contains("sql;dur="));
+        List<TraceRecord> recorded = traces.recent(10, 0);
+        assertEquals(1, recorded.size());
+        assertEquals("/api/products/1", recorded.get(0).path());
+        assertEquals("sql", recorded.get(0).phases().get(0).name());
+    }
+
+    @Test
+    void doFilter_WhenNotSampledOrOutsideProductApi_ShouldNotTrace() throws Exception {
+        // Given
+        RequestTracingFilter unsampled = filter(0.0);
+        RequestTracingFilter sampled = filter(1.0);
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        MockHttpServletResponse second = new MockHttpServletResponse();
+
+        // When
+        unsampled.doFilter(new MockHttpServletRequest("GET", "/api/products"), first, new MockFilterChain());
+        sampled.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), second, new MockFilterChain());
+
+        // Then
+        assertNull(first.getHeader(RequestTracingFilter.SERVER_TIMING));
+        assertNull(second.getHeader(RequestTracingFilter.SERVER_TIMING));
+        assertTrue(traces.recent(10, 0).isEmpty());
+    }
+
+    private RequestTracingFilter filter(double sampleRate) throws Exception {
+        RequestTracingFilter filter = new RequestTracingFilter(traces, sampleRate);
+        filter.afterPropertiesSet();
+        return filter;
+    }
+}
@@ -0,0 +1,72 @@
+package com.hahnsoftware.crud.trace;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceRingBufferTest {
+
+    @Test
+    void recent_WhenBufferWrapsAround_ShouldReturnLatestTracesNewestFirst() {
+        // Given
+        TraceRingBuffer buffer = new TraceRingBuffer(4);
+
+        // When
+        for (int i = 1; i <= 6; i++) {
+            buffer.add(trace("/api/products/" + i, i));
+        }
+
+        // Then
+        List<String> paths = buffer.recent(10, 0).stream().map(TraceRecord::path).toList();
+        assertEquals(List.of("/api/products/6", "/api/products/5", "/api/products/4", "/api/products/3"), paths);
+    }
+
+    @Test
+    void recent_WithLimitAndMinimumDuration_ShouldFilterSlowTraces() {
+        // Given
+        TraceRingBuffer buffer = new TraceRingBuffer(8);
+        buffer.add(trace("/api/products/1", 500));
+        buffer.add(trace("/api/products/2", 5_000));
+        buffer.add(trace("/api/products/3", 100));
+        buffer.add(trace("/api/products/4", 9_000));
+
+        // When
+        List<TraceRecord> traces = buffer.recent(1, 1_000);
+
+        // Then
+        assertEquals(1, traces.size());
+        assertEquals("/api/products/4", traces.get(0).path());
+    }
+
+    @Test
+    void constructor_ShouldRoundCapacityUpToPowerOfTwo() {
+        // When & Then
+        assertEquals(1024, new TraceRingBuffer(1000).capacity());
+        assertEquals(1024, new TraceRingBuffer(1024).capacity());
+    }
+
+    @Test
+    void serverTiming_ShouldListTimedPhasesAndTotalInMilliseconds() {
+        // Given
+        RequestTrace trace = new RequestTrace(Instant.now(), 0);
+        trace.add(TracePhase.CONNECTION, 250_000);
+        trace.add(TracePhase.SQL, 1_000_000);
+        trace.add(TracePhase.SQL, 500_000);
+
+        // When
+        String header = trace.serverTiming(4_000_000);
+        TraceRecord record = trace.finish("GET", "/api/products", 200, 4_000_000);
+
+        // Then
+        assertEquals("db-conn;dur=0.250, sql;dur=1.500, app;dur=4.000", header);
+        assertEquals(4_000, record.durationMicros());
+        assertEquals(new TraceRecord.Phase("sql", 1_500, 2), record.phases().get(1));
+    }
+
+    private static TraceRecord trace(String path, long durationMicros) {
+        return new TraceRecord(Instant.now(), "GET", path, 200, durationMicros, List.of());
+    }
+}
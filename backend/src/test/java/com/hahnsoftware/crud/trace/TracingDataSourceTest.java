@@ -0,0 +1,66 @@
+package com.hahnsoftware.crud.trace;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TracingDataSourceTest {
+
+    private Connection connection;
+    private PreparedStatement statement;
+    private TracingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        connection = mock(Connection.class);
+        statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement("SELECT 1")).thenReturn(statement);
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(connection);
+        dataSource = new TracingDataSource(target);
+        RequestTracer.setEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestTracer.end();
+        RequestTracer.setEnabled(false);
+    }
+
+    @Test
+    void getConnection_OutsideSampledRequest_ShouldReturnPoolConnectionUnwrapped() throws Exception {
+        // When
+        Connection result = dataSource.getConnection();
+
+        // Then
+        assertSame(connection, result);
+    }
+
+    @Test
+    void getConnection_InSampledRequest_ShouldTimeAcquisitionAndStatements() throws Exception {
+        // Given
+        RequestTrace trace = new RequestTrace(Instant.now(), System.nanoTime());
+        RequestTracer.begin(trace);
+
+        // When
+        try (Connection result = dataSource.getConnection()) {
+            result.prepareStatement("SELECT 1").executeQuery();
+        }
+
+        // Then
+        verify(statement).executeQuery();
+        verify(connection).close();
+        assertEquals(List.of("db-conn", "sql"),
+                trace.finish("GET", "/api/products", 200, System.nanoTime()).phases().stream()
+                        .map(TraceRecord.Phase::name).toList());
+    }
+}
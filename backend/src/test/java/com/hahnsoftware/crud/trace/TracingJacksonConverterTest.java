@@ -0,0 +1,59 @@
+package com.hahnsoftware.crud.trace;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracingJacksonConverterTest {
+
+    private final TracingJacksonConverter converter = new TracingJacksonConverter(new ObjectMapper());
+
+    @BeforeEach
+    void setUp() {
+        RequestTracer.setEnabled(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestTracer.end();
+        RequestTracer.setEnabled(false);
+    }
+
+    @Test
+    void write_InSampledRequest_ShouldSetServerTimingAndTimeSerialization() throws Exception {
+        // Given
+        RequestTrace trace = new RequestTrace(Instant.now(), System.nanoTime());
+        RequestTracer.begin(trace);
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+
+        // When
+        converter.write(Map.of("success", true), MediaType.APPLICATION_JSON, message);
+
+        // Then
+        assertEquals("{\"success\":true}", message.getBodyAsString());
+        assertTrue(message.getHeaders().getFirst(RequestTracingFilter.SERVER_TIMING).startsWith("app;dur="));
+        assertEquals("*", message.getHeaders().getFirst("Timing-Allow-Origin"));
+        assertEquals("json", trace.finish("GET", "/api/products", 200, System.nanoTime()).phases().get(0).name());
+    }
+
+    @Test
+    void write_OutsideSampledRequest_ShouldOnlyWriteBody() throws Exception {
+        // Given
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+
+        // When
+        converter.write(Map.of("success", true), MediaType.APPLICATION_JSON, message);
+
+        // Then
+        assertEquals("{\"success\":true}", message.getBodyAsString());
+        assertFalse(message.getHeaders().containsKey(RequestTracingFilter.SERVER_TIMING));
+    }
+}